@@ -0,0 +1,37 @@
+package com.example.shoptry.config;
+
+import com.example.shoptry.entity.PooledSequenceGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * 아이디 블록 크기 설정(shop.id.*)을 Hibernate 설정으로 넘겨 PooledSequenceGenerator 에서 읽을 수 있도록 합니다.
+ * 예) shop.id.default-block-size=50, shop.id.block-sizes.orders_seq=200
+ */
+@Configuration
+public class IdAllocationConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idAllocationPropertiesCustomizer(Environment environment) {
+        return hibernateProperties -> {
+            String defaultBlockSize = environment.getProperty(PooledSequenceGenerator.DEFAULT_BLOCK_SIZE_SETTING);
+            if (defaultBlockSize != null) {
+                hibernateProperties.put(PooledSequenceGenerator.DEFAULT_BLOCK_SIZE_SETTING, defaultBlockSize);
+            }
+            Map<String, String> blockSizes = Binder.get(environment)
+                    .bind("shop.id.block-sizes", Bindable.mapOf(String.class, String.class))
+                    .orElse(Map.of());
+            blockSizes.forEach((sequenceName, blockSize) ->
+                    hibernateProperties.put(PooledSequenceGenerator.BLOCK_SIZE_SETTING_PREFIX + sequenceName, blockSize));
+
+            // DB 시퀀스의 증가값과 블록 크기가 다르면 아이디가 겹칠 수 있으므로 시작하지 않습니다.
+            hibernateProperties.putIfAbsent("hibernate.id.sequence.increment_size_mismatch_strategy", "exception");
+        };
+    }
+}
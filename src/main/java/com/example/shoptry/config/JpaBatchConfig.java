@@ -0,0 +1,23 @@
+package com.example.shoptry.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 주문 묶음 커밋처럼 한 트랜잭션에서 여러 엔티티를 저장할 때 insert 배치가 끊기지 않도록
+ * 같은 테이블의 insert 를 모아서 실행합니다.
+ * 장바구니 주문처럼 주문 상품과 재고 수정이 여러 건인 트랜잭션도 배치로 보내도록 기본 배치 크기를 정합니다.
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jpaBatchPropertiesCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.putIfAbsent("hibernate.order_inserts", "true");
+            hibernateProperties.putIfAbsent("hibernate.order_updates", "true");
+            hibernateProperties.putIfAbsent("hibernate.jdbc.batch_size", "50");
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.shoptry.constant;
+
+public enum CheckoutStatus {
+    ACCEPTED, PROCESSING, COMPLETED, FAILED
+}
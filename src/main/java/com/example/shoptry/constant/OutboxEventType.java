@@ -0,0 +1,5 @@
+package com.example.shoptry.constant;
+
+public enum OutboxEventType {
+    ORDER_CREATED, ORDER_CANCELED
+}
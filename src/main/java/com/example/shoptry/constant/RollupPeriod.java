@@ -0,0 +1,5 @@
+package com.example.shoptry.constant;
+
+public enum RollupPeriod {
+    HOUR, DAY
+}
@@ -3,11 +3,18 @@ package com.example.shoptry.controller;
 import com.example.shoptry.dto.CartDetailDto;
 import com.example.shoptry.dto.CartItemDto;
 import com.example.shoptry.dto.CartOrderDto;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.exception.OrderPendingException;
+import com.example.shoptry.exception.ResponsePendingException;
 import com.example.shoptry.service.CartService;
+import com.example.shoptry.service.IdempotencyStore;
+import com.example.shoptry.service.OrderGroupCommitter;
+import com.example.shoptry.service.OwnershipService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -22,6 +29,9 @@ import java.util.List;
 public class CartController {
 
     private final CartService cartService;
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final IdempotencyStore idempotencyStore;
+    private final OwnershipService ownershipService;
 
     @PostMapping(value = "/cart")
     public @ResponseBody ResponseEntity order(@RequestBody @Valid CartItemDto cartItemDto, BindingResult bindingResult, Principal principal) {
@@ -56,10 +66,10 @@ public class CartController {
     public @ResponseBody ResponseEntity updateCartItem(@PathVariable("cartItemId") Long cartItemId, int count, Principal principal) {
         if (count <= 0) {
             return new ResponseEntity<String>("최소 1개 이상 담아주세요", HttpStatus.BAD_REQUEST);
-        } else if (!cartService.validaeCartItem(cartItemId, principal.getName())) {
+        } else if (!ownershipService.ownsCartItem(principal, cartItemId)) {
             return new ResponseEntity<String>("수정 권한이 없습니다.", HttpStatus.FORBIDDEN);
         }
-        cartService.updateCartItemCount(cartItemId, count);
+        cartService.updateCartItemCount(cartItemId, count, principal.getName());
         return new ResponseEntity<Long>(cartItemId, HttpStatus.OK);
     }
 
@@ -67,16 +77,17 @@ public class CartController {
     @DeleteMapping(value = "/cartItem/{cartItemId}")
     public @ResponseBody ResponseEntity deleteCartItem(@PathVariable("cartItemId") Long cartItemid, Principal principal) {
 
-        if (!cartService.validaeCartItem(cartItemid, principal.getName())) {
+        if (!ownershipService.ownsCartItem(principal, cartItemid)) {
             return new ResponseEntity<String>("수정 권한이 없습니다.", HttpStatus.FORBIDDEN);
         }
 
-        cartService.deleteCartItem(cartItemid);
+        cartService.deleteCartItem(cartItemid, principal.getName());
         return new ResponseEntity<Long>(cartItemid, HttpStatus.OK);
     }
 
     @PostMapping(value = "/cart/orders")
-    public @ResponseBody ResponseEntity orderCartItem(@RequestBody CartOrderDto cartOrderDto, Principal principal) {
+    public @ResponseBody ResponseEntity orderCartItem(@RequestBody CartOrderDto cartOrderDto, Principal principal,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         List<CartOrderDto> cartOrderDtoList = cartOrderDto.getCartOrderDtoList();
 
@@ -84,13 +95,35 @@ public class CartController {
             return new ResponseEntity<String>("주문할 상품을 선택해주세요.", HttpStatus.FORBIDDEN);
         }
 
-        for (CartOrderDto cartOrder : cartOrderDtoList) {
-            if (!cartService.validaeCartItem(cartOrder.getCartItemId(), principal.getName())) {
-                return new ResponseEntity<String>("주문 권한이 없습니다.", HttpStatus.FORBIDDEN);
+        // 재시도한 요청이면 첫 요청의 응답을 그대로 돌려줍니다. 첫 주문에서 장바구니 상품이 지워졌으므로 검증보다 먼저 확인합니다.
+        List<Long> cartItemIds = cartService.getCartItemIds(cartOrderDtoList);
+        return idempotencyStore.execute(idempotencyKey, "cart:" + principal.getName(), cartItemIds.toString(), () -> {
+            List<OrderDto> orderDtoList;
+            try {
+                orderDtoList = cartService.getOrderDtoList(cartOrderDtoList, principal.getName());
+            } catch (AccessDeniedException e) {
+                return new ResponseEntity<String>(e.getMessage(), HttpStatus.FORBIDDEN);
             }
-        }
-        Long orderId = cartService.orderCartItem(cartOrderDtoList, principal.getName());
-        return new ResponseEntity<Long>(orderId, HttpStatus.OK);
+            // 장바구니 상품은 주문이 커밋되는 트랜잭션에서 같이 지웁니다.
+            Long orderId;
+            try {
+                orderId = orderGroupCommitter.orders(orderDtoList, principal.getName(), cartItemIds);
+            } catch (OrderPendingException e) {
+                // 주문이 나중에 커밋될 수 있으므로 같은 키로 다시 시도하면 이 주문의 결과를 기다립니다.
+                throw new ResponsePendingException(new ResponseEntity<String>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE),
+                        e.getResult().handle((pendingOrderId, error) -> {
+                            if (error == null) {
+                                cartService.forgetOrderedItems(principal.getName(), cartItemIds);
+                                return new ResponseEntity<Long>(pendingOrderId, HttpStatus.OK);
+                            }
+                            HttpStatus status = error instanceof IllegalStateException
+                                    ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_REQUEST;
+                            return new ResponseEntity<String>(error.getMessage(), status);
+                        }));
+            }
+            cartService.forgetOrderedItems(principal.getName(), cartItemIds);
+            return new ResponseEntity<Long>(orderId, HttpStatus.OK);
+        });
     }
 
 }
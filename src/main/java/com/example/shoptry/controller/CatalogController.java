@@ -0,0 +1,45 @@
+package com.example.shoptry.controller;
+
+import com.example.shoptry.dto.CatalogCheckResultDto;
+import com.example.shoptry.service.CatalogCardService;
+import com.example.shoptry.service.CatalogSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+public class CatalogController {
+
+    private final CatalogCardService catalogCardService;
+    private final CatalogSnapshot catalogSnapshot;
+
+    // 상품 목록용 카드(catalog_card)를 상품 테이블 기준으로 다시 만듭니다.
+    @PostMapping(value = "/admin/catalog/rebuild")
+    public @ResponseBody ResponseEntity<CatalogCheckResultDto> rebuild() {
+        return new ResponseEntity<>(catalogCardService.rebuild(), HttpStatus.OK);
+    }
+
+    // 카드와 상품의 차이만 확인하고 고치지는 않습니다.
+    @GetMapping(value = "/admin/catalog/check")
+    public @ResponseBody ResponseEntity<CatalogCheckResultDto> check() {
+        return new ResponseEntity<>(catalogCardService.check(false), HttpStatus.OK);
+    }
+
+    // 정렬 스냅샷의 행 수와 대략적인 메모리 사용량입니다.
+    @GetMapping(value = "/admin/catalog/snapshot")
+    public @ResponseBody ResponseEntity<Map<String, Object>> snapshot() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", catalogSnapshot.isReady());
+        status.put("rows", catalogSnapshot.getRowCount());
+        status.put("memoryBytes", catalogSnapshot.getMemoryBytes());
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.shoptry.controller;
+
+import com.example.shoptry.dto.ItemImportResultDto;
+import com.example.shoptry.service.ItemImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Controller
+@RequiredArgsConstructor
+public class ItemImportController {
+
+    private final ItemImportService itemImportService;
+
+    // 서버에 있는 상품 파일을 별도 스레드에서 가져옵니다. 진행 상황은 GET 으로 확인합니다.
+    @PostMapping(value = "/admin/items/import")
+    public @ResponseBody ResponseEntity importItems(@RequestParam("file") String file,
+                                                    @RequestParam(value = "imageDir", required = false) String imageDir,
+                                                    @RequestParam(value = "resume", defaultValue = "false") boolean resume) {
+        Path path = Path.of(file);
+        if (!Files.isRegularFile(path)) {
+            return new ResponseEntity<String>("파일을 찾을 수 없습니다: " + file, HttpStatus.BAD_REQUEST);
+        }
+        Path images = imageDir == null ? path.getParent() : Path.of(imageDir);
+        if (!itemImportService.startImportItems(path, images, resume)) {
+            return new ResponseEntity<String>("이미 상품 가져오기가 실행 중입니다.", HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<String>("상품 가져오기를 시작했습니다.", HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(value = "/admin/items/import")
+    public @ResponseBody ResponseEntity<ItemImportResultDto> importStatus() {
+        ItemImportResultDto result = itemImportService.getLastResult();
+        if (result == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
@@ -1,36 +1,195 @@
 package com.example.shoptry.controller;
 
+import com.example.shoptry.dto.CursorPageDto;
+import com.example.shoptry.dto.ItemFacetDto;
 import com.example.shoptry.dto.ItemSearchDto;
 import com.example.shoptry.dto.MainItemDto;
 import com.example.shoptry.service.ItemService;
+import com.example.shoptry.service.StorefrontPageCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.View;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+import org.thymeleaf.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Controller
 @RequiredArgsConstructor
 public class MainController {
 
     private final ItemService itemService;
+    private final StorefrontPageCache storefrontPageCache;
+    private final ThymeleafViewResolver viewResolver;
 
+    // true 이면 page 파라미터가 없을 때 커서(seek) 방식으로 목록을 조회합니다.
+    @Value("${shop.storefront.seek-paging:true}")
+    private boolean seekPaging;
+
+    /**
+     * 메인 화면은 로그인 여부와 상관없이 목록이 같으므로 헤더를 뺀 HTML 을 StorefrontPageCache 에 저장해 두고,
+     * 헤더만 요청마다 렌더링해서 채워 넣습니다. 캐시에 있으면 DB 를 조회하지 않습니다.
+     */
     @GetMapping(value = "/")
-    public String main(ItemSearchDto itemSearchDto, Optional<Integer> page, Model model) {
+    public @ResponseBody ResponseEntity<String> main(ItemSearchDto itemSearchDto, Optional<Integer> page, Optional<String> cursor,
+                                                     HttpServletRequest request, HttpServletResponse response) {
+        String html;
+        try {
+            if (storefrontPageCache.isEnabled()) {
+                html = storefrontPageCache.get(pageKey(request), () -> renderMain(itemSearchDto, page, cursor, request, response));
+            } else {
+                html = renderMain(itemSearchDto, page, cursor, request, response);
+            }
+        } catch (IllegalArgumentException e) {
+            // 잘못된 커서는 캐시에 넣지 않고 400 으로 응답합니다.
+            return new ResponseEntity<String>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+
+        String header = render("fragments/header :: header", new ExtendedModelMap(), request, response);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(html.replace(StorefrontPageCache.HEADER_HOLE, header));
+    }
+
+    private String renderMain(ItemSearchDto itemSearchDto, Optional<Integer> page, Optional<String> cursor,
+                              HttpServletRequest request, HttpServletResponse response) {
+        Model model = new ExtendedModelMap();
+        String viewName = main(itemSearchDto, page, cursor, model);
+        model.addAttribute("headerHole", StorefrontPageCache.HEADER_HOLE);
+        return render(viewName, model, request, response);
+    }
+
+    private String main(ItemSearchDto itemSearchDto, Optional<Integer> page, Optional<String> cursor, Model model) {
+
+        model.addAttribute("itemSearchDto", itemSearchDto);
+        model.addAttribute("facetQueries", facetQueries(itemSearchDto));
 
         Pageable pageable = PageRequest.of(page.isPresent() ? page.get() : 0, 6);
+
+        // 검색어가 있으면 검색 색인의 관련도 순으로 보여줍니다.
+        if (!StringUtils.isEmpty(itemSearchDto.getSearchQuery())) {
+            Page<MainItemDto> items = itemService.searchMainItems(itemSearchDto, pageable);
+            model.addAttribute("items", items);
+            model.addAttribute("seekPaging", false);
+            model.addAttribute("maxPage", 5);
+            return "main";
+        }
+
+        // 필터 값별 상품 수는 검색어 없이 목록을 볼 때만 보여줍니다.
+        ItemFacetDto facets = itemService.getMainItemFacets(itemSearchDto);
+        model.addAttribute("facets", facets);
+
+        // 정렬 기준이 있으면 정렬 스냅샷에서 필터까지 함께 적용합니다.
+        Page<MainItemDto> sorted = itemService.getSortedMainItemPage(itemSearchDto, pageable);
+        if (sorted != null) {
+            model.addAttribute("items", sorted);
+            model.addAttribute("seekPaging", false);
+            model.addAttribute("maxPage", 5);
+            return "main";
+        }
+
+        // 필터 색인이 준비되지 않았으면 DB 에서 필터를 적용해 조회합니다.
+        if (itemSearchDto.hasFacetFilter()) {
+            Page<MainItemDto> items = itemService.getFacetedMainItemPage(itemSearchDto, pageable);
+            model.addAttribute("items", items);
+            model.addAttribute("seekPaging", false);
+            model.addAttribute("maxPage", 5);
+            return "main";
+        }
+
+        if (seekPaging && page.isEmpty()) {
+            CursorPageDto<MainItemDto> items = itemService.getMainItemSlice(itemSearchDto, cursor.orElse(null), 6);
+            model.addAttribute("items", items);
+            model.addAttribute("seekPaging", true);
+            return "main";
+        }
+
         Page<MainItemDto> items = itemService.getMainItemPage(itemSearchDto, pageable);
         model.addAttribute("items", items);
-        model.addAttribute("itemSearchDto", itemSearchDto);
+        model.addAttribute("seekPaging", false);
         model.addAttribute("maxPage", 5);
         return "main";
 
     }
 
+    // 뷰를 응답으로 바로 쓰지 않고 문자열로 렌더링합니다.
+    private String render(String viewName, Model model, HttpServletRequest request, HttpServletResponse response) {
+        CapturingResponse wrapper = new CapturingResponse(response);
+        try {
+            View view = viewResolver.resolveViewName(viewName, request.getLocale());
+            if (view == null) {
+                throw new IllegalStateException("뷰를 찾을 수 없습니다: " + viewName);
+            }
+            view.render(model.asMap(), request, wrapper);
+        } catch (Exception e) {
+            throw new IllegalStateException("뷰 렌더링에 실패했습니다: " + viewName, e);
+        }
+        return new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 화면 링크에 붙일 필터/정렬 파라미터입니다. "all" 은 전부를, 나머지 키는 해당 파라미터만 뺀 나머지를 담습니다.
+     */
+    private static Map<String, String> facetQueries(ItemSearchDto itemSearchDto) {
+        String sellStatus = itemSearchDto.getSearchSellStatus() == null ? "" : "&searchSellStatus=" + itemSearchDto.getSearchSellStatus();
+        String priceBand = itemSearchDto.getSearchPriceBand() == null ? "" : "&searchPriceBand=" + itemSearchDto.getSearchPriceBand();
+        String regDate = StringUtils.isEmpty(itemSearchDto.getSearchDateType()) ? "" : "&searchDateType=" + itemSearchDto.getSearchDateType();
+        String sort = StringUtils.isEmpty(itemSearchDto.getSort()) ? "" : "&sort=" + itemSearchDto.getSort();
+
+        Map<String, String> facetQueries = new HashMap<>();
+        facetQueries.put("all", sellStatus + priceBand + regDate + sort);
+        facetQueries.put("sellStatus", priceBand + regDate + sort);
+        facetQueries.put("priceBand", sellStatus + regDate + sort);
+        facetQueries.put("regDate", sellStatus + priceBand + sort);
+        facetQueries.put("sort", sellStatus + priceBand + regDate);
+        return facetQueries;
+    }
+
+    // 쿼리 파라미터를 이름순으로 정렬해서 같은 조건이면 같은 키가 되도록 합니다.
+    private static String pageKey(HttpServletRequest request) {
+        Map<String, String> params = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> params.put(name, Arrays.toString(values)));
+        return params.toString();
+    }
+
+    /**
+     * 렌더링 결과를 버퍼에만 담는 응답입니다.
+     * 캐시된 HTML 이 다른 사용자에게도 나가므로 링크에 jsessionid 가 붙지 않도록 URL 인코딩을 하지 않습니다.
+     */
+    private static class CapturingResponse extends ContentCachingResponseWrapper {
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public String encodeURL(String url) {
+            return url;
+        }
+
+        @Override
+        public String encodeRedirectURL(String url) {
+            return url;
+        }
+    }
 
 }
@@ -0,0 +1,27 @@
+package com.example.shoptry.controller;
+
+import com.example.shoptry.service.OrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequiredArgsConstructor
+public class OrderArchiveController {
+
+    private final OrderArchiveService orderArchiveService;
+
+    // 보관 기간이 지난 주문을 바로 보관 테이블로 옮깁니다.
+    @PostMapping(value = "/admin/orders/archive")
+    public @ResponseBody ResponseEntity archive() {
+        // 실행 중인지는 archive() 가 시작하면서 확인하므로 동시에 들어온 요청도 409 로 응답합니다.
+        try {
+            return new ResponseEntity<>(orderArchiveService.archive(), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<String>(e.getMessage(), HttpStatus.CONFLICT);
+        }
+    }
+}
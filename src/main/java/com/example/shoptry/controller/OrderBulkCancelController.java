@@ -0,0 +1,41 @@
+package com.example.shoptry.controller;
+
+import com.example.shoptry.dto.OrderBulkCancelDto;
+import com.example.shoptry.dto.OrderBulkCancelResultDto;
+import com.example.shoptry.service.OrderBulkCancelService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequiredArgsConstructor
+public class OrderBulkCancelController {
+
+    private final OrderBulkCancelService orderBulkCancelService;
+
+    // 주문을 별도 스레드에서 일괄 취소합니다. 진행 상황은 GET 으로 확인합니다.
+    @PostMapping(value = "/admin/orders/cancel")
+    public @ResponseBody ResponseEntity cancelOrders(@RequestBody OrderBulkCancelDto orderBulkCancelDto) {
+        if (!orderBulkCancelDto.hasTarget()) {
+            return new ResponseEntity<String>("취소할 주문 아이디나 조건을 입력해주세요.", HttpStatus.BAD_REQUEST);
+        }
+        if (!orderBulkCancelService.startCancelOrders(orderBulkCancelDto)) {
+            return new ResponseEntity<String>("이미 주문 일괄 취소가 실행 중입니다.", HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<String>("주문 일괄 취소를 시작했습니다.", HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(value = "/admin/orders/cancel")
+    public @ResponseBody ResponseEntity<OrderBulkCancelResultDto> cancelStatus() {
+        OrderBulkCancelResultDto result = orderBulkCancelService.getLastResult();
+        if (result == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.shoptry.controller;
 
+import com.example.shoptry.dto.CursorPageDto;
 import com.example.shoptry.dto.OrderDto;
 import com.example.shoptry.dto.OrderHistDto;
+import com.example.shoptry.dto.OrderStatusDto;
+import com.example.shoptry.exception.OrderPendingException;
 import com.example.shoptry.exception.OutOfStockException;
+import com.example.shoptry.exception.ResponsePendingException;
+import com.example.shoptry.service.IdempotencyStore;
+import com.example.shoptry.service.OrderCheckoutService;
+import com.example.shoptry.service.OrderGroupCommitter;
 import com.example.shoptry.service.OrderService;
+import com.example.shoptry.service.OwnershipService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,6 +25,7 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 import java.util.List;
@@ -28,10 +37,15 @@ import java.util.Optional;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final OrderCheckoutService orderCheckoutService;
+    private final IdempotencyStore idempotencyStore;
+    private final OwnershipService ownershipService;
 
     @PostMapping(value = "/order")
     public @ResponseBody ResponseEntity order(@RequestBody @Valid OrderDto orderDto
-            , BindingResult bindingResult, Principal principal) throws Exception {
+            , BindingResult bindingResult, Principal principal,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws Exception {
 
         if (bindingResult.hasErrors()) {
             StringBuilder sb = new StringBuilder();
@@ -49,10 +63,41 @@ public class OrderController {
         }
 
         String email = principal.getName();
+
+        // 재시도한 요청이면 첫 요청의 응답을 그대로 돌려줍니다.
+        return idempotencyStore.execute(idempotencyKey, "order:" + email,
+                orderDto.getItemId() + "x" + orderDto.getCount(), () -> placeOrder(orderDto, email));
+    }
+
+    private ResponseEntity<?> placeOrder(OrderDto orderDto, String email) {
+        // 비동기 주문이면 접수만 하고 주문 토큰을 돌려줍니다.
+        if (orderCheckoutService.isEnabled()) {
+            try {
+                OrderStatusDto orderStatusDto = orderCheckoutService.submit(orderDto, email);
+                return new ResponseEntity<OrderStatusDto>(orderStatusDto, HttpStatus.ACCEPTED);
+            } catch (IllegalStateException e) {
+                return new ResponseEntity<String>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+
         Long orderId;
 
         try {
-            orderId = orderService.order(orderDto, email);
+            orderId = orderGroupCommitter.order(orderDto, email);
+        } catch (OrderPendingException e) {
+            // 주문이 나중에 커밋될 수 있으므로 같은 키로 다시 시도하면 새로 주문하지 않고 이 주문의 결과를 돌려줍니다.
+            throw new ResponsePendingException(new ResponseEntity<String>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE),
+                    e.getResult().handle((pendingOrderId, error) -> {
+                        if (error == null) {
+                            return new ResponseEntity<Long>(pendingOrderId, HttpStatus.OK);
+                        }
+                        HttpStatus status = error instanceof IllegalStateException
+                                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_REQUEST;
+                        return new ResponseEntity<String>(error.getMessage(), status);
+                    }));
+        } catch (IllegalStateException e) {
+            // 주문이 몰리거나 처리 시간이 초과된 경우입니다. 다시 시도할 수 있도록 5xx 로 응답합니다.
+            return new ResponseEntity<String>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<String>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -60,22 +105,70 @@ public class OrderController {
         return new ResponseEntity<Long>(orderId, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/order/{token}/status")
+    public @ResponseBody ResponseEntity orderStatus(@PathVariable("token") String token, Principal principal) {
+        OrderStatusDto orderStatusDto = orderCheckoutService.getStatus(token, principal.getName());
+        if (orderStatusDto == null) {
+            return new ResponseEntity<String>("주문 정보가 없습니다.", HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<OrderStatusDto>(orderStatusDto, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/order/{token}/events", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> orderEvents(@PathVariable("token") String token, Principal principal) {
+        SseEmitter emitter = orderCheckoutService.subscribe(token, principal.getName());
+        if (emitter == null) {
+            return new ResponseEntity<SseEmitter>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<SseEmitter>(emitter, HttpStatus.OK);
+    }
+
     @GetMapping(value = {"/orders", "/orders/{page}"})
-    public String orderHist(@PathVariable("page") Optional<Integer> page, Principal principal, Model model) {
+    public String orderHist(@PathVariable("page") Optional<Integer> page, Optional<String> cursor,
+                            Principal principal, Model model) {
         Pageable pageable = PageRequest.of(page.isPresent() ? page.get() : 0, 4);
 
+        // 페이지 번호 없이 들어오면 (주문일시, 주문아이디) 커서로 다음 목록을 조회합니다.
+        if (page.isEmpty()) {
+            try {
+                CursorPageDto<OrderHistDto> orderHistDtoList =
+                        orderService.getOrderSlice(principal.getName(), cursor.orElse(null), pageable.getPageSize());
+                model.addAttribute("orders", orderHistDtoList);
+                model.addAttribute("seekPaging", true);
+                model.addAttribute("page", pageable.getPageSize());
+                return "order/orderHist";
+            } catch (IllegalArgumentException e) {
+                return "redirect:/orders";
+            }
+        }
+
         Page<OrderHistDto> orderHistDtoList = orderService.getOrderList(principal.getName(), pageable);
 
         model.addAttribute("orders", orderHistDtoList);
+        model.addAttribute("seekPaging", false);
         model.addAttribute("page", pageable.getPageSize());
         model.addAttribute("maxPage", 5);
         return "order/orderHist";
     }
 
+    // 무한 스크롤용 구매이력 입니다. 응답의 nextCursor 를 다음 요청의 cursor 로 넘겨줍니다.
+    @GetMapping(value = "/orders/feed")
+    public @ResponseBody ResponseEntity orderFeed(@RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "size", defaultValue = "10") int size,
+                                                  Principal principal) {
+        try {
+            CursorPageDto<OrderHistDto> orderHistDtoList =
+                    orderService.getOrderSlice(principal.getName(), cursor, Math.max(1, Math.min(size, 50)));
+            return new ResponseEntity<CursorPageDto<OrderHistDto>>(orderHistDtoList, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<String>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("/order/{orderId}/cancel")
     public @ResponseBody ResponseEntity cancelOrder(@PathVariable("orderId") Long orderId, Principal principal) {
 
-        if (!orderService.validateOrder(orderId, principal.getName())) {
+        if (!ownershipService.ownsOrder(principal, orderId)) {
             return new ResponseEntity<String>("주문 취소 권한이 없습니다.", HttpStatus.FORBIDDEN);
         }
 
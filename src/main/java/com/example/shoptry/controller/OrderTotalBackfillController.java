@@ -0,0 +1,22 @@
+package com.example.shoptry.controller;
+
+import com.example.shoptry.service.OrderTotalBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequiredArgsConstructor
+public class OrderTotalBackfillController {
+
+    private final OrderTotalBackfill orderTotalBackfill;
+
+    // 합계가 비어 있는 주문(보관된 주문 포함)의 total_price, item_count 를 채우고 채운 주문 수를 돌려줍니다.
+    @PostMapping(value = "/admin/orders/total-backfill")
+    public @ResponseBody ResponseEntity<Long> backfill() {
+        return new ResponseEntity<>(orderTotalBackfill.backfill(), HttpStatus.OK);
+    }
+}
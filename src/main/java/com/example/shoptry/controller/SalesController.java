@@ -0,0 +1,61 @@
+package com.example.shoptry.controller;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.constant.RollupPeriod;
+import com.example.shoptry.dto.SalesRollupDto;
+import com.example.shoptry.repository.SalesRollupRepository;
+import com.example.shoptry.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+public class SalesController {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesRollupService salesRollupService;
+
+    // 시간/일별 상품 판매 수량과 금액입니다. 기간을 주지 않으면 최근 7일입니다.
+    @GetMapping(value = "/admin/sales")
+    public @ResponseBody ResponseEntity<List<SalesRollupDto>> sales(
+            @RequestParam(value = "period", defaultValue = "DAY") RollupPeriod period,
+            @RequestParam(value = "status", defaultValue = "ORDER") OrderStatus status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        return new ResponseEntity<>(salesRollupRepository.findSales(period, status, start, end), HttpStatus.OK);
+    }
+
+    // 기간 동안 매출이 많은 상품 순입니다.
+    @GetMapping(value = "/admin/sales/items")
+    public @ResponseBody ResponseEntity<List<SalesRollupDto>> topItems(
+            @RequestParam(value = "status", defaultValue = "ORDER") OrderStatus status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        LocalDateTime end = to != null ? to : LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return new ResponseEntity<>(salesRollupRepository.findTopItems(status, start, end,
+                PageRequest.of(0, Math.max(1, Math.min(size, 100)))), HttpStatus.OK);
+    }
+
+    // 판매 집계를 주문 테이블 기준으로 다시 만듭니다.
+    @PostMapping(value = "/admin/sales/rebuild")
+    public @ResponseBody ResponseEntity<Map<String, Object>> rebuild() throws InterruptedException {
+        return new ResponseEntity<>(salesRollupService.rebuild(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.shoptry.dto;
+
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class CatalogCheckResultDto {
+
+    private static final int MAX_SAMPLES = 20;
+
+    private long checkedItems;
+
+    private long missingCards; //카드가 없는 상품 수
+
+    private long staleCards; //상품과 내용이 다른 카드 수
+
+    private long orphanCards; //상품이 없는 카드 수
+
+    private boolean repaired;
+
+    private List<Long> sampleItemIds = new ArrayList<>();
+
+    public boolean isConsistent() {
+        return missingCards == 0 && staleCards == 0 && orphanCards == 0;
+    }
+
+    public void addSample(Long itemId) {
+        if (sampleItemIds.size() < MAX_SAMPLES) {
+            sampleItemIds.add(itemId);
+        }
+    }
+}
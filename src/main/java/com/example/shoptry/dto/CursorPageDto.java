@@ -0,0 +1,30 @@
+package com.example.shoptry.dto;
+
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 커서(seek) 방식 페이지 결과입니다.
+ * offset 대신 마지막으로 본 키를 nextCursor 로 넘겨주어 다음 페이지를 조회합니다.
+ */
+@Getter
+public class CursorPageDto<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    private final boolean hasNext;
+
+    public CursorPageDto(List<T> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
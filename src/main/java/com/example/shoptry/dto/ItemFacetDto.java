@@ -0,0 +1,36 @@
+package com.example.shoptry.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ItemFacetDto {
+
+    private long total; //현재 조건에 맞는 상품 수
+
+    private List<Bucket> sellStatuses = new ArrayList<>();
+
+    private List<Bucket> priceBands = new ArrayList<>();
+
+    private List<Bucket> regDates = new ArrayList<>();
+
+    /**
+     * 필터 값 하나와, 다른 필터는 그대로 둔 채 이 값을 골랐을 때의 상품 수입니다.
+     */
+    @Getter
+    public static class Bucket {
+        private final String value;
+        private final String label;
+        private final long count;
+
+        public Bucket(String value, String label, long count) {
+            this.value = value;
+            this.label = label;
+            this.count = count;
+        }
+    }
+}
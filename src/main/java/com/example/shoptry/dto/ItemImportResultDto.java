@@ -0,0 +1,43 @@
+package com.example.shoptry.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ItemImportResultDto {
+
+    private static final int MAX_ERRORS = 20;
+
+    private String file;
+
+    private String status; //RUNNING, DONE, FAILED
+
+    private long resumedFrom; //이전 실행에서 이미 커밋된 레코드 수
+
+    private long recordsRead;
+
+    private long imported;
+
+    private long skipped; //검증에 실패해서 건너뛴 레코드 수
+
+    private long chunks;
+
+    private long elapsedMillis;
+
+    private double itemsPerSecond;
+
+    private String failureMessage;
+
+    private List<String> errors = new ArrayList<>();
+
+    public void addError(long record, String message) {
+        skipped++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(record + "번째 레코드: " + message);
+        }
+    }
+}
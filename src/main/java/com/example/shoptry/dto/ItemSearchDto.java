@@ -16,4 +16,13 @@ public class ItemSearchDto {
     private String searchBy;
 
     private String searchQuery = "";
+
+    private Integer searchPriceBand; //가격대 번호 (ItemFacetIndex)
+
+    private String sort; //상품 목록 정렬 기준 (CatalogSnapshot)
+
+    public boolean hasFacetFilter() {
+        return searchSellStatus != null || searchPriceBand != null
+                || (searchDateType != null && !searchDateType.isEmpty() && !"all".equals(searchDateType));
+    }
 }
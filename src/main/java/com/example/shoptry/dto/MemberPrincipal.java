@@ -0,0 +1,22 @@
+package com.example.shoptry.dto;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * 로그인한 회원입니다. 회원 아이디를 같이 들고 있어서 권한 확인 때 이메일로 회원을 다시 조회하지 않습니다.
+ */
+@Getter
+public class MemberPrincipal extends User {
+
+    private final Long memberId;
+
+    public MemberPrincipal(Long memberId, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.memberId = memberId;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.shoptry.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 일괄 취소 요청입니다. orderIds 를 주면 그 주문만, 없으면 상품(itemId)과 주문일 범위 조건으로 대상을 찾습니다.
+ */
+@Getter
+@Setter
+public class OrderBulkCancelDto {
+
+    private List<Long> orderIds;
+
+    private Long itemId;
+
+    private LocalDateTime orderedFrom;
+
+    private LocalDateTime orderedTo; //이 시각 이전 주문까지
+
+    public boolean hasTarget() {
+        return (orderIds != null && !orderIds.isEmpty()) || itemId != null || orderedFrom != null || orderedTo != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.shoptry.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class OrderBulkCancelResultDto {
+
+    private String status; //RUNNING, DONE, FAILED
+
+    private long targetOrders;
+
+    private long processedOrders;
+
+    private long canceledOrders; //처리 중 이미 취소된 주문은 빠집니다.
+
+    private long restoredStock; //되돌린 재고 수량 합계
+
+    private long canceledAmount; //취소한 주문 금액 합계
+
+    private long chunks;
+
+    private long elapsedMillis;
+
+    private String failureMessage;
+}
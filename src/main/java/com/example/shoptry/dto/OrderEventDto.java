@@ -0,0 +1,67 @@
+package com.example.shoptry.dto;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.entity.Order;
+import com.example.shoptry.entity.OrderItem;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * outbox 에 JSON 으로 저장하는 주문 이벤트 내용입니다.
+ * 취소 이벤트에는 주문 상품을 담지 않습니다. (일괄 취소는 주문 상품을 엔티티로 읽지 않습니다)
+ */
+@Getter
+@Setter
+public class OrderEventDto {
+
+    private Long orderId;
+
+    private Long memberId;
+
+    private OrderStatus orderStatus;
+
+    private LocalDateTime orderDate;
+
+    private long totalPrice;
+
+    private int itemCount;
+
+    private List<OrderItemLine> orderItems = new ArrayList<>();
+
+    public static OrderEventDto of(Order order, boolean withItems) {
+        OrderEventDto orderEventDto = new OrderEventDto();
+        orderEventDto.setOrderId(order.getId());
+        orderEventDto.setMemberId(order.getMember().getId());
+        orderEventDto.setOrderStatus(order.getOrderStatus());
+        orderEventDto.setOrderDate(order.getOrderDate());
+        orderEventDto.setTotalPrice(order.getTotalPrice());
+        orderEventDto.setItemCount(order.getItemCount());
+        if (withItems) {
+            for (OrderItem orderItem : order.getOrderItems()) {
+                orderEventDto.getOrderItems().add(new OrderItemLine(orderItem.getItem().getId(),
+                        orderItem.getCount(), orderItem.getOrderPrice()));
+            }
+        }
+        return orderEventDto;
+    }
+
+    @Getter
+    public static class OrderItemLine {
+
+        private final Long itemId;
+
+        private final int count;
+
+        private final int orderPrice;
+
+        public OrderItemLine(Long itemId, int count, int orderPrice) {
+            this.itemId = itemId;
+            this.count = count;
+            this.orderPrice = orderPrice;
+        }
+    }
+}
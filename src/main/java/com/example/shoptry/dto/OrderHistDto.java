@@ -3,9 +3,11 @@ package com.example.shoptry.dto;
 
 import com.example.shoptry.constant.OrderStatus;
 import com.example.shoptry.entity.Order;
+import com.querydsl.core.annotations.QueryProjection;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,13 +17,30 @@ import java.util.List;
 public class OrderHistDto {
     private Long orderId;
     private String orderDate;
+    private LocalDateTime orderDateTime; //커서 생성용, 포맷 전 주문일시
     private OrderStatus orderStatus;
+    private boolean archived; //보관된 주문은 취소할 수 없습니다.
+    private long totalPrice;
+    private int itemCount;
     private List<OrderItemDto> orderItemDtoList = new ArrayList<>();
 
     public OrderHistDto(Order order) {
         this.orderId = order.getId();
         this.orderDate = order.getOrderDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        this.orderDateTime = order.getOrderDate();
         this.orderStatus = order.getOrderStatus();
+        this.totalPrice = order.getTotalPrice();
+        this.itemCount = order.getItemCount();
+    }
+
+    @QueryProjection
+    public OrderHistDto(Long orderId, LocalDateTime orderDate, OrderStatus orderStatus, long totalPrice, int itemCount) {
+        this.orderId = orderId;
+        this.orderDate = orderDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        this.orderDateTime = orderDate;
+        this.orderStatus = orderStatus;
+        this.totalPrice = totalPrice;
+        this.itemCount = itemCount;
     }
 
     public void addOrderItemDto(OrderItemDto orderItemDto) {
@@ -1,6 +1,7 @@
 package com.example.shoptry.dto;
 
 import com.example.shoptry.entity.OrderItem;
+import com.querydsl.core.annotations.QueryProjection;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -15,6 +16,16 @@ public class OrderItemDto {
         this.imgUrl = imgUrl;
     }
 
+    @QueryProjection
+    public OrderItemDto(Long orderId, String itemNm, int count, int orderPrice, String imgUrl) {
+        this.orderId = orderId;
+        this.itemNm = itemNm;
+        this.count = count;
+        this.orderPrice = orderPrice;
+        this.imgUrl = imgUrl;
+    }
+
+    private Long orderId;
 
     private String itemNm;
 
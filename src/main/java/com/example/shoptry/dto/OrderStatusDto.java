@@ -0,0 +1,30 @@
+package com.example.shoptry.dto;
+
+import com.example.shoptry.constant.CheckoutStatus;
+import lombok.Getter;
+
+/**
+ * 비동기 주문의 처리 상태입니다. 완료되면 orderId, 실패하면 message 가 채워집니다.
+ */
+@Getter
+public class OrderStatusDto {
+
+    private final String token;
+
+    private final CheckoutStatus status;
+
+    private final Long orderId;
+
+    private final String message;
+
+    public OrderStatusDto(String token, CheckoutStatus status, Long orderId, String message) {
+        this.token = token;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+    }
+
+    public boolean isDone() {
+        return status == CheckoutStatus.COMPLETED || status == CheckoutStatus.FAILED;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.shoptry.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 판매 집계 조회 결과입니다. 상품별 합계에서는 bucketStart 가 비어 있습니다.
+ */
+@Getter
+public class SalesRollupDto {
+
+    private final Long itemId;
+
+    private final String itemNm;
+
+    private final LocalDateTime bucketStart;
+
+    private final long units;
+
+    private final long revenue;
+
+    public SalesRollupDto(Long itemId, String itemNm, LocalDateTime bucketStart, long units, long revenue) {
+        this.itemId = itemId;
+        this.itemNm = itemNm;
+        this.bucketStart = bucketStart;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public SalesRollupDto(Long itemId, String itemNm, Long units, Long revenue) {
+        this(itemId, itemNm, null, units, revenue);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.shoptry.entity;
+
+import com.example.shoptry.constant.OrderStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 보관 기간이 지나 orders 에서 옮겨진 주문입니다. (OrderArchiveService)
+ * 컬럼은 orders 와 같고, 조회만 하므로 연관관계 대신 아이디만 가집니다.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = @Index(name = "idx_orders_archive_member_date",
+        columnList = "member_id, order_date, order_id"))
+@Getter
+@Setter
+public class ArchivedOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+
+    private long totalPrice;
+
+    private int itemCount;
+
+    private LocalDateTime regTime;
+
+    private LocalDateTime updateTime;
+
+    private String createdBy;
+
+    private String modifiedBy;
+}
@@ -0,0 +1,43 @@
+package com.example.shoptry.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 보관 기간이 지나 order_item 에서 옮겨진 주문 상품입니다.
+ */
+@Entity
+@Table(name = "order_item_archive", indexes = @Index(name = "idx_order_item_archive_order", columnList = "order_id"))
+@Getter
+@Setter
+public class ArchivedOrderItem {
+
+    @Id
+    @Column(name = "order_item_id")
+    private Long id;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private int orderPrice;
+
+    private int count;
+
+    private LocalDateTime regTime;
+
+    private LocalDateTime updateTime;
+
+    private String createdBy;
+
+    private String modifiedBy;
+}
@@ -6,7 +6,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "cart")
+@Table(name = "cart", uniqueConstraints = @UniqueConstraint(name = "uk_cart_member", columnNames = "member_id"))
 @Getter
 @Setter
 @ToString
@@ -14,7 +14,7 @@ public class Cart extends BaseEntity{
 
     @Id
     @Column(name = "cart_id")
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence("cart_seq")
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
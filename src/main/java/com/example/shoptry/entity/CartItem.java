@@ -6,11 +6,12 @@ import lombok.Setter;
 
 @Entity
 @Getter @Setter
-@Table(name = "cart_item")
+// 같은 장바구니에 같은 상품은 한 줄만 둡니다. 동시에 담아도 CartItemUpsert 가 수량만 더합니다.
+@Table(name = "cart_item", uniqueConstraints = @UniqueConstraint(name = "uk_cart_item_cart_item", columnNames = {"cart_id", "item_id"}))
 public class CartItem extends BaseEntity{
 
     @Id
-    @GeneratedValue
+    @PooledSequence("cart_item_seq")
     @Column(name = "cart_item_id")
     private Long id;
 
@@ -0,0 +1,104 @@
+package com.example.shoptry.entity;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 상품 목록/장바구니/구매이력 화면용 비정규화 테이블입니다.
+ * item 과 item_img(대표 이미지)를 조인하지 않고 한 테이블에서 읽을 수 있도록
+ * 상품 등록/수정 시 ItemService, ItemImgService 에서 함께 갱신합니다.
+ */
+@Entity
+@Table(name = "catalog_card")
+@Getter
+@Setter
+@ToString
+public class CatalogCard implements Persistable<Long> {
+
+    public static final int SUMMARY_LENGTH = 100;
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(nullable = false, length = 50)
+    private String itemNm;
+
+    @Column(length = SUMMARY_LENGTH)
+    private String summary; //상품 상세 설명 앞부분
+
+    private int price;
+
+    @Enumerated(EnumType.STRING)
+    private ItemSellStatus itemSellStatus;
+
+    private String repImgUrl; //대표 이미지 경로
+
+    private LocalDateTime regTime;
+
+    // 아이디를 직접 지정하므로 save() 시 merge(select 후 insert)가 되지 않도록 새 카드 여부를 들고 있습니다.
+    @Transient
+    @ToString.Exclude
+    private boolean newCard = true;
+
+    public static CatalogCard createCard(Item item, String repImgUrl) {
+        CatalogCard catalogCard = new CatalogCard();
+        catalogCard.setItemId(item.getId());
+        catalogCard.updateItem(item);
+        catalogCard.setRepImgUrl(repImgUrl);
+        return catalogCard;
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newCard;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newCard = false;
+    }
+
+    public void updateItem(Item item) {
+        this.itemNm = item.getItemNm();
+        this.summary = summarize(item.getItemDetail());
+        this.price = item.getPrice();
+        this.itemSellStatus = item.getItemSellStatus();
+        this.regTime = item.getRegTime();
+    }
+
+    public void updateRepImgUrl(String repImgUrl) {
+        this.repImgUrl = repImgUrl;
+    }
+
+    /**
+     * 상품과 대표 이미지 경로가 이 카드에 그대로 반영되어 있는지 확인합니다.
+     */
+    public boolean matches(Item item, String repImgUrl) {
+        return Objects.equals(itemNm, item.getItemNm())
+                && Objects.equals(summary, summarize(item.getItemDetail()))
+                && price == item.getPrice()
+                && itemSellStatus == item.getItemSellStatus()
+                && Objects.equals(this.repImgUrl, repImgUrl);
+    }
+
+    public static String summarize(String itemDetail) {
+        if (itemDetail == null || itemDetail.length() <= SUMMARY_LENGTH) {
+            return itemDetail;
+        }
+        return itemDetail.substring(0, SUMMARY_LENGTH);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.shoptry.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key 로 처리한 요청의 응답입니다. (shop.idempotency.jdbc=true 일 때 IdempotencyStore 가 사용)
+ * statusCode 가 비어 있으면 다른 서버에서 아직 처리 중인 요청입니다.
+ */
+@Entity
+@Table(name = "idempotency_record")
+@Getter
+@Setter
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    private String fingerprint;
+
+    private Integer statusCode;
+
+    private String contentType;
+
+    @Lob
+    private String body;
+
+    private LocalDateTime createdAt;
+}
@@ -6,11 +6,13 @@ import com.example.shoptry.exception.OutOfStockException;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.*;
 
 @Entity
 @Table(name="item")
+@DynamicUpdate //재고는 StockManager 가 따로 반영할 수 있으므로 바뀐 컬럼만 update 합니다.
 @Getter
 @Setter
 @ToString
@@ -18,7 +20,7 @@ public class Item extends BaseEntity {
 
     @Id
     @Column(name="item_id")
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence("item_seq")
     private Long id;       //상품 코드
 
     @Column(nullable = false, length = 50)
@@ -40,7 +42,6 @@ public class Item extends BaseEntity {
     public void updateItem(ItemFormDto itemFormDto){
         this.itemNm = itemFormDto.getItemNm();
         this.price = itemFormDto.getPrice();
-        this.stockNumber = itemFormDto.getStockNumber();
         this.itemDetail = itemFormDto.getItemDetail();
         this.itemSellStatus = itemFormDto.getItemSellStatus();
     }
@@ -6,14 +6,14 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
-@Table(name = "item_img")
+@Table(name = "item_img", indexes = @Index(name = "idx_item_img_item_repimg", columnList = "item_id, repimgYn"))
 @Getter
 @Setter
 public class ItemImg extends BaseEntity {
 
     @Id
     @Column(name = "item_ig_id")
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence("item_img_seq")
     private Long id;
 
     private String imgName;
@@ -0,0 +1,25 @@
+package com.example.shoptry.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 상품 가져오기(ItemImportService)에서 파일별로 등록을 마친 마지막 레코드 번호입니다.
+ * chunk 를 insert 하는 트랜잭션에서 같이 갱신하므로 이어서 가져올 때 커밋된 레코드만 정확히 건너뜁니다.
+ */
+@Entity
+@Table(name = "item_import_checkpoint")
+@Getter
+@Setter
+public class ItemImportCheckpoint {
+
+    @Id
+    @Column(name = "import_file", length = 500)
+    private String file;
+
+    private long lastRecord;
+}
@@ -18,7 +18,7 @@ public class Member extends BaseEntity{
 
     @Id
     @Column(name = "member_id")
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence("member_seq")
     private Long id;
 
     private String name;
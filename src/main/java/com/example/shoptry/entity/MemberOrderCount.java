@@ -0,0 +1,56 @@
+package com.example.shoptry.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 회원별 주문 수 입니다. 구매이력 화면마다 orders 를 count 하지 않도록
+ * 주문/주문취소 시 OrderService 에서 증감합니다.
+ */
+@Entity
+@Table(name = "member_order_count")
+@Getter
+@Setter
+@ToString
+public class MemberOrderCount implements Persistable<Long> {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private long orderCount; //취소된 주문 포함
+
+    private long cancelCount;
+
+    // 아이디를 직접 지정하므로 save() 시 merge(select 후 insert)가 되지 않도록 새 행 여부를 들고 있습니다.
+    @Transient
+    @ToString.Exclude
+    private boolean newCount = true;
+
+    public static MemberOrderCount createCount(Long memberId, long orderCount, long cancelCount) {
+        MemberOrderCount memberOrderCount = new MemberOrderCount();
+        memberOrderCount.setMemberId(memberId);
+        memberOrderCount.setOrderCount(orderCount);
+        memberOrderCount.setCancelCount(cancelCount);
+        return memberOrderCount;
+    }
+
+    @Override
+    public Long getId() {
+        return memberId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newCount;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newCount = false;
+    }
+}
@@ -10,11 +10,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_member_date", columnList = "member_id, order_date, order_id"))
 @Getter @Setter
 public class Order extends BaseEntity {
 
-    @Id @GeneratedValue
+    @Id @PooledSequence("orders_seq")
     @Column(name = "order_id")
     private Long id;
 
@@ -28,6 +28,11 @@ public class Order extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private OrderStatus orderStatus; //주문상태
 
+    // 주문 상품을 읽지 않고 목록에 보여줄 수 있도록 주문할 때 계산해서 저장합니다. 취소해도 주문 금액은 그대로 둡니다.
+    private long totalPrice; //주문 금액 합계
+
+    private int itemCount; //주문 수량 합계
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL
             , orphanRemoval = true, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems = new ArrayList<>();
@@ -35,6 +40,8 @@ public class Order extends BaseEntity {
     public void addOrderItem(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);
+        totalPrice += orderItem.getTotalPrice();
+        itemCount += orderItem.getCount();
     }
 
     public static Order createOrder(Member member, List<OrderItem> orderItemList) {
@@ -56,19 +63,9 @@ public class Order extends BaseEntity {
         return order;
     }
 
-    public int getTotalPrice() {
-        int totalPrice = 0;
-        for(OrderItem orderItem : orderItems){
-            totalPrice += orderItem.getTotalPrice();
-        }
-        return totalPrice;
-    }
-
+    // 재고 복구는 OrderService 에서 StockManager 로 합니다.
     public void cancelOrder() {
         this.orderStatus = OrderStatus.CANCEL;
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
 }
\ No newline at end of file
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Setter
 public class OrderItem extends BaseEntity{
 
-    @Id @GeneratedValue
+    @Id @PooledSequence("order_item_seq")
     @Column(name = "order_item_id")
     private Long id;
 
@@ -36,16 +36,11 @@ public class OrderItem extends BaseEntity{
         orderItem.setItem(item);
         orderItem.setCount(count);
         orderItem.setOrderPrice(item.getPrice());
-
-        item.removeStock(count);
         return orderItem;
     }
 
-    public int getTotalPrice(){
-        return orderPrice * count;
-    }
-    public void cancel() {
-        this.getItem().addStock(count);
+    public long getTotalPrice(){
+        return (long) orderPrice * count;
     }
 
 
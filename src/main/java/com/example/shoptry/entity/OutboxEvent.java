@@ -0,0 +1,45 @@
+package com.example.shoptry.entity;
+
+import com.example.shoptry.constant.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 트랜잭션 안에서 함께 저장하는 주문 이벤트입니다. (transactional outbox)
+ * OutboxRelay 가 커밋된 이벤트를 아이디 순으로 읽어 소비자에게 전달한 뒤 published 로 바꿉니다.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_published", columnList = "published, outbox_event_id"))
+@Getter
+@Setter
+public class OutboxEvent {
+
+    @Id @PooledSequence("outbox_event_seq")
+    @Column(name = "outbox_event_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private OutboxEventType eventType;
+
+    private Long aggregateId; //주문 아이디
+
+    @Lob
+    private String payload; //JSON
+
+    private LocalDateTime createdAt;
+
+    private boolean published;
+
+    public static OutboxEvent createEvent(OutboxEventType eventType, Long aggregateId, String payload) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(eventType);
+        outboxEvent.setAggregateId(aggregateId);
+        outboxEvent.setPayload(payload);
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.shoptry.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 엔티티마다 별도의 시퀀스에서 아이디를 블록 단위로 받아 옵니다. (PooledSequenceGenerator)
+ * 블록 크기는 shop.id.default-block-size, shop.id.block-sizes.{시퀀스 이름} 으로 설정합니다.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    /**
+     * 시퀀스 이름입니다. 시퀀스가 없는 DB(MySQL)에서는 같은 이름의 테이블을 사용합니다.
+     */
+    String value();
+}
@@ -0,0 +1,58 @@
+package com.example.shoptry.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 엔티티별 시퀀스와 pooled-lo 최적화를 사용하는 아이디 생성기입니다.
+ * DB 에서 값 v 를 한 번 받아 오면 [v, v + 블록 크기) 범위를 메모리에서 나눠 주므로 insert 마다 시퀀스를 조회하지 않습니다.
+ *
+ * 여러 서버가 동시에 떠 있어도 블록은 DB 가 원자적으로 나눠 주므로 겹치지 않습니다.
+ * 시퀀스는 DB 에 정의된 증가값과 블록 크기가 같아야 하므로, 다르면 애플리케이션 시작 시 실패하도록 되어 있습니다.
+ * (IdAllocationConfig 의 hibernate.id.sequence.increment_size_mismatch_strategy)
+ * 테이블로 흉내 내는 경우(MySQL)에는 서버마다 자기 블록 크기만큼 값을 올리므로 블록 크기가 달라도 겹치지 않습니다.
+ * 다만 기존 pooled 방식으로 실행 중인 서버와 함께 띄우면 범위 해석이 달라 겹칠 수 있으니 한 번에 교체해야 합니다.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String DEFAULT_BLOCK_SIZE_SETTING = "shop.id.default-block-size";
+    public static final String BLOCK_SIZE_SETTING_PREFIX = "shop.id.block-sizes.";
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        int blockSize = blockSize(settings, sequenceName);
+
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        parameters.setProperty(INITIAL_PARAM, "1");
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    static int blockSize(Map<String, Object> settings, String sequenceName) {
+        Object value = settings.get(BLOCK_SIZE_SETTING_PREFIX + sequenceName);
+        if (value == null) {
+            value = settings.get(DEFAULT_BLOCK_SIZE_SETTING);
+        }
+        int blockSize = value == null ? DEFAULT_BLOCK_SIZE : Integer.parseInt(value.toString().trim());
+        if (blockSize < 1) {
+            throw new MappingException("아이디 블록 크기는 1 이상이어야 합니다: " + sequenceName + "=" + blockSize);
+        }
+        return blockSize;
+    }
+}
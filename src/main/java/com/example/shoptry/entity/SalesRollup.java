@@ -0,0 +1,28 @@
+package com.example.shoptry.entity;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 상품별, 시간/일별, 주문상태별 판매 수량과 금액입니다.
+ * 주문/주문취소가 커밋될 때마다 SalesRollupService 가 더하고 빼므로 매출 조회에서 orders, order_item 을 읽지 않습니다.
+ * 주문취소는 주문한 시각의 ORDER 에서 빼서 CANCEL 로 옮깁니다.
+ */
+@Entity
+@Table(name = "sales_rollup", indexes = @Index(name = "idx_sales_rollup_period",
+        columnList = "rollup_period, order_status, bucket_start"))
+@Getter
+@Setter
+public class SalesRollup {
+
+    @EmbeddedId
+    private SalesRollupId id;
+
+    private long units;
+
+    private long revenue;
+}
@@ -0,0 +1,42 @@
+package com.example.shoptry.entity;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.constant.RollupPeriod;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode
+public class SalesRollupId implements Serializable {
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rollup_period", length = 10)
+    private RollupPeriod period;
+
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart; //시간(HOUR) 또는 날짜(DAY)의 시작 시각
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", length = 10)
+    private OrderStatus orderStatus;
+
+    public SalesRollupId(Long itemId, RollupPeriod period, LocalDateTime bucketStart, OrderStatus orderStatus) {
+        this.itemId = itemId;
+        this.period = period;
+        this.bucketStart = bucketStart;
+        this.orderStatus = orderStatus;
+    }
+}
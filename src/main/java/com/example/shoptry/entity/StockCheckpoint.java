@@ -0,0 +1,25 @@
+package com.example.shoptry.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 재고 저널(MemoryStockManager) 중 item 테이블에 반영을 마친 마지막 번호입니다.
+ * 재고 반영과 같은 트랜잭션에서 갱신하므로 재시작 시 이 번호 이후의 저널만 다시 반영합니다.
+ */
+@Entity
+@Table(name = "stock_checkpoint")
+@Getter
+@Setter
+public class StockCheckpoint {
+
+    @Id
+    @Column(name = "checkpoint_id")
+    private Long id;
+
+    private long lastSequence;
+}
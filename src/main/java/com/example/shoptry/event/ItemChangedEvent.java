@@ -0,0 +1,23 @@
+package com.example.shoptry.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 상품이 등록/수정되었을 때 발행되는 이벤트입니다.
+ * 상품 목록을 캐시하거나 따로 들고 있는 컴포넌트들이 커밋 이후에 갱신할 수 있도록 합니다.
+ */
+@Getter
+public class ItemChangedEvent {
+
+    private final List<Long> itemIds;
+
+    public ItemChangedEvent(List<Long> itemIds) {
+        this.itemIds = itemIds;
+    }
+
+    public static ItemChangedEvent of(Long itemId) {
+        return new ItemChangedEvent(List.of(itemId));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.shoptry.event;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.entity.Order;
+import com.example.shoptry.entity.OrderItem;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문이 생기거나 주문 상태가 바뀌었을 때 발행되는 이벤트입니다.
+ * 판매 집계(SalesRollupService)가 커밋 이후에 주문 상품별 수량과 금액을 옮겨 담을 수 있도록 합니다.
+ */
+@Getter
+public class OrderSalesEvent {
+
+    private final OrderStatus fromStatus; //새 주문이면 null
+
+    private final OrderStatus toStatus;
+
+    private final List<SalesLine> lines;
+
+    public OrderSalesEvent(OrderStatus fromStatus, OrderStatus toStatus, List<SalesLine> lines) {
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.lines = lines;
+    }
+
+    public static OrderSalesEvent ordered(Order order) {
+        return new OrderSalesEvent(null, OrderStatus.ORDER, linesOf(order));
+    }
+
+    public static OrderSalesEvent canceled(Order order) {
+        return new OrderSalesEvent(OrderStatus.ORDER, OrderStatus.CANCEL, linesOf(order));
+    }
+
+    private static List<SalesLine> linesOf(Order order) {
+        List<SalesLine> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem orderItem : order.getOrderItems()) {
+            lines.add(new SalesLine(orderItem.getItem().getId(), order.getOrderDate(),
+                    orderItem.getCount(), orderItem.getOrderPrice()));
+        }
+        return lines;
+    }
+
+    @Getter
+    public static class SalesLine {
+
+        private final Long itemId;
+
+        private final LocalDateTime orderDate;
+
+        private final int count;
+
+        private final long amount; //주문 가격 * 수량
+
+        public SalesLine(Long itemId, LocalDateTime orderDate, int count, int orderPrice) {
+            this.itemId = itemId;
+            this.orderDate = orderDate;
+            this.count = count;
+            this.amount = (long) orderPrice * count;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.shoptry.event;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 받는 소비자입니다. 빈으로 등록하면 OutboxRelay 가 찾아서 전달합니다.
+ */
+public interface OutboxConsumer {
+
+    /**
+     * 지표와 로그에 쓰는 이름입니다.
+     */
+    String getName();
+
+    /**
+     * 아이디 순으로 정렬된 이벤트를 받습니다. 예외를 던지면 같은 이벤트를 다음에 다시 받습니다.
+     */
+    void accept(List<OutboxMessage> messages) throws Exception;
+}
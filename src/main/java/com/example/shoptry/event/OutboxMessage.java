@@ -0,0 +1,32 @@
+package com.example.shoptry.event;
+
+import com.example.shoptry.constant.OutboxEventType;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxRelay 가 소비자에게 넘기는 이벤트입니다.
+ * 같은 이벤트가 두 번 이상 전달될 수 있으므로 소비자는 id 로 중복을 걸러야 합니다.
+ */
+@Getter
+public class OutboxMessage {
+
+    private final Long id;
+
+    private final OutboxEventType eventType;
+
+    private final Long aggregateId;
+
+    private final String payload;
+
+    private final LocalDateTime createdAt;
+
+    public OutboxMessage(Long id, OutboxEventType eventType, Long aggregateId, String payload, LocalDateTime createdAt) {
+        this.id = id;
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.shoptry.exception;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 주문 결과를 기다리다 시간이 초과된 경우입니다. 주문은 나중에 커밋될 수도 있으므로 실패로 보면 안 됩니다.
+ * 결과가 나오면 getResult() 가 주문 아이디나 실패 원인으로 완료됩니다.
+ */
+public class OrderPendingException extends IllegalStateException {
+
+    private final CompletableFuture<Long> result;
+
+    public OrderPendingException(String message, CompletableFuture<Long> result) {
+        super(message);
+        this.result = result;
+    }
+
+    public CompletableFuture<Long> getResult() {
+        return result;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.example.shoptry.exception;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 지금은 response 로 응답하지만 요청의 실제 결과는 outcome 으로 나중에 나오는 경우입니다.
+ * IdempotencyStore 는 outcome 이 끝날 때까지 키를 처리 중으로 두고, 끝나면 그 응답을 저장합니다.
+ */
+public class ResponsePendingException extends RuntimeException {
+
+    private final ResponseEntity<?> response;
+
+    private final CompletableFuture<ResponseEntity<?>> outcome;
+
+    public ResponsePendingException(ResponseEntity<?> response, CompletableFuture<ResponseEntity<?>> outcome) {
+        super(String.valueOf(response.getBody()));
+        this.response = response;
+        this.outcome = outcome;
+    }
+
+    public ResponseEntity<?> getResponse() {
+        return response;
+    }
+
+    public CompletableFuture<ResponseEntity<?>> getOutcome() {
+        return outcome;
+    }
+
+}
@@ -3,20 +3,38 @@ package com.example.shoptry.repository;
 import com.example.shoptry.dto.CartDetailDto;
 import com.example.shoptry.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     CartItem findByCartIdAndItemId(Long cartId, Long itemId);
 
-    @Query("select new com.example.shoptry.dto.CartDetailDto(ci.id, i.itemNm, i.price, ci.count, im.imgUrl)" +
-            " from CartItem ci, ItemImg im " +
-            " join ci.item i " +
+    List<CartItem> findByCartId(Long cartId);
+
+    @Query("select new com.example.shoptry.dto.CartDetailDto(ci.id, c.itemNm, c.price, ci.count, c.repImgUrl)" +
+            " from CartItem ci, CatalogCard c " +
             " where ci.cart.id = :cartId " +
-            "and im.item.id = ci.item.id " +
-            "and im.repimgYn = 'Y' " +
+            "and c.itemId = ci.item.id " +
             "order by ci.regTime desc")
     List<CartDetailDto> findCartDetailDtoList(Long cartId);
+
+    // 장바구니 주문: 주문할 장바구니 상품을 주인(회원)까지 한 번에 읽습니다.
+    @Query("select ci from CartItem ci join fetch ci.cart c join fetch c.member where ci.id in :ids")
+    List<CartItem> findWithMemberByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByIdIn(Collection<Long> ids);
+
+    // 권한 확인: 장바구니 상품이 회원의 장바구니에 있는지 확인합니다.
+    boolean existsByIdAndCartMemberId(Long id, Long memberId);
+
+    long countByIdInAndCartMemberId(Collection<Long> ids, Long memberId);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
 
@@ -0,0 +1,134 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.entity.Cart;
+import com.example.shoptry.entity.CartItem;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 장바구니에 상품을 담을 때 cart_item 을 한 문장으로 insert 하거나 수량을 더합니다.
+ * (cart_id, item_id) 유니크 제약을 기준으로 MySQL 은 insert ... on duplicate key update, H2 는 merge 를 씁니다.
+ * 그 밖의 DB 는 update 후 없으면 insert 합니다.
+ * 동시에 처음 담는 요청이 겹쳐 유니크 제약에 걸리면 한 번 더 실행해서 수량을 더합니다.
+ * 문장 앞에서 영속성 컨텍스트를 flush 하고, 기존 행의 아이디는 upsert 가 돌려주지 않으므로 한 번 더 조회합니다.
+ * 회원의 장바구니(cart)도 member_id 유니크 제약을 기준으로 여기서 만듭니다.
+ * 호출한 트랜잭션과 같은 커넥션을 쓰므로 트랜잭션 안에서 호출합니다. 영속성 컨텍스트의 CartItem 수량은 갱신하지 않습니다.
+ */
+@Component
+public class CartItemUpsert {
+
+    private static final String MYSQL_UPSERT_SQL = "insert into cart_item "
+            + "(cart_item_id, cart_id, item_id, count, reg_time, update_time, created_by, modified_by) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "on duplicate key update count = count + values(count), "
+            + "update_time = values(update_time), modified_by = values(modified_by)";
+    private static final String H2_UPSERT_SQL = "merge into cart_item t using (values "
+            + "(cast(? as bigint), cast(? as bigint), cast(? as bigint), cast(? as integer), "
+            + "cast(? as timestamp), cast(? as timestamp), cast(? as varchar), cast(? as varchar))) "
+            + "s (cart_item_id, cart_id, item_id, count, reg_time, update_time, created_by, modified_by) "
+            + "on t.cart_id = s.cart_id and t.item_id = s.item_id "
+            + "when matched then update set t.count = t.count + s.count, t.update_time = s.update_time, t.modified_by = s.modified_by "
+            + "when not matched then insert (cart_item_id, cart_id, item_id, count, reg_time, update_time, created_by, modified_by) "
+            + "values (s.cart_item_id, s.cart_id, s.item_id, s.count, s.reg_time, s.update_time, s.created_by, s.modified_by)";
+    private static final String UPDATE_SQL = "update cart_item set count = count + ?, update_time = ?, modified_by = ? "
+            + "where cart_id = ? and item_id = ?";
+    private static final String INSERT_SQL = "insert into cart_item "
+            + "(cart_item_id, cart_id, item_id, count, reg_time, update_time, created_by, modified_by) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_ID_SQL = "select cart_item_id from cart_item where cart_id = ? and item_id = ?";
+    private static final String INSERT_CART_SQL = "insert into cart "
+            + "(cart_id, member_id, reg_time, update_time, created_by, modified_by) values (?, ?, ?, ?, ?, ?)";
+    // 잠금 조회라 MySQL 의 REPEATABLE READ 에서도 다른 트랜잭션이 방금 커밋한 장바구니를 읽습니다.
+    private static final String SELECT_CART_ID_SQL = "select cart_id from cart where member_id = ? for update";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final String upsertSql; //지원하지 않는 DB 는 null
+
+    public CartItemUpsert(DataSource dataSource, EntityManager entityManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.entityManager = entityManager;
+        String databaseProduct = databaseProduct(dataSource);
+        if (databaseProduct.contains("mysql")) {
+            this.upsertSql = MYSQL_UPSERT_SQL;
+        } else if (databaseProduct.contains("h2")) {
+            this.upsertSql = H2_UPSERT_SQL;
+        } else {
+            this.upsertSql = null;
+        }
+    }
+
+    /**
+     * 상품을 담고 장바구니 상품 아이디를 돌려줍니다. 이미 담긴 상품이면 수량만 더합니다.
+     */
+    public Long addCount(Long cartId, Long itemId, int count, String email) {
+        // 같은 트랜잭션에서 저장한 장바구니나 상품이 아직 insert 되지 않았을 수 있습니다.
+        entityManager.flush();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long newCartItemId = nextCartItemId();
+        try {
+            upsert(newCartItemId, cartId, itemId, count, email, now);
+        } catch (DuplicateKeyException e) {
+            upsert(newCartItemId, cartId, itemId, count, email, now);
+        }
+        return jdbcTemplate.queryForObject(SELECT_ID_SQL, Long.class, cartId, itemId);
+    }
+
+    /**
+     * 회원의 장바구니를 만들고 아이디를 돌려줍니다.
+     * 동시에 처음 담는 요청이 겹쳐 member_id 유니크 제약에 걸리면 먼저 만들어진 장바구니를 다시 읽습니다.
+     * 엔티티로 저장하면 flush 때 제약에 걸려 트랜잭션을 쓸 수 없게 되므로 문장으로 insert 합니다.
+     */
+    public Long createCart(Long memberId, String email) {
+        // 같은 트랜잭션에서 저장한 회원이 아직 insert 되지 않았을 수 있습니다.
+        entityManager.flush();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long cartId = nextId(Cart.class);
+        try {
+            jdbcTemplate.update(INSERT_CART_SQL, cartId, memberId, now, now, email, email);
+            return cartId;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.queryForObject(SELECT_CART_ID_SQL, Long.class, memberId);
+        }
+    }
+
+    /**
+     * cart_item 시퀀스에서 아이디를 받습니다. 블록 안의 값이면 DB 를 읽지 않습니다.
+     */
+    public Long nextCartItemId() {
+        return nextId(CartItem.class);
+    }
+
+    private Long nextId(Class<?> entityClass) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityClass).getGenerator();
+        return (Long) generator.generate(session, null);
+    }
+
+    private void upsert(Long cartItemId, Long cartId, Long itemId, int count, String email, Timestamp now) {
+        if (upsertSql != null) {
+            jdbcTemplate.update(upsertSql, cartItemId, cartId, itemId, count, now, now, email, email);
+            return;
+        }
+        if (jdbcTemplate.update(UPDATE_SQL, count, now, email, cartId, itemId) == 0) {
+            jdbcTemplate.update(INSERT_SQL, cartItemId, cartId, itemId, count, now, now, email, email);
+        }
+    }
+
+    private static String databaseProduct(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
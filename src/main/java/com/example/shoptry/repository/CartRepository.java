@@ -2,8 +2,15 @@ package com.example.shoptry.repository;
 
 import com.example.shoptry.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Cart findByMemberId(Long memberId);
+
+    Cart findByMemberEmail(String email);
+
+    @Query("select c.id from Cart c where c.member.email = :email")
+    Long findIdByMemberEmail(@Param("email") String email);
 }
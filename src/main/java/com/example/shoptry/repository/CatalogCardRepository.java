@@ -0,0 +1,13 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.entity.CatalogCard;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CatalogCardRepository extends JpaRepository<CatalogCard, Long> {
+
+    List<CatalogCard> findByItemIdGreaterThanOrderByItemIdAsc(Long itemId, Pageable pageable);
+
+}
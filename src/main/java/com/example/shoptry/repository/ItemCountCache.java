@@ -0,0 +1,176 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.dto.ItemSearchDto;
+import com.example.shoptry.event.ItemChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 상품 목록 페이지의 전체 건수(count) 캐시입니다.
+ * 검색 조건을 정규화한 키로 건수를 보관하고, 상품이 등록/수정되면 커밋 이후에 전부 비웁니다.
+ * 검색어는 사용자가 보내는 값이라 만료된 건수는 저장할 때 지우고, max-entries 를 넘으면 가장 오래 사용하지 않은 것부터 지웁니다.
+ * 검색 조건이 없는 큰 카탈로그는 DB 통계의 추정 건수로 대신할 수 있습니다.
+ */
+@Component
+@Log
+public class ItemCountCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String databaseProduct;
+
+    private final LinkedHashMap<String, CachedCount> counts = new LinkedHashMap<>(64, 0.75f, true);
+    private long nextSweepAt = 0;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter estimateCounter;
+    private final Timer countTimer;
+
+    // 캐시된 건수를 사용할 최대 시간(초). 기간 검색(1d, 1w ...)은 현재 시각 기준이라 영원히 보관하지 않습니다.
+    @Value("${shop.item-count.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // 검색 조건이 없고 추정 건수가 이 값 이상이면 count(*) 대신 추정 건수를 사용합니다. 0 이하이면 사용하지 않습니다.
+    @Value("${shop.item-count.estimate-threshold:100000}")
+    private long estimateThreshold;
+
+    @Value("${shop.item-count.max-entries:10000}")
+    private int maxEntries;
+
+    public ItemCountCache(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.databaseProduct = databaseProduct(dataSource);
+        this.hitCounter = meterRegistry.counter("shop.item.count.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("shop.item.count.cache", "result", "miss");
+        this.estimateCounter = meterRegistry.counter("shop.item.count.cache", "result", "estimate");
+        this.countTimer = meterRegistry.timer("shop.item.count.query");
+        meterRegistry.gauge("shop.item.count.cache.size", this, ItemCountCache::size);
+    }
+
+    /**
+     * 검색 조건에 해당하는 전체 건수를 반환합니다.
+     * @param scope 목록 종류 (main, admin)
+     * @param itemSearchDto 검색 조건
+     * @param exactCount 캐시에 없을 때 실행할 count 쿼리
+     */
+    public long count(String scope, ItemSearchDto itemSearchDto, LongSupplier exactCount) {
+        String key = scope + "|" + normalize(itemSearchDto);
+        long now = System.currentTimeMillis();
+
+        CachedCount cached = get(key);
+        if (cached != null && cached.expiresAt > now) {
+            hitCounter.increment();
+            return cached.total;
+        }
+
+        long total;
+        Long estimated = isUnfiltered(itemSearchDto) ? estimateItemRows() : null;
+        if (estimated != null) {
+            estimateCounter.increment();
+            total = estimated;
+        } else {
+            missCounter.increment();
+            total = countTimer.record(exactCount::getAsLong);
+        }
+        put(key, new CachedCount(total, now + ttlSeconds * 1000), now);
+        return total;
+    }
+
+    private synchronized CachedCount get(String key) {
+        return counts.get(key);
+    }
+
+    private synchronized void put(String key, CachedCount cachedCount, long now) {
+        // 만료된 건수는 ttl 마다 한 번 모아서 지웁니다.
+        if (now >= nextSweepAt) {
+            counts.values().removeIf(cached -> cached.expiresAt <= now);
+            nextSweepAt = now + ttlSeconds * 1000;
+        }
+        counts.put(key, cachedCount);
+        Iterator<CachedCount> iterator = counts.values().iterator();
+        while (counts.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return counts.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateAll();
+    }
+
+    public synchronized void invalidateAll() {
+        counts.clear();
+    }
+
+    public long getHitCount() {
+        return (long) hitCounter.count();
+    }
+
+    public long getMissCount() {
+        return (long) missCounter.count();
+    }
+
+    public long getEstimateCount() {
+        return (long) estimateCounter.count();
+    }
+
+    static String normalize(ItemSearchDto itemSearchDto) {
+        String searchDateType = itemSearchDto.getSearchDateType() == null ? "all" : itemSearchDto.getSearchDateType();
+        String sellStatus = itemSearchDto.getSearchSellStatus() == null ? "" : itemSearchDto.getSearchSellStatus().name();
+        String searchQuery = itemSearchDto.getSearchQuery() == null ? "" : itemSearchDto.getSearchQuery().trim();
+        // 검색어가 없으면 검색 기준(searchBy)은 결과에 영향을 주지 않습니다.
+        String searchBy = searchQuery.isEmpty() || itemSearchDto.getSearchBy() == null ? "" : itemSearchDto.getSearchBy();
+        return searchDateType + "|" + sellStatus + "|" + searchBy + "|" + searchQuery;
+    }
+
+    private boolean isUnfiltered(ItemSearchDto itemSearchDto) {
+        return "all|||".equals(normalize(itemSearchDto));
+    }
+
+    private Long estimateItemRows() {
+        if (estimateThreshold <= 0) {
+            return null;
+        }
+        Long estimated = null;
+        try {
+            if (databaseProduct.contains("mysql")) {
+                estimated = jdbcTemplate.queryForObject("select table_rows from information_schema.tables " +
+                        "where table_schema = database() and table_name = 'item'", Long.class);
+            } else if (databaseProduct.contains("h2")) {
+                estimated = jdbcTemplate.queryForObject("select row_count_estimate from information_schema.tables " +
+                        "where table_schema = schema() and table_name = 'ITEM'", Long.class);
+            }
+        } catch (Exception e) {
+            log.fine("추정 건수를 조회하지 못했습니다. " + e.getMessage());
+        }
+        return estimated != null && estimated >= estimateThreshold ? estimated : null;
+    }
+
+    private static String databaseProduct(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private record CachedCount(long total, long expiresAt) {
+    }
+}
@@ -3,6 +3,7 @@ package com.example.shoptry.repository;
 import com.example.shoptry.entity.ItemImg;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemImgRepository extends JpaRepository<ItemImg, Long> {
@@ -11,5 +12,7 @@ public interface ItemImgRepository extends JpaRepository<ItemImg, Long> {
 
     ItemImg findByItemIdAndRepimgYn(Long itemId, String repimgYn);
 
+    List<ItemImg> findByItemIdInAndRepimgYn(Collection<Long> itemIds, String repimgYn);
+
 
 }
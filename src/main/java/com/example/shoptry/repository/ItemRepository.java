@@ -1,11 +1,13 @@
 package com.example.shoptry.repository;
 
 import com.example.shoptry.entity.Item;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long>,
@@ -27,5 +29,10 @@ public interface ItemRepository extends JpaRepository<Item, Long>,
             "%:itemDetail% order by i.price desc", nativeQuery = true)
     List<Item> findByItemDetailByNative(@Param("itemDetail") String itemDetail);
 
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select i.id from Item i where i.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
 }
 
@@ -7,9 +7,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 
+import java.util.List;
+
 public interface ItemRepositoryCustom {
 
         Page<Item> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable);
 
         Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto,Pageable pageable);
+
+        // lastItemId 보다 작은 상품 아이디부터 limit 개를 조회합니다. (item.id desc 기준 seek)
+        List<MainItemDto> getMainItemsBefore(ItemSearchDto itemSearchDto, Long lastItemId, int limit);
+
+        // 필터 색인이 준비되기 전에 catalog_card 에서 검색어, 판매상태, 가격대(minPrice 이상 maxPrice 미만), 등록기간으로 조회합니다.
+        Page<MainItemDto> getFilteredMainItemPage(ItemSearchDto itemSearchDto, Integer minPrice, Integer maxPrice, Pageable pageable);
+
+        // 검색 색인 등에서 찾은 상품 아이디들만 화면용 DTO로 조회합니다. 순서는 보장하지 않습니다.
+        List<MainItemDto> getMainItemsByIds(List<Long> itemIds);
 }
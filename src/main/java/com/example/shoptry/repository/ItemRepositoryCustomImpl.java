@@ -5,15 +5,15 @@ import com.example.shoptry.dto.ItemSearchDto;
 import com.example.shoptry.dto.MainItemDto;
 import com.example.shoptry.dto.QMainItemDto;
 import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.QCatalogCard;
 import com.example.shoptry.entity.QItem;
-import com.example.shoptry.entity.QItemImg;
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.thymeleaf.util.StringUtils;
 
 import java.time.LocalDateTime;
@@ -23,8 +23,11 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
 
     private JPAQueryFactory queryFactory;
 
-    public ItemRepositoryCustomImpl(EntityManager entityManager) {
+    private ItemCountCache itemCountCache;
+
+    public ItemRepositoryCustomImpl(EntityManager entityManager, ItemCountCache itemCountCache) {
         this.queryFactory = new JPAQueryFactory(entityManager);
+        this.itemCountCache = itemCountCache;
     }
 
     private BooleanExpression searchSellStatusEq(ItemSellStatus searchSellStatus) {
@@ -32,6 +35,11 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
     }
 
     private BooleanExpression regDtsAfter(String searchDateType) {
+        LocalDateTime dateTime = searchDateFrom(searchDateType);
+        return dateTime == null ? null : QItem.item.regTime.after(dateTime);
+    }
+
+    private LocalDateTime searchDateFrom(String searchDateType) {
         LocalDateTime dateTime = LocalDateTime.now();
 
         if (StringUtils.equals("all", searchDateType) || searchDateType == null) {
@@ -40,19 +48,19 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
             dateTime = dateTime.minusDays(1);
         } else if(StringUtils.equals("1w",searchDateType)){
             dateTime = dateTime.minusWeeks(1);
-        } else if (StringUtils.equals("1m,", searchDateType)) {
+        } else if (StringUtils.equals("1m", searchDateType)) {
             dateTime = dateTime.minusMonths(1);
         } else if (StringUtils.equals("6m", searchDateType)) {
             dateTime = dateTime.minusMonths(6);
         }
-        return QItem.item.regTime.after(dateTime);
+        return dateTime;
     }
 
     private BooleanExpression searchByLike(String searchBy, String searchQuery){
         if (StringUtils.equals("itemNm", searchBy)) {
-            return QItem.item.itemNm.like("%" + searchBy + "%");
+            return QItem.item.itemNm.like("%" + searchQuery + "%");
         } else if (StringUtils.equals("createdBy", searchBy)) {
-            return QItem.item.createdBy.like("%" + searchBy + "%");
+            return QItem.item.createdBy.like("%" + searchQuery + "%");
         }
         return null;
     }
@@ -60,7 +68,7 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
 
     @Override
     public Page<Item> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
-        QueryResults<Item> results = queryFactory.selectFrom(QItem.item)
+        List<Item> content = queryFactory.selectFrom(QItem.item)
                 .where(regDtsAfter(itemSearchDto.getSearchDateType()),
                         searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
                         searchByLike(itemSearchDto.getSearchBy(),
@@ -68,45 +76,138 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
                 .orderBy(QItem.item.id.desc())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<Item> content = results.getResults();
-        long total = results.getTotal();
-        return new PageImpl<>(content, pageable, total);
+                .fetch();
+
+        // 마지막 페이지처럼 건수를 알 수 있는 경우에는 count 쿼리를 실행하지 않습니다.
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> itemCountCache.count("admin", itemSearchDto, () -> queryFactory
+                        .select(QItem.item.count())
+                        .from(QItem.item)
+                        .where(regDtsAfter(itemSearchDto.getSearchDateType()),
+                                searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
+                                searchByLike(itemSearchDto.getSearchBy(),
+                                        itemSearchDto.getSearchQuery()))
+                        .fetchOne()));
     }
 
     private BooleanExpression itemNmLike(String searchQuery) {
-        return StringUtils.isEmpty(searchQuery) ? null : QItem.item.itemNm.like("%" + searchQuery + "%");
+        return StringUtils.isEmpty(searchQuery) ? null : QCatalogCard.catalogCard.itemNm.like("%" + searchQuery + "%");
+    }
+
+    private BooleanExpression hasRepImg() {
+        return QCatalogCard.catalogCard.repImgUrl.isNotNull();
     }
 
+    private QMainItemDto mainItemDto() {
+        QCatalogCard card = QCatalogCard.catalogCard;
+        return new QMainItemDto(
+                card.itemId,
+                card.itemNm,
+                card.summary,
+                card.repImgUrl,
+                card.price);
+    }
+
+    // 목록 화면은 item, item_img 조인 대신 비정규화된 catalog_card 한 테이블만 읽습니다.
     @Override
     public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
-        QItem item = QItem.item;
-        QItemImg itemImg = QItemImg.itemImg;
-
-        QueryResults<MainItemDto> results = queryFactory
-                .select(
-                        new QMainItemDto(
-                                item.id,
-                                item.itemNm,
-                                item.itemDetail,
-                                itemImg.imgUrl,
-                                item.price)
-                )
-                .from(itemImg)
-                .join(itemImg.item, item)
-                .where(itemImg.repimgYn.eq("Y"))
-                .orderBy(item.id.desc())
+        QCatalogCard card = QCatalogCard.catalogCard;
+
+        List<MainItemDto> content = queryFactory
+                .select(mainItemDto())
+                .from(card)
+                .where(hasRepImg(),
+                        itemNmLike(itemSearchDto.getSearchQuery()))
+                .orderBy(card.itemId.desc())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
+                .fetch();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> itemCountCache.count("main", itemSearchDto, () -> queryFactory
+                        .select(card.count())
+                        .from(card)
+                        .where(hasRepImg(),
+                                itemNmLike(itemSearchDto.getSearchQuery()))
+                        .fetchOne()));
+    }
+
+    private BooleanExpression itemIdLt(Long lastItemId) {
+        return lastItemId == null ? null : QCatalogCard.catalogCard.itemId.lt(lastItemId);
+    }
 
-        List<MainItemDto> contet = results.getResults();
-        long total = results.getTotal();
-        return new PageImpl<>(contet, pageable, total);
+    @Override
+    public List<MainItemDto> getMainItemsBefore(ItemSearchDto itemSearchDto, Long lastItemId, int limit) {
+        QCatalogCard card = QCatalogCard.catalogCard;
+
+        // offset 없이 item_id 인덱스를 따라 바로 위치를 찾아가므로 페이지가 깊어져도 비용이 같습니다.
+        return queryFactory
+                .select(mainItemDto())
+                .from(card)
+                .where(hasRepImg(),
+                        itemIdLt(lastItemId),
+                        itemNmLike(itemSearchDto.getSearchQuery()))
+                .orderBy(card.itemId.desc())
+                .limit(limit)
+                .fetch();
     }
 
+    private BooleanExpression cardFilter(ItemSearchDto itemSearchDto, Integer minPrice, Integer maxPrice) {
+        QCatalogCard card = QCatalogCard.catalogCard;
+        LocalDateTime regTimeFrom = searchDateFrom(itemSearchDto.getSearchDateType());
+        return hasRepImg()
+                .and(itemNmLike(itemSearchDto.getSearchQuery()))
+                .and(itemSearchDto.getSearchSellStatus() == null ? null : card.itemSellStatus.eq(itemSearchDto.getSearchSellStatus()))
+                .and(minPrice == null ? null : card.price.goe(minPrice))
+                .and(maxPrice == null ? null : card.price.lt(maxPrice))
+                .and(regTimeFrom == null ? null : card.regTime.after(regTimeFrom));
+    }
 
+    private OrderSpecifier<?>[] cardOrder(String sort) {
+        QCatalogCard card = QCatalogCard.catalogCard;
+        if (StringUtils.equals("priceAsc", sort)) {
+            return new OrderSpecifier<?>[]{card.price.asc(), card.itemId.desc()};
+        } else if (StringUtils.equals("priceDesc", sort)) {
+            return new OrderSpecifier<?>[]{card.price.desc(), card.itemId.desc()};
+        } else if (StringUtils.equals("name", sort)) {
+            return new OrderSpecifier<?>[]{card.itemNm.asc(), card.itemId.desc()};
+        }
+        return new OrderSpecifier<?>[]{card.itemId.desc()};
+    }
 
+    @Override
+    public Page<MainItemDto> getFilteredMainItemPage(ItemSearchDto itemSearchDto, Integer minPrice, Integer maxPrice,
+                                                     Pageable pageable) {
+        QCatalogCard card = QCatalogCard.catalogCard;
+
+        List<MainItemDto> content = queryFactory
+                .select(mainItemDto())
+                .from(card)
+                .where(cardFilter(itemSearchDto, minPrice, maxPrice))
+                .orderBy(cardOrder(itemSearchDto.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // 가격대는 건수 캐시 키에 없으므로 목록 종류에 넣습니다.
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> itemCountCache.count("main-filter|" + minPrice + "|" + maxPrice, itemSearchDto, () -> queryFactory
+                        .select(card.count())
+                        .from(card)
+                        .where(cardFilter(itemSearchDto, minPrice, maxPrice))
+                        .fetchOne()));
+    }
+
+    @Override
+    public List<MainItemDto> getMainItemsByIds(List<Long> itemIds) {
+        QCatalogCard card = QCatalogCard.catalogCard;
+
+        return queryFactory
+                .select(mainItemDto())
+                .from(card)
+                .where(hasRepImg(),
+                        card.itemId.in(itemIds))
+                .fetch();
+    }
 
 }
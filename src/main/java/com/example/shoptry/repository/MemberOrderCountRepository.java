@@ -0,0 +1,24 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.entity.MemberOrderCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MemberOrderCountRepository extends JpaRepository<MemberOrderCount, Long> {
+
+    // 읽고 더하지 않고 update 한 번으로 증감해서 동시 주문에도 값이 유실되지 않습니다. 반환값은 갱신된 행 수입니다.
+    @Modifying
+    @Query("update MemberOrderCount c set c.orderCount = c.orderCount + :delta where c.memberId = :memberId")
+    int addOrderCount(@Param("memberId") Long memberId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("update MemberOrderCount c set c.cancelCount = c.cancelCount + :delta where c.memberId = :memberId")
+    int addCancelCount(@Param("memberId") Long memberId, @Param("delta") long delta);
+
+    @Query("select c.orderCount from MemberOrderCount c, Member m " +
+            "where c.memberId = m.id and m.email = :email")
+    Long findOrderCountByEmail(@Param("email") String email);
+
+}
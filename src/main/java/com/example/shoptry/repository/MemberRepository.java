@@ -1,10 +1,21 @@
 package com.example.shoptry.repository;
 
 import com.example.shoptry.entity.Member;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface MemberRepository extends JpaRepository<Member,Long> {
 
     Member findByEmail(String email);
 
+    @Query("select m.id from Member m where m.email = :email")
+    Long findIdByEmail(@Param("email") String email);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from Member m where m.id = :memberId")
+    Member findByIdForUpdate(@Param("memberId") Long memberId);
+
 }
@@ -2,7 +2,17 @@ package com.example.shoptry.repository;
 
 import com.example.shoptry.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem,Long> {
 
+    // 주문 일괄 취소에서 되돌릴 재고와 판매 집계에 쓸 주문 상품을 엔티티 없이 한 번에 조회합니다.
+    // [상품 아이디, 주문일, 수량, 주문 가격]
+    @Query("select oi.item.id, o.orderDate, oi.count, oi.orderPrice from OrderItem oi join oi.order o " +
+            "where o.id in :orderIds")
+    List<Object[]> findSalesLines(@Param("orderIds") List<Long> orderIds);
+
 }
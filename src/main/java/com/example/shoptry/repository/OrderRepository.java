@@ -1,14 +1,20 @@
 package com.example.shoptry.repository;
 
+import com.example.shoptry.constant.OrderStatus;
 import com.example.shoptry.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
     @Query("select o from Order o " +
             "where o.member.email = :email " +
@@ -19,4 +25,43 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "where o.member.email = :email")
     Long countOrder(@Param("email") String email);
 
+    @Query("select count(o) from Order o " +
+            "where o.member.id = :memberId")
+    Long countOrderByMemberId(@Param("memberId") Long memberId);
+
+    @Query("select count(o) from Order o " +
+            "where o.member.id = :memberId and o.orderStatus = :orderStatus")
+    Long countOrderByMemberIdAndStatus(@Param("memberId") Long memberId, @Param("orderStatus") OrderStatus orderStatus);
+
+    // 보관 테이블(orders_archive)로 옮긴 주문 수입니다.
+    @Query("select count(a) from ArchivedOrder a, Member m " +
+            "where a.memberId = m.id and m.email = :email")
+    Long countArchivedOrder(@Param("email") String email);
+
+    @Query("select count(a) from ArchivedOrder a " +
+            "where a.memberId = :memberId")
+    Long countArchivedOrderByMemberId(@Param("memberId") Long memberId);
+
+    @Query("select count(a) from ArchivedOrder a " +
+            "where a.memberId = :memberId and a.orderStatus = :orderStatus")
+    Long countArchivedOrderByMemberIdAndStatus(@Param("memberId") Long memberId, @Param("orderStatus") OrderStatus orderStatus);
+
+    // 일괄 취소할 주문을 잠그고 읽습니다. 그 사이 다른 곳에서 취소한 주문은 빠집니다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o " +
+            "where o.id in :orderIds and o.orderStatus = :orderStatus")
+    List<Order> findByIdInAndStatusForUpdate(@Param("orderIds") List<Long> orderIds,
+                                             @Param("orderStatus") OrderStatus orderStatus);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.orderStatus = :orderStatus, o.updateTime = :updateTime " +
+            "where o.id in :orderIds")
+    int updateOrderStatus(@Param("orderIds") List<Long> orderIds, @Param("orderStatus") OrderStatus orderStatus,
+                          @Param("updateTime") LocalDateTime updateTime);
+
+    // 권한 확인: 회원의 주문인지 확인합니다.
+    boolean existsByIdAndMemberId(Long id, Long memberId);
+
+    long countByIdInAndMemberId(Collection<Long> ids, Long memberId);
+
 }
@@ -0,0 +1,19 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.dto.OrderHistDto;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+        // 주문, 주문 상품, 대표 이미지를 주문 수와 상관없이 정해진 횟수의 쿼리로 조회합니다. 보관된 주문까지 이어서 조회합니다.
+        List<OrderHistDto> getOrderHistories(String email, Pageable pageable);
+
+        // (orderDate, orderId) 가 마지막으로 본 주문보다 앞선 주문부터 limit 개를 조회합니다. (orderDate desc, order_id desc 기준 seek)
+        List<OrderHistDto> getOrderHistoriesBefore(String email, LocalDateTime lastOrderDate, Long lastOrderId, int limit);
+
+        // 일괄 취소 대상 주문 아이디입니다. 상품 아이디와 주문일 범위 중 넘긴 조건만 적용합니다.
+        List<Long> findOrderIdsToCancel(Long itemId, LocalDateTime orderedFrom, LocalDateTime orderedTo);
+}
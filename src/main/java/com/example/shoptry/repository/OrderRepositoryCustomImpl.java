@@ -0,0 +1,221 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.dto.OrderHistDto;
+import com.example.shoptry.dto.OrderItemDto;
+import com.example.shoptry.dto.QOrderHistDto;
+import com.example.shoptry.dto.QOrderItemDto;
+import com.example.shoptry.entity.QArchivedOrder;
+import com.example.shoptry.entity.QArchivedOrderItem;
+import com.example.shoptry.entity.QCatalogCard;
+import com.example.shoptry.entity.QItem;
+import com.example.shoptry.entity.QMember;
+import com.example.shoptry.entity.QOrder;
+import com.example.shoptry.entity.QOrderItem;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private JPAQueryFactory queryFactory;
+
+    public OrderRepositoryCustomImpl(EntityManager entityManager) {
+        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    private BooleanExpression orderedBefore(LocalDateTime lastOrderDate, Long lastOrderId) {
+        if (lastOrderDate == null || lastOrderId == null) {
+            return null;
+        }
+        return QOrder.order.orderDate.lt(lastOrderDate)
+                .or(QOrder.order.orderDate.eq(lastOrderDate).and(QOrder.order.id.lt(lastOrderId)));
+    }
+
+    private BooleanExpression containsItem(Long itemId) {
+        if (itemId == null) {
+            return null;
+        }
+        QOrderItem orderItem = QOrderItem.orderItem;
+        return JPAExpressions.selectOne()
+                .from(orderItem)
+                .where(orderItem.order.eq(QOrder.order), orderItem.item.id.eq(itemId))
+                .exists();
+    }
+
+    private BooleanExpression orderedFrom(LocalDateTime orderedFrom) {
+        return orderedFrom == null ? null : QOrder.order.orderDate.goe(orderedFrom);
+    }
+
+    private BooleanExpression orderedTo(LocalDateTime orderedTo) {
+        return orderedTo == null ? null : QOrder.order.orderDate.lt(orderedTo);
+    }
+
+    /**
+     * 보관된 주문은 모두 orders 에 남은 주문보다 오래되었으므로(OrderArchiveService 가 오래된 순으로 옮깁니다),
+     * orders 에서 한 페이지를 채우지 못했을 때만 보관 테이블에서 이어서 읽습니다.
+     */
+    @Override
+    public List<OrderHistDto> getOrderHistories(String email, Pageable pageable) {
+        QOrder order = QOrder.order;
+
+        List<OrderHistDto> orderHistDtos = queryFactory
+                .select(new QOrderHistDto(order.id, order.orderDate, order.orderStatus,
+                        order.totalPrice, order.itemCount))
+                .from(order)
+                .where(order.member.email.eq(email))
+                .orderBy(order.orderDate.desc(), order.id.desc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+        addOrderItems(orderHistDtos);
+
+        if (orderHistDtos.size() < pageable.getPageSize()) {
+            // 이 페이지에서 보관 주문이 시작되면 처음부터, 이미 지났으면 orders 의 주문 수만큼 건너뜁니다.
+            long archiveOffset = orderHistDtos.isEmpty()
+                    ? Math.max(0, pageable.getOffset() - countHotOrders(email)) : 0;
+            List<OrderHistDto> archived = getArchivedOrderHistories(email, null, null,
+                    archiveOffset, pageable.getPageSize() - orderHistDtos.size());
+            orderHistDtos = new ArrayList<>(orderHistDtos);
+            orderHistDtos.addAll(archived);
+        }
+        return orderHistDtos;
+    }
+
+    @Override
+    public List<OrderHistDto> getOrderHistoriesBefore(String email, LocalDateTime lastOrderDate, Long lastOrderId, int limit) {
+        QOrder order = QOrder.order;
+
+        List<OrderHistDto> orderHistDtos = queryFactory
+                .select(new QOrderHistDto(order.id, order.orderDate, order.orderStatus,
+                        order.totalPrice, order.itemCount))
+                .from(order)
+                .where(order.member.email.eq(email),
+                        orderedBefore(lastOrderDate, lastOrderId))
+                .orderBy(order.orderDate.desc(), order.id.desc())
+                .limit(limit)
+                .fetch();
+        addOrderItems(orderHistDtos);
+
+        if (orderHistDtos.size() < limit) {
+            orderHistDtos = new ArrayList<>(orderHistDtos);
+            orderHistDtos.addAll(getArchivedOrderHistories(email, lastOrderDate, lastOrderId, 0,
+                    limit - orderHistDtos.size()));
+        }
+        return orderHistDtos;
+    }
+
+    private long countHotOrders(String email) {
+        QOrder order = QOrder.order;
+        Long count = queryFactory
+                .select(order.count())
+                .from(order)
+                .where(order.member.email.eq(email))
+                .fetchOne();
+        return count != null ? count : 0;
+    }
+
+    private List<OrderHistDto> getArchivedOrderHistories(String email, LocalDateTime lastOrderDate, Long lastOrderId,
+                                                         long offset, long limit) {
+        QArchivedOrder archivedOrder = QArchivedOrder.archivedOrder;
+        QMember member = QMember.member;
+
+        BooleanExpression before = null;
+        if (lastOrderDate != null && lastOrderId != null) {
+            before = archivedOrder.orderDate.lt(lastOrderDate)
+                    .or(archivedOrder.orderDate.eq(lastOrderDate).and(archivedOrder.id.lt(lastOrderId)));
+        }
+
+        List<OrderHistDto> orderHistDtos = queryFactory
+                .select(new QOrderHistDto(archivedOrder.id, archivedOrder.orderDate, archivedOrder.orderStatus,
+                        archivedOrder.totalPrice, archivedOrder.itemCount))
+                .from(archivedOrder)
+                .where(archivedOrder.memberId.eq(JPAExpressions.select(member.id).from(member).where(member.email.eq(email))),
+                        before)
+                .orderBy(archivedOrder.orderDate.desc(), archivedOrder.id.desc())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+        if (orderHistDtos.isEmpty()) {
+            return orderHistDtos;
+        }
+
+        QArchivedOrderItem archivedOrderItem = QArchivedOrderItem.archivedOrderItem;
+        QItem item = QItem.item;
+        QCatalogCard catalogCard = QCatalogCard.catalogCard;
+
+        Map<Long, OrderHistDto> orderHistDtoMap = new LinkedHashMap<>();
+        for (OrderHistDto orderHistDto : orderHistDtos) {
+            orderHistDto.setArchived(true);
+            orderHistDtoMap.put(orderHistDto.getOrderId(), orderHistDto);
+        }
+
+        List<OrderItemDto> orderItemDtos = queryFactory
+                .select(new QOrderItemDto(archivedOrderItem.orderId, item.itemNm, archivedOrderItem.count,
+                        archivedOrderItem.orderPrice, catalogCard.repImgUrl))
+                .from(archivedOrderItem)
+                .join(item).on(item.id.eq(archivedOrderItem.itemId))
+                .leftJoin(catalogCard).on(catalogCard.itemId.eq(item.id))
+                .where(archivedOrderItem.orderId.in(new ArrayList<>(orderHistDtoMap.keySet())))
+                .orderBy(archivedOrderItem.id.asc())
+                .fetch();
+
+        for (OrderItemDto orderItemDto : orderItemDtos) {
+            orderHistDtoMap.get(orderItemDto.getOrderId()).addOrderItemDto(orderItemDto);
+        }
+        return orderHistDtos;
+    }
+
+    private void addOrderItems(List<OrderHistDto> orderHistDtos) {
+        QOrderItem orderItem = QOrderItem.orderItem;
+        QItem item = QItem.item;
+        QCatalogCard catalogCard = QCatalogCard.catalogCard;
+
+        if (orderHistDtos.isEmpty()) {
+            return;
+        }
+
+        Map<Long, OrderHistDto> orderHistDtoMap = new LinkedHashMap<>();
+        for (OrderHistDto orderHistDto : orderHistDtos) {
+            orderHistDtoMap.put(orderHistDto.getOrderId(), orderHistDto);
+        }
+
+        // 대표 이미지는 catalog_card 에서 같이 가져옵니다.
+        List<OrderItemDto> orderItemDtos = queryFactory
+                .select(new QOrderItemDto(orderItem.order.id, item.itemNm, orderItem.count,
+                        orderItem.orderPrice, catalogCard.repImgUrl))
+                .from(orderItem)
+                .join(orderItem.item, item)
+                .leftJoin(catalogCard).on(catalogCard.itemId.eq(item.id))
+                .where(orderItem.order.id.in(new ArrayList<>(orderHistDtoMap.keySet())))
+                .orderBy(orderItem.id.asc())
+                .fetch();
+
+        for (OrderItemDto orderItemDto : orderItemDtos) {
+            orderHistDtoMap.get(orderItemDto.getOrderId()).addOrderItemDto(orderItemDto);
+        }
+    }
+
+    @Override
+    public List<Long> findOrderIdsToCancel(Long itemId, LocalDateTime orderedFrom, LocalDateTime orderedTo) {
+        QOrder order = QOrder.order;
+
+        return queryFactory
+                .select(order.id)
+                .from(order)
+                .where(order.orderStatus.eq(OrderStatus.ORDER),
+                        containsItem(itemId),
+                        orderedFrom(orderedFrom),
+                        orderedTo(orderedTo))
+                .orderBy(order.id.asc())
+                .fetch();
+    }
+}
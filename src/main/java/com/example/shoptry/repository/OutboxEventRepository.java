@@ -0,0 +1,7 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
@@ -0,0 +1,37 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.constant.RollupPeriod;
+import com.example.shoptry.dto.SalesRollupDto;
+import com.example.shoptry.entity.SalesRollup;
+import com.example.shoptry.entity.SalesRollupId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollupId> {
+
+    @Query("select new com.example.shoptry.dto.SalesRollupDto(r.id.itemId, i.itemNm, r.id.bucketStart, r.units, r.revenue) " +
+            "from SalesRollup r, Item i " +
+            "where i.id = r.id.itemId and r.id.period = :period and r.id.orderStatus = :orderStatus " +
+            "and r.id.bucketStart >= :from and r.id.bucketStart < :to " +
+            "order by r.id.bucketStart, r.id.itemId")
+    List<SalesRollupDto> findSales(@Param("period") RollupPeriod period, @Param("orderStatus") OrderStatus orderStatus,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // 일별 집계를 더해서 기간 동안 많이 팔린 상품 순으로 조회합니다.
+    @Query("select new com.example.shoptry.dto.SalesRollupDto(r.id.itemId, i.itemNm, sum(r.units), sum(r.revenue)) " +
+            "from SalesRollup r, Item i " +
+            "where i.id = r.id.itemId and r.id.period = com.example.shoptry.constant.RollupPeriod.DAY " +
+            "and r.id.orderStatus = :orderStatus " +
+            "and r.id.bucketStart >= :from and r.id.bucketStart < :to " +
+            "group by r.id.itemId, i.itemNm " +
+            "order by sum(r.revenue) desc")
+    List<SalesRollupDto> findTopItems(@Param("orderStatus") OrderStatus orderStatus,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+}
@@ -0,0 +1,384 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.exception.OutOfStockException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 재고를 DB의 조건부 update 한 문장으로 차감합니다. (shop.stock.mode=atomic)
+ * update item set stock_number = stock_number - ? where item_id = ? and stock_number >= ?
+ *
+ * 주문 스레드는 요청을 큐에 넣고 기다리기만 하고, 재고 전용 스레드가 짧은 시간(window) 동안 모인 요청을
+ * 상품별로 합쳐서 상품당 한 문장으로 실행한 뒤 결과를 각 요청에 돌려줍니다.
+ * 합친 수량을 모두 줄 수 없으면 남은 재고 안에서 먼저 들어온 요청부터 나눠줍니다.
+ *
+ * 차감은 주문 트랜잭션과 별개의 전용 커넥션(autocommit)에서 바로 커밋되므로, 주문이 롤백되면 재고를 다시 더합니다.
+ * 기다리다 시간이 초과된 요청은 취소하고, 재고 스레드는 취소된 요청을 건너뛰거나 이미 줄였으면 다시 더합니다.
+ * 그 사이 장애가 나면 재고가 실제보다 적게 남을 수는 있어도 많아지지는 않습니다.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.stock.mode", havingValue = "atomic")
+@Log
+public class AtomicStockManager implements StockManager {
+
+    private static final String DECREASE_SQL =
+            "update item set stock_number = stock_number - ? where item_id = ? and stock_number >= ?";
+    private static final String INCREASE_SQL =
+            "update item set stock_number = stock_number + ? where item_id = ?";
+    private static final String SELECT_SQL =
+            "select stock_number from item where item_id = ?";
+    private static final long IDLE_CHECK_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // 주문 트랜잭션들이 재고 결과를 기다리며 커넥션 풀을 모두 쥐고 있어도 막히지 않도록 풀 밖의 커넥션을 씁니다.
+    private final DataSource dataSource;
+
+    private final Counter reservedCounter;
+    private final Counter rejectedCounter;
+    private final Counter statementCounter;
+    private final DistributionSummary batchSummary;
+
+    private BlockingQueue<StockRequest> queue;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    // 재고 전용 스레드만 사용합니다.
+    private Connection connection;
+    private long lastUsedNanos;
+
+    @Value("${shop.stock.atomic.window-micros:1000}")
+    private long windowMicros;
+
+    @Value("${shop.stock.atomic.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${shop.stock.atomic.queue-capacity:10000}")
+    private int queueCapacity;
+
+    public AtomicStockManager(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        this.reservedCounter = meterRegistry.counter("shop.stock.reserve", "result", "reserved");
+        this.rejectedCounter = meterRegistry.counter("shop.stock.reserve", "result", "rejected");
+        this.statementCounter = meterRegistry.counter("shop.stock.atomic.statements");
+        this.batchSummary = meterRegistry.summary("shop.stock.atomic.batch.size");
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        writer = new Thread(this::writeLoop, "stock-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(10000);
+    }
+
+    @Override
+    public void removeStock(Item item, int count) {
+        StockRequest request = new StockRequest(item.getId(), count);
+        if (!queue.offer(request)) {
+            throw new IllegalStateException("재고 처리 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+
+        boolean reserved;
+        try {
+            reserved = request.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 취소에 성공하면 재고 스레드가 이 요청을 차감하지 않거나 차감한 만큼 다시 더합니다.
+            if (request.result.cancel(false)) {
+                throw new IllegalStateException("재고 처리 시간이 초과되었습니다.");
+            }
+            reserved = request.result.getNow(false);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("재고 처리 실패", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재고 처리 중 중단되었습니다.");
+        }
+
+        if (!reserved) {
+            rejectedCounter.increment();
+            throw new OutOfStockException("상품의 재고가 부족 합니다. (현재 재고 수량: " + request.available + ")");
+        }
+        reservedCounter.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // 이미 커밋된 차감을 주문이 롤백되었을 때 되돌립니다.
+                    if (status != STATUS_COMMITTED) {
+                        restock(item.getId(), count);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void addStock(Item item, int count) {
+        Long itemId = item.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            restock(itemId, count);
+            return;
+        }
+        // 주문취소가 커밋된 뒤에만 재고를 돌려줍니다.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                restock(itemId, count);
+            }
+        });
+    }
+
+    @Override
+    public void addStocks(Map<Long, Integer> itemCounts) {
+        Map<Long, Integer> restocks = new LinkedHashMap<>(itemCounts);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            restocks.forEach(this::restock);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                restocks.forEach(AtomicStockManager.this::restock);
+            }
+        });
+    }
+
+    @Override
+    public void setStock(Item item, int stockNumber) {
+        item.setStockNumber(stockNumber);
+    }
+
+    @Override
+    public int getStock(Item item) {
+        return item.getStockNumber();
+    }
+
+    private void restock(Long itemId, int count) {
+        if (!queue.offer(new StockRequest(itemId, -count))) {
+            log.severe("재고 복구 요청을 큐에 넣지 못했습니다. (상품 " + itemId + ", " + count + ")");
+        }
+    }
+
+    private void writeLoop() {
+        long windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        while (running || !queue.isEmpty()) {
+            List<StockRequest> requests = new ArrayList<>();
+            try {
+                StockRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                requests.add(first);
+                // 첫 요청 이후 window 동안 들어온 요청을 모아서 같이 처리합니다.
+                if (windowNanos > 0) {
+                    LockSupport.parkNanos(windowNanos);
+                }
+                queue.drainTo(requests);
+                process(requests);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException | RuntimeException e) {
+                log.warning("재고 처리 실패: " + e.getMessage());
+                closeConnection();
+                for (StockRequest request : requests) {
+                    if (request.count < 0) {
+                        log.severe("재고 복구 실패 (상품 " + request.itemId + ", " + -request.count + ")");
+                    }
+                    request.result.completeExceptionally(e);
+                }
+            }
+        }
+        closeConnection();
+    }
+
+    private void process(List<StockRequest> requests) throws SQLException {
+        batchSummary.record(requests.size());
+
+        Map<Long, Integer> restocks = new LinkedHashMap<>();
+        Map<Long, List<StockRequest>> decreases = new LinkedHashMap<>();
+        for (StockRequest request : requests) {
+            if (request.count < 0) {
+                restocks.merge(request.itemId, -request.count, Integer::sum);
+            } else if (!request.result.isCancelled()) {
+                decreases.computeIfAbsent(request.itemId, itemId -> new ArrayList<>()).add(request);
+            }
+        }
+
+        Connection connection = connection();
+        // 복구를 먼저 반영해야 같은 창에 들어온 주문이 돌아온 재고를 쓸 수 있습니다.
+        for (Map.Entry<Long, Integer> restock : restocks.entrySet()) {
+            try (PreparedStatement statement = connection.prepareStatement(INCREASE_SQL)) {
+                statement.setInt(1, restock.getValue());
+                statement.setLong(2, restock.getKey());
+                statement.executeUpdate();
+                statementCounter.increment();
+            }
+        }
+        for (StockRequest request : requests) {
+            if (request.count < 0) {
+                request.result.complete(true);
+            }
+        }
+
+        for (Map.Entry<Long, List<StockRequest>> entry : decreases.entrySet()) {
+            Long itemId = entry.getKey();
+            List<StockRequest> itemRequests = entry.getValue();
+            int total = 0;
+            for (StockRequest request : itemRequests) {
+                total += request.count;
+            }
+            if (decrease(connection, itemId, total)) {
+                for (StockRequest request : itemRequests) {
+                    grant(connection, request);
+                }
+            } else {
+                decreasePartially(connection, itemId, itemRequests);
+            }
+        }
+    }
+
+    /**
+     * 차감한 요청에 결과를 돌려줍니다. 그 사이 주문 스레드가 시간 초과로 취소했으면 차감한 재고를 바로 다시 더합니다.
+     */
+    private void grant(Connection connection, StockRequest request) throws SQLException {
+        if (request.result.complete(true)) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INCREASE_SQL)) {
+            statement.setInt(1, request.count);
+            statement.setLong(2, request.itemId);
+            statement.executeUpdate();
+            statementCounter.increment();
+        }
+    }
+
+    /**
+     * 합친 수량을 모두 줄 수 없을 때 남은 재고 안에서 먼저 들어온 요청부터 나눠줍니다.
+     * 다른 노드가 그 사이에 재고를 바꿔서 조건부 update 가 실패하면 몇 번 다시 읽어서 시도합니다.
+     */
+    private void decreasePartially(Connection connection, Long itemId, List<StockRequest> requests) throws SQLException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            int remaining = currentStock(connection, itemId);
+            int available = remaining;
+            List<StockRequest> granted = new ArrayList<>();
+            for (StockRequest request : requests) {
+                if (request.count <= remaining) {
+                    granted.add(request);
+                    remaining -= request.count;
+                }
+            }
+            int total = available - remaining;
+            if (total == 0 || decrease(connection, itemId, total)) {
+                for (StockRequest request : requests) {
+                    request.available = available;
+                    if (granted.contains(request)) {
+                        grant(connection, request);
+                    } else {
+                        request.result.complete(false);
+                    }
+                }
+                return;
+            }
+        }
+        for (StockRequest request : requests) {
+            request.available = 0;
+            request.result.complete(false);
+        }
+    }
+
+    private boolean decrease(Connection connection, Long itemId, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DECREASE_SQL)) {
+            statement.setInt(1, count);
+            statement.setLong(2, itemId);
+            statement.setInt(3, count);
+            statementCounter.increment();
+            return statement.executeUpdate() == 1;
+        }
+    }
+
+    private int currentStock(Connection connection, Long itemId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SQL)) {
+            statement.setLong(1, itemId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        // 오래 쉬었던 커넥션은 DB가 끊었을 수 있으므로 확인하고 씁니다.
+        if (connection != null && System.nanoTime() - lastUsedNanos > IDLE_CHECK_NANOS && !connection.isValid(1)) {
+            closeConnection();
+        }
+        if (connection == null) {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+        }
+        lastUsedNanos = System.nanoTime();
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+            connection = null;
+        }
+    }
+
+    private static class StockRequest {
+
+        private final Long itemId;
+
+        private final int count; //음수이면 재고 복구
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private volatile int available; //거절할 때 보여줄 재고 수량
+
+        private StockRequest(Long itemId, int count) {
+            this.itemId = itemId;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.shoptry.service;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 메모리에 들고 있는 회원 한 명의 장바구니입니다.
+ * 바뀐 상품 줄과 지운 상품 줄을 모아두었다가 CartWriteBehind 가 반영할 때 takeChanges 로 한 번에 꺼내 갑니다.
+ * 반영하기 전에 여러 번 바뀐 줄은 마지막 수량만, 반영하기 전에 담았다가 지운 줄은 아무것도 쓰지 않습니다.
+ * CartStore.update 안에서만 다룹니다.
+ */
+@Getter
+public class CachedCart implements Serializable {
+
+    private final String email;
+
+    @Setter
+    private Long cartId; //아직 장바구니가 없으면 null
+
+    private final Map<Long, CachedCartLine> lines = new LinkedHashMap<>(); //장바구니 상품 아이디 → 줄
+
+    private final Set<Long> dirtyLineIds = new HashSet<>(); //insert 나 update 가 필요한 줄
+
+    private final Set<Long> deletedLineIds = new HashSet<>(); //delete 가 필요한 줄
+
+    private boolean flushing; //꺼내 간 변경 내용을 반영하는 중
+
+    public CachedCart(String email, Long cartId) {
+        this.email = email;
+        this.cartId = cartId;
+    }
+
+    public CachedCartLine findLineByItemId(Long itemId) {
+        for (CachedCartLine line : lines.values()) {
+            if (line.getItemId().equals(itemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    public void addLine(CachedCartLine line) {
+        lines.put(line.getCartItemId(), line);
+        dirtyLineIds.add(line.getCartItemId());
+    }
+
+    public boolean updateCount(Long cartItemId, int count) {
+        CachedCartLine line = lines.get(cartItemId);
+        if (line == null) {
+            return false;
+        }
+        line.setCount(count);
+        dirtyLineIds.add(cartItemId);
+        return true;
+    }
+
+    public boolean removeLine(Long cartItemId) {
+        CachedCartLine line = lines.remove(cartItemId);
+        if (line == null) {
+            return false;
+        }
+        dirtyLineIds.remove(cartItemId);
+        if (line.isPersisted()) {
+            deletedLineIds.add(cartItemId);
+        }
+        return true;
+    }
+
+    /**
+     * 주문으로 DB 에서 이미 지운 줄을 메모리에서만 뺍니다.
+     */
+    public void forgetLines(Collection<Long> cartItemIds) {
+        for (Long cartItemId : cartItemIds) {
+            lines.remove(cartItemId);
+            dirtyLineIds.remove(cartItemId);
+        }
+    }
+
+    /**
+     * 화면에 보여줄 줄을 담은 순서의 역순으로 복사합니다.
+     */
+    public List<CachedCartLine> copyLines() {
+        List<CachedCartLine> copies = new ArrayList<>(lines.size());
+        for (CachedCartLine line : lines.values()) {
+            copies.add(line.copy());
+        }
+        copies.sort(Comparator.comparing(CachedCartLine::getRegTime).reversed());
+        return copies;
+    }
+
+    public boolean isDirty() {
+        return !dirtyLineIds.isEmpty() || !deletedLineIds.isEmpty();
+    }
+
+    /**
+     * 메모리에서만 지워도 되는 장바구니인지 확인합니다. 반영하지 않았거나 반영 중인 변경이 있으면 지울 수 없습니다.
+     */
+    public boolean isEvictable() {
+        return !isDirty() && !flushing;
+    }
+
+    /**
+     * 모아둔 변경 내용을 꺼내고 반영한 것으로 표시합니다. 반영이 끝나면 finishFlush 를 호출해야 합니다.
+     */
+    public CartChanges takeChanges() {
+        CartChanges changes = new CartChanges(email, cartId);
+        for (Long cartItemId : dirtyLineIds) {
+            CachedCartLine line = lines.get(cartItemId);
+            if (line.isPersisted()) {
+                changes.getUpdated().add(line.copy());
+            } else {
+                changes.getInserted().add(line.copy());
+                line.setPersisted(true);
+            }
+        }
+        changes.getDeleted().addAll(deletedLineIds);
+        dirtyLineIds.clear();
+        deletedLineIds.clear();
+        flushing = true;
+        return changes;
+    }
+
+    /**
+     * 반영에 실패하면 꺼내 간 변경 내용을 다시 표시해서 다음 반영 때 씁니다.
+     * 그 사이 지운 줄은 insert/update 하지 않고, 그 사이 바뀐 줄은 최신 수량을 씁니다.
+     */
+    public void finishFlush(CartChanges changes, boolean succeeded) {
+        flushing = false;
+        if (succeeded) {
+            return;
+        }
+        for (CachedCartLine inserted : changes.getInserted()) {
+            CachedCartLine line = lines.get(inserted.getCartItemId());
+            if (line != null) {
+                line.setPersisted(false);
+                dirtyLineIds.add(line.getCartItemId());
+            } else {
+                deletedLineIds.remove(inserted.getCartItemId());
+            }
+        }
+        for (CachedCartLine updated : changes.getUpdated()) {
+            if (lines.containsKey(updated.getCartItemId())) {
+                dirtyLineIds.add(updated.getCartItemId());
+            }
+        }
+        deletedLineIds.addAll(changes.getDeleted());
+    }
+
+    /**
+     * 한 번에 반영할 장바구니 변경 내용입니다.
+     */
+    @Getter
+    public static class CartChanges implements Serializable {
+
+        private final String email;
+
+        private final Long cartId;
+
+        private final List<CachedCartLine> inserted = new ArrayList<>();
+
+        private final List<CachedCartLine> updated = new ArrayList<>();
+
+        private final List<Long> deleted = new ArrayList<>();
+
+        private final LocalDateTime takenAt = LocalDateTime.now();
+
+        CartChanges(String email, Long cartId) {
+            this.email = email;
+            this.cartId = cartId;
+        }
+
+        public boolean isEmpty() {
+            return inserted.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+        }
+    }
+}
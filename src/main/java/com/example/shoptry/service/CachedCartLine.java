@@ -0,0 +1,37 @@
+package com.example.shoptry.service;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 메모리 장바구니의 상품 한 줄(cart_item 한 행)입니다.
+ */
+@Getter
+@Setter
+public class CachedCartLine implements Serializable {
+
+    private final Long cartItemId;
+
+    private final Long itemId;
+
+    private int count;
+
+    private final LocalDateTime regTime;
+
+    private boolean persisted; //cart_item 에 이미 insert 되었는지
+
+    public CachedCartLine(Long cartItemId, Long itemId, int count, LocalDateTime regTime, boolean persisted) {
+        this.cartItemId = cartItemId;
+        this.itemId = itemId;
+        this.count = count;
+        this.regTime = regTime;
+        this.persisted = persisted;
+    }
+
+    CachedCartLine copy() {
+        return new CachedCartLine(cartItemId, itemId, count, regTime, persisted);
+    }
+}
@@ -6,17 +6,25 @@ import com.example.shoptry.dto.CartOrderDto;
 import com.example.shoptry.dto.OrderDto;
 import com.example.shoptry.entity.*;
 import com.example.shoptry.repository.CartItemRepository;
+import com.example.shoptry.repository.CartItemUpsert;
 import com.example.shoptry.repository.CartRepository;
 import com.example.shoptry.repository.ItemRepository;
 import com.example.shoptry.repository.MemberRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,34 +35,43 @@ public class CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final OrderService orderService;
-
+    private final CartWriteBehind cartWriteBehind;
+    private final CartItemUpsert cartItemUpsert;
+
+    /**
+     * 같은 상품이 이미 담겨 있으면 수량만 더합니다.
+     * 메모리 장바구니를 쓰지 않으면 cart_item 에 upsert 한 문장으로 insert 하거나 수량을 더하므로 동시에 담아도 한 줄만 남습니다.
+     * (그 앞에 flush 와 아이디 할당, 뒤에 장바구니 상품 아이디 조회가 따로 나갑니다)
+     * 처음 담을 때 장바구니가 동시에 만들어져도 member_id 유니크 제약으로 회원마다 하나만 남습니다.
+     */
     public Long addCart(CartItemDto cartItemDto, String email) {
-        Item item = itemRepository.findById(cartItemDto.getItemId())
-                .orElseThrow(EntityNotFoundException::new);
-        Member member = memberRepository.findByEmail(email);
-
-        Cart cart = cartRepository.findByMemberId(member.getId());
-        if (cart == null) {
-            cart = Cart.createCart(member);
-            cartRepository.save(cart);
+        if (cartWriteBehind.isEnabled()) {
+            Item item = itemRepository.findById(cartItemDto.getItemId())
+                    .orElseThrow(EntityNotFoundException::new);
+            return cartWriteBehind.addCart(item.getId(), cartItemDto.getCount(), email);
         }
-
-        CartItem savedCartItem =
-                cartItemRepository.findByCartIdAndItemId(cart.getId(), item.getId());
-
-        if (savedCartItem != null) {
-            savedCartItem.addCount(cartItemDto.getCount());
-            return savedCartItem.getId();
+        Long cartId = cartRepository.findIdByMemberEmail(email);
+        if (cartId == null) {
+            Member member = memberRepository.findByEmail(email);
+            cartId = cartItemUpsert.createCart(member.getId(), email);
         }
 
-        CartItem cartItem = CartItem.createCartItem(cart, item, cartItemDto.getCount());
-        cartItemRepository.save(cartItem);
-        return cartItem.getId();
+        try {
+            return cartItemUpsert.addCount(cartId, cartItemDto.getItemId(), cartItemDto.getCount(), email);
+        } catch (DuplicateKeyException e) {
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            // 없는 상품은 item 외래 키에 걸립니다.
+            throw new EntityNotFoundException();
+        }
     }
 
     @Transactional(readOnly = true)
     public List<CartDetailDto> getCartList(String email) {
 
+        if (cartWriteBehind.isEnabled()) {
+            return cartWriteBehind.getCartList(email);
+        }
         List<CartDetailDto> cartDetailDtoList = new ArrayList<>();
 
         Member member = memberRepository.findByEmail(email);
@@ -66,54 +83,81 @@ public class CartService {
         return cartDetailDtoList;
     }
 
-    @Transactional(readOnly = true)
-    public boolean validaeCartItem(Long cartItemId, String email) {
-        Member curMember = memberRepository.findByEmail(email);
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(EntityNotFoundException::new);
-        Member savedMember = cartItem.getCart().getMember();
-
-        if (!StringUtils.equals(curMember.getEmail(), savedMember.getEmail())) {
-            return false;
+    public void updateCartItemCount(Long cartItemId, int count, String email) {
+        if (cartWriteBehind.isEnabled()) {
+            cartWriteBehind.updateCartItemCount(cartItemId, count, email);
+            return;
         }
-        return true;
-    }
-
-    public void updateCartItemCount(Long cartItemId, int count) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(EntityNotFoundException::new);
         cartItem.updateCount(count);
     }
 
-    public void deleteCartItem(Long cartItemId) {
+    public void deleteCartItem(Long cartItemId, String email) {
+        if (cartWriteBehind.isEnabled()) {
+            cartWriteBehind.deleteCartItem(cartItemId, email);
+            return;
+        }
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(EntityNotFoundException::new);
         cartItemRepository.delete(cartItem);
     }
 
     public Long orderCartItem(List<CartOrderDto> cartOrderDtoList, String email) {
+        List<Long> cartItemIds = getCartItemIds(cartOrderDtoList);
+        Long orderId = orderService.orders(getOrderDtoList(cartOrderDtoList, email), email, cartItemIds);
+        forgetOrderedItems(email, cartItemIds);
+        return orderId;
+    }
+
+    /**
+     * 메모리 장바구니를 쓰면 주문이 커밋된 뒤 주문한 상품을 메모리에서도 뺍니다.
+     */
+    public void forgetOrderedItems(String email, List<Long> cartItemIds) {
+        if (cartWriteBehind.isEnabled()) {
+            cartWriteBehind.forgetOrderedItems(email, cartItemIds);
+        }
+    }
+
+    /**
+     * 주문할 장바구니 상품을 장바구니 주인과 함께 한 번에 읽어서 주문 내용으로 바꿉니다.
+     * 다른 회원의 장바구니 상품이 섞여 있으면 AccessDeniedException 을 던집니다.
+     * 메모리 장바구니를 쓰면 DB 에서 읽기 전에 그 회원의 장바구니 변경을 먼저 반영합니다.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrderDtoList(List<CartOrderDto> cartOrderDtoList, String email) {
+        if (cartWriteBehind.isEnabled()) {
+            cartWriteBehind.flush(email);
+        }
+        List<Long> cartItemIds = getCartItemIds(cartOrderDtoList);
+        Map<Long, CartItem> cartItems = new HashMap<>();
+        for (CartItem cartItem : cartItemRepository.findWithMemberByIdIn(cartItemIds)) {
+            cartItems.put(cartItem.getId(), cartItem);
+        }
+
         List<OrderDto> orderDtoList = new ArrayList<>();
-        for (CartOrderDto cartOrderDto : cartOrderDtoList) {
-            CartItem cartItem = cartItemRepository
-                    .findById(cartOrderDto.getCartItemId())
-                    .orElseThrow(EntityNotFoundException::new);
+        for (Long cartItemId : cartItemIds) {
+            CartItem cartItem = cartItems.get(cartItemId);
+            if (cartItem == null) {
+                throw new EntityNotFoundException();
+            }
+            if (!StringUtils.equals(email, cartItem.getCart().getMember().getEmail())) {
+                throw new AccessDeniedException("주문 권한이 없습니다.");
+            }
             OrderDto orderDto = new OrderDto();
             orderDto.setItemId(cartItem.getItem().getId());
             orderDto.setCount(cartItem.getCount());
             orderDtoList.add(orderDto);
         }
+        return orderDtoList;
+    }
 
-        Long orderId = orderService.orders(orderDtoList, email);
-
+    // 같은 장바구니 상품이 두 번 들어와도 한 번만 주문합니다.
+    public List<Long> getCartItemIds(List<CartOrderDto> cartOrderDtoList) {
+        Set<Long> cartItemIds = new LinkedHashSet<>();
         for (CartOrderDto cartOrderDto : cartOrderDtoList) {
-            CartItem cartItem = cartItemRepository
-                    .findById(cartOrderDto.getCartItemId())
-                    .orElseThrow(EntityNotFoundException::new);
-            cartItemRepository.delete(cartItem);
+            cartItemIds.add(cartOrderDto.getCartItemId());
         }
-        return orderId;
+        return new ArrayList<>(cartItemIds);
     }
-
-
-
 }
@@ -0,0 +1,27 @@
+package com.example.shoptry.service;
+
+import java.util.function.Function;
+
+/**
+ * 회원(이메일)별 장바구니를 메모리에 들고 있는 저장소입니다. (CartWriteBehind 가 사용)
+ * 지금은 서버마다 따로 두는 LocalCartStore 뿐이지만, 캐시 서버에 두는 구현으로 바꿀 수 있도록
+ * 장바구니는 update 로 한 회원씩 꺼내서 바꾸고 다시 넣는 방식으로만 다룹니다.
+ */
+public interface CartStore {
+
+    /**
+     * 장바구니가 없을 때만 넣습니다. 이미 있으면 넣지 않습니다.
+     */
+    void putIfAbsent(String email, CachedCart cart);
+
+    /**
+     * 같은 회원의 장바구니에는 한 번에 하나의 action 만 적용합니다.
+     * 장바구니가 없으면 action 을 실행하지 않고 null 을 돌려줍니다.
+     */
+    <T> T update(String email, Function<CachedCart, T> action);
+
+    /**
+     * 저장소에 들고 있는 장바구니 수입니다.
+     */
+    int size();
+}
@@ -0,0 +1,349 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.dto.CartDetailDto;
+import com.example.shoptry.entity.Cart;
+import com.example.shoptry.entity.CartItem;
+import com.example.shoptry.entity.CatalogCard;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.repository.CartItemRepository;
+import com.example.shoptry.repository.CartItemUpsert;
+import com.example.shoptry.repository.CartRepository;
+import com.example.shoptry.repository.CatalogCardRepository;
+import com.example.shoptry.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 장바구니를 메모리(CartStore)에서 바꾸고 cart_item 에는 나중에 모아서 씁니다. (shop.cart.write-behind.enabled=true 일 때)
+ *
+ * 장바구니는 처음 쓸 때 DB 에서 읽어 CartStore 에 넣고, 이후 담기/수량 변경/삭제와 장바구니 조회는 메모리에서 처리합니다.
+ * 바뀐 장바구니는 flush-interval-ms 마다 한 트랜잭션에서 insert/update/delete 배치로 반영합니다.
+ * 장바구니 상품 아이디는 담을 때 cart_item 시퀀스에서 받아 두므로 반영 전에도 화면과 주문에서 같은 아이디를 씁니다.
+ * 장바구니 주문은 DB 의 cart_item 을 읽으므로 주문 전에 그 회원의 장바구니를 먼저 반영합니다.
+ * 반영 전에 프로세스가 죽으면 그 사이 장바구니 변경은 잃습니다.
+ */
+@Service
+@Log
+public class CartWriteBehind {
+
+    private static final String INSERT_SQL = "insert into cart_item "
+            + "(cart_item_id, cart_id, item_id, count, reg_time, update_time, created_by, modified_by) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update cart_item set count = ?, update_time = ?, modified_by = ? where cart_item_id = ?";
+    private static final String DELETE_SQL = "delete from cart_item where cart_item_id = ?";
+
+    private final CartStore cartStore;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final MemberRepository memberRepository;
+    private final CatalogCardRepository catalogCardRepository;
+    private final CartItemUpsert cartItemUpsert;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer flushTimer;
+
+    private final Set<String> dirtyCarts = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${shop.cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shop.cart.write-behind.flush-interval-ms:500}")
+    private long flushIntervalMillis;
+
+    public CartWriteBehind(CartStore cartStore, CartRepository cartRepository, CartItemRepository cartItemRepository,
+                           MemberRepository memberRepository, CatalogCardRepository catalogCardRepository,
+                           CartItemUpsert cartItemUpsert, DataSource dataSource,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.cartStore = cartStore;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.memberRepository = memberRepository;
+        this.catalogCardRepository = catalogCardRepository;
+        this.cartItemUpsert = cartItemUpsert;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // 장바구니 주문처럼 읽기 전용 트랜잭션 안에서 반영할 때도 따로 커밋합니다.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushTimer = meterRegistry.timer("shop.cart.write-behind.flush");
+        meterRegistry.gauge("shop.cart.write-behind.pending", dirtyCarts, Set::size);
+        meterRegistry.gauge("shop.cart.store.size", cartStore, CartStore::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 같은 상품이 이미 있으면 수량만 더합니다. 장바구니 아이디를 받아야 하므로 트랜잭션 안에서 호출합니다.
+     */
+    public Long addCart(Long itemId, int count, String email) {
+        Long cartId = withCart(email, CachedCart::getCartId);
+        if (cartId == null) {
+            createCart(email);
+        }
+        // 아이디는 미리 받아 두고 이미 담긴 상품이면 쓰지 않습니다. (시퀀스 블록 안의 값이라 대부분 DB 를 읽지 않습니다)
+        Long newCartItemId = cartItemUpsert.nextCartItemId();
+        Long cartItemId = withCart(email, cart -> {
+            CachedCartLine line = cart.findLineByItemId(itemId);
+            if (line != null) {
+                cart.updateCount(line.getCartItemId(), line.getCount() + count);
+                return line.getCartItemId();
+            }
+            cart.addLine(new CachedCartLine(newCartItemId, itemId, count, LocalDateTime.now(), false));
+            return newCartItemId;
+        });
+        dirtyCarts.add(email);
+        return cartItemId;
+    }
+
+    /**
+     * 상품 정보는 catalog_card 에서 아이디로 한 번에 읽습니다.
+     */
+    public List<CartDetailDto> getCartList(String email) {
+        List<CachedCartLine> lines = withCart(email, CachedCart::copyLines);
+        List<Long> itemIds = new ArrayList<>(lines.size());
+        for (CachedCartLine line : lines) {
+            itemIds.add(line.getItemId());
+        }
+        Map<Long, CatalogCard> catalogCards = new HashMap<>();
+        for (CatalogCard catalogCard : catalogCardRepository.findAllById(itemIds)) {
+            catalogCards.put(catalogCard.getItemId(), catalogCard);
+        }
+
+        List<CartDetailDto> cartDetailDtoList = new ArrayList<>(lines.size());
+        for (CachedCartLine line : lines) {
+            CatalogCard catalogCard = catalogCards.get(line.getItemId());
+            if (catalogCard != null) {
+                cartDetailDtoList.add(new CartDetailDto(line.getCartItemId(), catalogCard.getItemNm(),
+                        catalogCard.getPrice(), line.getCount(), catalogCard.getRepImgUrl()));
+            }
+        }
+        return cartDetailDtoList;
+    }
+
+    public boolean containsCartItems(Collection<Long> cartItemIds, String email) {
+        return withCart(email, cart -> cart.getLines().keySet().containsAll(cartItemIds));
+    }
+
+    public void updateCartItemCount(Long cartItemId, int count, String email) {
+        if (!withCart(email, cart -> cart.updateCount(cartItemId, count))) {
+            throw new EntityNotFoundException();
+        }
+        dirtyCarts.add(email);
+    }
+
+    public void deleteCartItem(Long cartItemId, String email) {
+        if (!withCart(email, cart -> cart.removeLine(cartItemId))) {
+            throw new EntityNotFoundException();
+        }
+        dirtyCarts.add(email);
+    }
+
+    /**
+     * 주문한 장바구니 상품은 주문 트랜잭션에서 DB 에서 지웠으므로 커밋된 뒤 메모리에서만 뺍니다.
+     */
+    public void forgetOrderedItems(String email, Collection<Long> cartItemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            forgetLines(email, cartItemIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                forgetLines(email, cartItemIds);
+            }
+        });
+    }
+
+    private void forgetLines(String email, Collection<Long> cartItemIds) {
+        cartStore.update(email, cart -> {
+            cart.forgetLines(cartItemIds);
+            return cart;
+        });
+    }
+
+    /**
+     * 한 회원의 장바구니 변경을 바로 반영합니다.
+     */
+    public void flush(String email) {
+        flush(List.of(email));
+    }
+
+    /**
+     * 모아둔 장바구니 변경을 모두 반영합니다. 실패하면 다음 반영 때 다시 시도합니다.
+     */
+    public void flush() {
+        flush(new ArrayList<>(dirtyCarts));
+    }
+
+    private void flush(List<String> emails) {
+        flushLock.lock();
+        try {
+            List<CachedCart.CartChanges> batch = new ArrayList<>();
+            for (String email : emails) {
+                if (!dirtyCarts.remove(email)) {
+                    continue;
+                }
+                CachedCart.CartChanges changes = cartStore.update(email, CachedCart::takeChanges);
+                if (changes != null) {
+                    batch.add(changes);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            boolean succeeded = false;
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch)));
+                succeeded = true;
+            } finally {
+                for (CachedCart.CartChanges changes : batch) {
+                    boolean finished = succeeded;
+                    cartStore.update(changes.getEmail(), cart -> {
+                        cart.finishFlush(changes, finished);
+                        return cart;
+                    });
+                    if (!succeeded) {
+                        dirtyCarts.add(changes.getEmail());
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<CachedCart.CartChanges> batch) {
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (CachedCart.CartChanges changes : batch) {
+            Timestamp now = Timestamp.valueOf(changes.getTakenAt());
+            for (Long cartItemId : changes.getDeleted()) {
+                deletes.add(new Object[]{cartItemId});
+            }
+            for (CachedCartLine line : changes.getInserted()) {
+                inserts.add(new Object[]{line.getCartItemId(), changes.getCartId(), line.getItemId(), line.getCount(),
+                        Timestamp.valueOf(line.getRegTime()), now, changes.getEmail(), changes.getEmail()});
+            }
+            for (CachedCartLine line : changes.getUpdated()) {
+                updates.add(new Object[]{line.getCount(), now, changes.getEmail(), line.getCartItemId()});
+            }
+        }
+        // 주문으로 이미 지운 줄은 update/delete 가 0 건이 되지만 그대로 둡니다.
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warning("장바구니 반영 실패: " + e.getMessage());
+        }
+    }
+
+    // 장바구니가 메모리에 없으면 DB 에서 읽어 넣고 다시 적용합니다.
+    private <T> T withCart(String email, Function<CachedCart, T> action) {
+        while (true) {
+            boolean[] found = new boolean[1];
+            T result = cartStore.update(email, cart -> {
+                found[0] = true;
+                return action.apply(cart);
+            });
+            if (found[0]) {
+                return result;
+            }
+            cartStore.putIfAbsent(email, loadCart(email));
+        }
+    }
+
+    private CachedCart loadCart(String email) {
+        Cart cart = cartRepository.findByMemberEmail(email);
+        if (cart == null) {
+            return new CachedCart(email, null);
+        }
+        CachedCart cachedCart = new CachedCart(email, cart.getId());
+        for (CartItem cartItem : cartItemRepository.findByCartId(cart.getId())) {
+            cachedCart.getLines().put(cartItem.getId(), new CachedCartLine(cartItem.getId(), cartItem.getItem().getId(),
+                    cartItem.getCount(), cartItem.getRegTime(), true));
+        }
+        return cachedCart;
+    }
+
+    // 장바구니 상품이 참조하므로 장바구니는 바로 따로 커밋합니다. 회원마다 한 번뿐입니다.
+    private void createCart(String email) {
+        Long cartId = transactionTemplate.execute(status -> {
+            Member member = memberRepository.findByEmail(email);
+            Cart cart = cartRepository.findByMemberId(member.getId());
+            if (cart == null) {
+                return cartItemUpsert.createCart(member.getId(), email);
+            }
+            return cart.getId();
+        });
+        withCart(email, cart -> {
+            cart.setCartId(cartId);
+            return cart;
+        });
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.dto.CatalogCheckResultDto;
+import com.example.shoptry.entity.CatalogCard;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.ItemImg;
+import com.example.shoptry.event.ItemChangedEvent;
+import com.example.shoptry.repository.CatalogCardRepository;
+import com.example.shoptry.repository.ItemImgRepository;
+import com.example.shoptry.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 상품 목록용 비정규화 테이블(catalog_card)을 관리합니다.
+ * 상품/이미지 변경 시 같은 트랜잭션에서 카드를 갱신하고, 전체 재생성과 정합성 검사를 제공합니다.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Log
+public class CatalogCardService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CatalogCardRepository catalogCardRepository;
+    private final ItemRepository itemRepository;
+    private final ItemImgRepository itemImgRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // true 이면 애플리케이션 시작 시 항상 카드를 다시 맞춥니다. false 이면 카드가 하나도 없을 때만 만듭니다.
+    @Value("${shop.catalog.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public void createCard(Item item) {
+        catalogCardRepository.save(CatalogCard.createCard(item, null));
+    }
+
+    public void updateCard(Item item) {
+        CatalogCard catalogCard = catalogCardRepository.findById(item.getId()).orElse(null);
+        if (catalogCard == null) {
+            ItemImg repImg = itemImgRepository.findByItemIdAndRepimgYn(item.getId(), "Y");
+            catalogCardRepository.save(CatalogCard.createCard(item, repImg == null ? null : repImg.getImgUrl()));
+            return;
+        }
+        catalogCard.updateItem(item);
+    }
+
+    public void updateRepImgUrl(Long itemId, String repImgUrl) {
+        catalogCardRepository.findById(itemId)
+                .ifPresent(catalogCard -> catalogCard.updateRepImgUrl(repImgUrl));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup || (catalogCardRepository.count() == 0 && itemRepository.count() > 0)) {
+            CatalogCheckResultDto result = rebuild();
+            log.info("catalog_card 재생성 완료: 상품 " + result.getCheckedItems() + "건, 생성 "
+                    + result.getMissingCards() + "건, 갱신 " + result.getStaleCards() + "건, 삭제 " + result.getOrphanCards() + "건");
+        }
+    }
+
+    /**
+     * 모든 상품을 기준으로 카드를 다시 맞춥니다. 없는 카드는 만들고, 다른 카드는 고치고, 상품이 없는 카드는 지웁니다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogCheckResultDto rebuild() {
+        return check(true);
+    }
+
+    /**
+     * 상품/대표 이미지와 카드를 BATCH_SIZE 단위로 비교합니다. 배치마다 트랜잭션을 따로 사용합니다.
+     * @param repair true 이면 차이가 있는 카드를 바로 고칩니다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogCheckResultDto check(boolean repair) {
+        CatalogCheckResultDto result = new CatalogCheckResultDto();
+        result.setRepaired(repair);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(!repair);
+
+        Long lastItemId = 0L;
+        while (lastItemId != null) {
+            Long from = lastItemId;
+            lastItemId = transactionTemplate.execute(status -> checkItems(from, repair, result));
+        }
+
+        Long lastCardId = 0L;
+        while (lastCardId != null) {
+            Long from = lastCardId;
+            lastCardId = transactionTemplate.execute(status -> checkOrphans(from, repair, result));
+        }
+
+        // 카드를 고쳤으면 목록 캐시들이 비워지도록 알립니다.
+        if (repair && !result.isConsistent()) {
+            eventPublisher.publishEvent(new ItemChangedEvent(List.of()));
+        }
+        return result;
+    }
+
+    private Long checkItems(Long fromItemId, boolean repair, CatalogCheckResultDto result) {
+        List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(fromItemId, PageRequest.of(0, BATCH_SIZE));
+        if (items.isEmpty()) {
+            return null;
+        }
+
+        List<Long> itemIds = new ArrayList<>();
+        for (Item item : items) {
+            itemIds.add(item.getId());
+        }
+        Map<Long, String> repImgUrls = new HashMap<>();
+        for (ItemImg itemImg : itemImgRepository.findByItemIdInAndRepimgYn(itemIds, "Y")) {
+            repImgUrls.put(itemImg.getItem().getId(), itemImg.getImgUrl());
+        }
+        Map<Long, CatalogCard> cards = new HashMap<>();
+        for (CatalogCard catalogCard : catalogCardRepository.findAllById(itemIds)) {
+            cards.put(catalogCard.getItemId(), catalogCard);
+        }
+
+        for (Item item : items) {
+            String repImgUrl = repImgUrls.get(item.getId());
+            CatalogCard catalogCard = cards.get(item.getId());
+            if (catalogCard == null) {
+                result.setMissingCards(result.getMissingCards() + 1);
+                result.addSample(item.getId());
+                if (repair) {
+                    catalogCardRepository.save(CatalogCard.createCard(item, repImgUrl));
+                }
+            } else if (!catalogCard.matches(item, repImgUrl)) {
+                result.setStaleCards(result.getStaleCards() + 1);
+                result.addSample(item.getId());
+                if (repair) {
+                    catalogCard.updateItem(item);
+                    catalogCard.updateRepImgUrl(repImgUrl);
+                }
+            }
+        }
+        result.setCheckedItems(result.getCheckedItems() + items.size());
+        return items.get(items.size() - 1).getId();
+    }
+
+    private Long checkOrphans(Long fromItemId, boolean repair, CatalogCheckResultDto result) {
+        List<CatalogCard> cards = catalogCardRepository.findByItemIdGreaterThanOrderByItemIdAsc(fromItemId, PageRequest.of(0, BATCH_SIZE));
+        if (cards.isEmpty()) {
+            return null;
+        }
+
+        List<Long> itemIds = new ArrayList<>();
+        for (CatalogCard catalogCard : cards) {
+            itemIds.add(catalogCard.getItemId());
+        }
+        Set<Long> existing = new HashSet<>(itemRepository.findExistingIds(itemIds));
+
+        for (CatalogCard catalogCard : cards) {
+            if (!existing.contains(catalogCard.getItemId())) {
+                result.setOrphanCards(result.getOrphanCards() + 1);
+                result.addSample(catalogCard.getItemId());
+                if (repair) {
+                    catalogCardRepository.delete(catalogCard);
+                }
+            }
+        }
+        return cards.get(cards.size() - 1).getItemId();
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.entity.CatalogCard;
+import com.example.shoptry.event.ItemChangedEvent;
+import com.example.shoptry.repository.CatalogCardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * 상품 목록 정렬용 컬럼 스냅샷입니다.
+ * catalog_card 의 값을 컬럼별 기본형 배열(long[]/int[]/byte[])로 들고, 정렬 기준마다 미리 정렬된 행 번호 배열(순열)을 유지합니다.
+ * 정렬 기준이 늘어도 DB 인덱스나 쿼리를 추가하지 않고 순열을 따라가며 보이는 페이지의 아이디만 뽑습니다.
+ * 상품이 바뀌면 해당 행만 고치고 순열에서는 그 행의 위치만 옮깁니다.
+ * 가져오기처럼 한 번에 여러 상품이 바뀌면 바뀐 행들을 정렬해서 기존 순열과 한 번에 병합합니다.
+ */
+@Component
+public class CatalogSnapshot extends RebuildableItemIndex<CatalogSnapshot.Columns> {
+
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_PRICE_ASC = "priceAsc";
+    public static final String SORT_PRICE_DESC = "priceDesc";
+    public static final String SORT_NAME = "name";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // 이보다 많은 상품이 한 번에 바뀌면 행마다 순열을 옮기지 않고 한 번에 병합합니다.
+    private static final int ROW_UPDATE_LIMIT = 8;
+
+    private final CatalogCardRepository catalogCardRepository;
+
+    private volatile Columns columns = new Columns();
+
+    public CatalogSnapshot(CatalogCardRepository catalogCardRepository, MeterRegistry meterRegistry) {
+        super("상품 정렬 스냅샷", "catalog-snapshot-rebuild");
+        this.catalogCardRepository = catalogCardRepository;
+        meterRegistry.gauge("shop.catalog.snapshot.rows", this, CatalogSnapshot::getRowCount);
+        meterRegistry.gauge("shop.catalog.snapshot.bytes", this, CatalogSnapshot::getMemoryBytes);
+    }
+
+    public static boolean isSupportedSort(String sort) {
+        return SORT_NEWEST.equals(sort) || SORT_PRICE_ASC.equals(sort) || SORT_PRICE_DESC.equals(sort) || SORT_NAME.equals(sort);
+    }
+
+    @Override
+    protected Columns build() {
+        Columns fresh = new Columns();
+        Long lastItemId = 0L;
+        while (true) {
+            List<CatalogCard> cards = catalogCardRepository.findByItemIdGreaterThanOrderByItemIdAsc(lastItemId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (cards.isEmpty()) {
+                break;
+            }
+            for (CatalogCard card : cards) {
+                fresh.set(fresh.rowOf(card.getItemId()), card);
+            }
+            lastItemId = cards.get(cards.size() - 1).getItemId();
+        }
+        fresh.sortAll();
+        return fresh;
+    }
+
+    @Override
+    protected void install(Columns fresh) {
+        columns = fresh;
+    }
+
+    @Override
+    protected void update(Collection<Long> itemIds) {
+        refresh(itemIds);
+    }
+
+    @Override
+    protected String describe() {
+        return getRowCount() + "건, " + getMemoryBytes() / 1024 + "KB";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemsChanged(event.getItemIds(), true);
+    }
+
+    /**
+     * 바뀐 상품의 행만 다시 읽어서 고칩니다. 카드가 없어진 상품은 목록에서 뺍니다.
+     * 행마다 고치면 순열마다 O(N) 이동이 생기므로, 많이 바뀌면 순열마다 한 번의 병합(O(N + k log k))으로 처리합니다.
+     */
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, CatalogCard> cards = new HashMap<>();
+        for (CatalogCard card : catalogCardRepository.findAllById(itemIds)) {
+            cards.put(card.getItemId(), card);
+        }
+        boolean merge = itemIds.size() > ROW_UPDATE_LIMIT;
+        lock.writeLock().lock();
+        try {
+            if (merge) {
+                columns.updateAll(cards.values());
+            }
+            for (Long itemId : itemIds) {
+                CatalogCard card = cards.get(itemId);
+                if (card == null) {
+                    columns.delist(itemId);
+                } else if (!merge) {
+                    columns.update(card);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 정렬 기준의 순열을 따라가며 조건에 맞는 상품 아이디를 offset 부터 limit 건 돌려줍니다.
+     * @param sellStatus 판매상태 (없으면 null)
+     * @param filter 가격대/등록기간 등 추가 조건 (없으면 null)
+     */
+    public SortedPage page(String sort, ItemSellStatus sellStatus, LongPredicate filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            int[] order = current.order(sort);
+            boolean unfiltered = sellStatus == null && filter == null;
+            byte status = sellStatus == null ? -1 : (byte) sellStatus.ordinal();
+            IntPredicate visible = row -> current.listed.get(row)
+                    && (status < 0 || current.sellStatuses[row] == status)
+                    && (filter == null || filter.test(current.itemIds[row]));
+
+            List<Long> itemIds = new ArrayList<>();
+            long total = 0;
+            for (int i = 0; i < current.size; i++) {
+                int row = order[i];
+                if (!visible.test(row)) {
+                    continue;
+                }
+                if (total >= offset && itemIds.size() < limit) {
+                    itemIds.add(current.itemIds[row]);
+                }
+                total++;
+                // 필터가 없으면 전체 건수는 listed 로 바로 알 수 있으므로 페이지를 채우면 멈춥니다.
+                if (unfiltered && itemIds.size() >= limit) {
+                    total = current.listed.cardinality();
+                    break;
+                }
+            }
+            return new SortedPage(itemIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getRowCount() {
+        return columns.size;
+    }
+
+    /**
+     * 스냅샷이 차지하는 대략적인 힙 메모리(바이트)입니다. 배열은 할당된 크기 기준입니다.
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return columns.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Getter
+    public static class SortedPage {
+        private final List<Long> itemIds;
+        private final long total;
+
+        public SortedPage(List<Long> itemIds, long total) {
+            this.itemIds = itemIds;
+            this.total = total;
+        }
+    }
+
+    static class Columns {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final Map<Long, Integer> rows = new HashMap<>();
+        private int size = 0;
+
+        // 행 번호별 컬럼
+        private long[] itemIds = new long[INITIAL_CAPACITY];
+        private int[] prices = new int[INITIAL_CAPACITY];
+        private byte[] sellStatuses = new byte[INITIAL_CAPACITY];
+        private long[] regSeconds = new long[INITIAL_CAPACITY];
+        private String[] itemNms = new String[INITIAL_CAPACITY];
+        private final BitSet listed = new BitSet();
+
+        // 정렬 기준별로 정렬된 행 번호. 같은 값이면 최근 상품(아이디가 큰 상품)이 앞에 옵니다.
+        private int[] byPrice = new int[INITIAL_CAPACITY];
+        private int[] byPriceDesc = new int[INITIAL_CAPACITY];
+        private int[] byRegTime = new int[INITIAL_CAPACITY];
+        private int[] byName = new int[INITIAL_CAPACITY];
+
+        int rowOf(Long itemId) {
+            Integer row = rows.get(itemId);
+            if (row != null) {
+                return row;
+            }
+            if (size == itemIds.length) {
+                int capacity = size * 2;
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                sellStatuses = Arrays.copyOf(sellStatuses, capacity);
+                regSeconds = Arrays.copyOf(regSeconds, capacity);
+                itemNms = Arrays.copyOf(itemNms, capacity);
+                byPrice = Arrays.copyOf(byPrice, capacity);
+                byPriceDesc = Arrays.copyOf(byPriceDesc, capacity);
+                byRegTime = Arrays.copyOf(byRegTime, capacity);
+                byName = Arrays.copyOf(byName, capacity);
+            }
+            itemIds[size] = itemId;
+            rows.put(itemId, size);
+            return size++;
+        }
+
+        void set(int row, CatalogCard card) {
+            prices[row] = card.getPrice();
+            sellStatuses[row] = card.getItemSellStatus() == null ? -1 : (byte) card.getItemSellStatus().ordinal();
+            regSeconds[row] = card.getRegTime() == null ? Long.MIN_VALUE : card.getRegTime().toEpochSecond(ZoneOffset.UTC);
+            itemNms[row] = card.getItemNm() == null ? "" : card.getItemNm();
+            listed.set(row, card.getRepImgUrl() != null);
+        }
+
+        void update(CatalogCard card) {
+            boolean added = !rows.containsKey(card.getItemId());
+            int row = rowOf(card.getItemId());
+            if (!added) {
+                remove(byPrice, row);
+                remove(byPriceDesc, row);
+                remove(byRegTime, row);
+                remove(byName, row);
+            }
+            set(row, card);
+            // 새 행이든 기존 행이든 지금 순열에는 이 행을 뺀 size - 1 개가 들어 있습니다.
+            insert(byPrice, size - 1, row, this::comparePrice);
+            insert(byPriceDesc, size - 1, row, this::comparePriceDesc);
+            insert(byRegTime, size - 1, row, this::compareRegTime);
+            insert(byName, size - 1, row, this::compareName);
+        }
+
+        /**
+         * 여러 행을 고친 뒤, 순열마다 바뀐 행을 빼면서 정렬한 바뀐 행들과 병합합니다.
+         */
+        void updateAll(Collection<CatalogCard> cards) {
+            int count = size; //지금 순열에 들어 있는 행 수, 새 행은 들어 있지 않습니다.
+            BitSet changed = new BitSet();
+            for (CatalogCard card : cards) {
+                int row = rowOf(card.getItemId());
+                set(row, card);
+                changed.set(row);
+            }
+            int[] changedRows = changed.stream().toArray();
+            byPrice = merge(byPrice, count, changed, changedRows, this::comparePrice);
+            byPriceDesc = merge(byPriceDesc, count, changed, changedRows, this::comparePriceDesc);
+            byRegTime = merge(byRegTime, count, changed, changedRows, this::compareRegTime);
+            byName = merge(byName, count, changed, changedRows, this::compareName);
+        }
+
+        void delist(Long itemId) {
+            Integer row = rows.get(itemId);
+            if (row != null) {
+                listed.clear(row);
+            }
+        }
+
+        void sortAll() {
+            byPrice = sorted(this::comparePrice);
+            byPriceDesc = sorted(this::comparePriceDesc);
+            byRegTime = sorted(this::compareRegTime);
+            byName = sorted(this::compareName);
+        }
+
+        int[] order(String sort) {
+            if (SORT_PRICE_ASC.equals(sort)) {
+                return byPrice;
+            }
+            if (SORT_PRICE_DESC.equals(sort)) {
+                return byPriceDesc;
+            }
+            if (SORT_NAME.equals(sort)) {
+                return byName;
+            }
+            return byRegTime;
+        }
+
+        long memoryBytes() {
+            long capacity = itemIds.length;
+            long bytes = capacity * (8 + 4 + 1 + 8 + 8) // itemIds, prices, sellStatuses, regSeconds, itemNms 참조
+                    + capacity * 4 * 4                   // 정렬 순열 4개
+                    + listed.size() / 8
+                    + rows.size() * 64L;                 // HashMap 엔트리와 Long/Integer 객체
+            for (int row = 0; row < size; row++) {
+                bytes += 40 + itemNms[row].length() * 2L;
+            }
+            return bytes;
+        }
+
+        private int[] sorted(RowComparator comparator) {
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, comparator::compare);
+            int[] order = new int[itemIds.length];
+            for (int i = 0; i < size; i++) {
+                order[i] = boxed[i];
+            }
+            return order;
+        }
+
+        private int[] merge(int[] order, int count, BitSet changed, int[] changedRows, RowComparator comparator) {
+            Integer[] boxed = new Integer[changedRows.length];
+            for (int i = 0; i < changedRows.length; i++) {
+                boxed[i] = changedRows[i];
+            }
+            Arrays.sort(boxed, comparator::compare);
+
+            int[] merged = new int[itemIds.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < count || j < boxed.length) {
+                if (i < count && changed.get(order[i])) {
+                    i++;
+                } else if (i >= count || (j < boxed.length && comparator.compare(boxed[j], order[i]) < 0)) {
+                    merged[k++] = boxed[j++];
+                } else {
+                    merged[k++] = order[i++];
+                }
+            }
+            return merged;
+        }
+
+        // 순열에서 행을 빼고 뒤쪽을 한 칸씩 당깁니다. (배열 길이는 size 기준)
+        private void remove(int[] order, int row) {
+            for (int i = 0; i < size; i++) {
+                if (order[i] == row) {
+                    System.arraycopy(order, i + 1, order, i, size - 1 - i);
+                    return;
+                }
+            }
+        }
+
+        // 이진 탐색으로 위치를 찾아 행을 끼워 넣습니다. count 는 현재 순열에 들어 있는 행 수입니다.
+        private void insert(int[] order, int count, int row, RowComparator comparator) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(order[mid], row) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            System.arraycopy(order, low, order, low + 1, count - low);
+            order[low] = row;
+        }
+
+        private int comparePrice(int a, int b) {
+            int compare = Integer.compare(prices[a], prices[b]);
+            return compare != 0 ? compare : Long.compare(itemIds[b], itemIds[a]);
+        }
+
+        // 가격 역순도 같은 가격이면 최근 상품이 앞에 오도록 순열을 따로 둡니다.
+        private int comparePriceDesc(int a, int b) {
+            int compare = Integer.compare(prices[b], prices[a]);
+            return compare != 0 ? compare : Long.compare(itemIds[b], itemIds[a]);
+        }
+
+        private int compareRegTime(int a, int b) {
+            int compare = Long.compare(regSeconds[b], regSeconds[a]);
+            return compare != 0 ? compare : Long.compare(itemIds[b], itemIds[a]);
+        }
+
+        private int compareName(int a, int b) {
+            int compare = itemNms[a].compareTo(itemNms[b]);
+            return compare != 0 ? compare : Long.compare(itemIds[b], itemIds[a]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+}
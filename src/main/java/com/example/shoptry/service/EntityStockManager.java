@@ -0,0 +1,98 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.exception.OutOfStockException;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문 트랜잭션 안에서 item 테이블의 재고를 바로 수정합니다. 변경 내용은 주문 트랜잭션과 함께 커밋되거나 롤백됩니다.
+ * 차감과 복구는 엔티티 값을 덮어쓰지 않고 증감 update 로 보내므로, 한 주문의 상품이 많아도 배치 한 번이고
+ * 같은 트랜잭션에서 엔티티로 읽어 둔 재고 값이 오래되어도 다른 주문의 차감을 덮어쓰지 않습니다.
+ * 영속성 컨텍스트의 Item 재고 값은 바뀌지 않으므로 화면에 보여줄 재고는 새 트랜잭션에서 읽습니다.
+ * 관리자가 입력한 재고(setStock)만 엔티티로 수정하고, 문장 앞에서 영속성 컨텍스트를 flush 합니다.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.stock.mode", havingValue = "entity", matchIfMissing = true)
+public class EntityStockManager implements StockManager {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public EntityStockManager(DataSource dataSource, EntityManager entityManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void removeStock(Item item, int count) {
+        removeStocks(Map.of(item, count));
+    }
+
+    // 조건부 update 배치 한 번으로 차감합니다. 상품 아이디 순으로 보내서 같은 상품을 담은 주문끼리 잠금 순서가 엇갈리지 않도록 합니다.
+    @Override
+    public void removeStocks(Map<Item, Integer> itemCounts) {
+        List<Object[]> args = new ArrayList<>(itemCounts.size());
+        itemCounts.entrySet().stream()
+                .sorted(Comparator.comparing(itemCount -> itemCount.getKey().getId()))
+                .forEach(itemCount -> args.add(new Object[]{itemCount.getValue(), itemCount.getKey().getId(), itemCount.getValue()}));
+        // 같은 트랜잭션에서 저장하거나 고친 상품이 아직 반영되지 않았을 수 있습니다.
+        entityManager.flush();
+        int[] updated = jdbcTemplate.batchUpdate(
+                "update item set stock_number = stock_number - ? where item_id = ? and stock_number >= ?", args);
+
+        List<Object[]> restocks = new ArrayList<>();
+        Long outOfStockItemId = null;
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                if (outOfStockItemId == null) {
+                    outOfStockItemId = (Long) args.get(i)[1];
+                }
+            } else {
+                restocks.add(new Object[]{args.get(i)[0], args.get(i)[1]});
+            }
+        }
+        if (outOfStockItemId == null) {
+            return;
+        }
+        // 묶음 주문에서는 트랜잭션이 롤백되지 않으므로 이 주문에서 뺀 재고를 직접 되돌립니다.
+        if (!restocks.isEmpty()) {
+            jdbcTemplate.batchUpdate("update item set stock_number = stock_number + ? where item_id = ?", restocks);
+        }
+        Integer stockNumber = jdbcTemplate.queryForObject("select stock_number from item where item_id = ?",
+                Integer.class, outOfStockItemId);
+        throw new OutOfStockException("상품의 재고가 부족 합니다. (현재 재고 수량: " + stockNumber + ")");
+    }
+
+    @Override
+    public void addStock(Item item, int count) {
+        entityManager.flush();
+        jdbcTemplate.update("update item set stock_number = stock_number + ? where item_id = ?", count, item.getId());
+    }
+
+    // 엔티티를 읽지 않고 상품당 update 한 문장으로 더해서 배치로 보냅니다. 호출한 트랜잭션과 같은 커넥션을 씁니다.
+    @Override
+    public void addStocks(Map<Long, Integer> itemCounts) {
+        List<Object[]> args = new ArrayList<>(itemCounts.size());
+        itemCounts.forEach((itemId, count) -> args.add(new Object[]{count, itemId}));
+        jdbcTemplate.batchUpdate("update item set stock_number = stock_number + ? where item_id = ?", args);
+    }
+
+    @Override
+    public void setStock(Item item, int stockNumber) {
+        item.setStockNumber(stockNumber);
+    }
+
+    @Override
+    public int getStock(Item item) {
+        return item.getStockNumber();
+    }
+}
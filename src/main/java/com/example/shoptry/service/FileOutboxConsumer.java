@@ -0,0 +1,68 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.event.OutboxConsumer;
+import com.example.shoptry.event.OutboxMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 외부 메시지 브로커 대신 outbox 이벤트를 파일에 한 줄씩 JSON 으로 덧붙입니다. (shop.outbox.file-sink.path 를 지정하면 사용)
+ * 디스크에 기록(force)한 뒤에 돌아오므로 전달이 끝난 이벤트는 파일에 남아 있습니다.
+ * 재전달된 이벤트는 같은 줄이 다시 기록되므로 읽는 쪽에서 id 로 걸러야 합니다.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.outbox.file-sink.path")
+public class FileOutboxConsumer implements OutboxConsumer {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxConsumer(@Value("${shop.outbox.file-sink.path}") String path, ObjectMapper objectMapper) {
+        this.path = Paths.get(path);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public void accept(List<OutboxMessage> messages) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxMessage message : messages) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("id", message.getId());
+            line.put("type", message.getEventType().name());
+            line.put("aggregateId", message.getAggregateId());
+            line.put("createdAt", message.getCreatedAt().toString());
+            line.set("payload", objectMapper.readTree(message.getPayload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
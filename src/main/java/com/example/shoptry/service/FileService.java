@@ -32,11 +32,11 @@ public class FileService {
         // 파일이 저장될 전체 경로를 생성합니다.
         String fileUploadFullUrl = uploadPath + "/" + savedFileName;
 
-        // 지정된 경로에 파일을 저장하기 위해 FileOutputStream을 생성합니다.
-        FileOutputStream fos = new FileOutputStream(fileUploadFullUrl);
-
-        // 파일 데이터를 작성합니다.
-        fos.write(fileData);
+        // 지정된 경로에 파일을 저장하기 위해 FileOutputStream을 생성하고, 다 쓰면 닫습니다.
+        try (FileOutputStream fos = new FileOutputStream(fileUploadFullUrl)) {
+            // 파일 데이터를 작성합니다.
+            fos.write(fileData);
+        }
 
         // 저장된 파일 이름을 반환합니다.
         return savedFileName;
@@ -0,0 +1,328 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.exception.ResponsePendingException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 헤더로 들어온 주문 요청의 첫 응답을 저장해두고, 같은 키로 다시 들어오면 주문을 다시 하지 않고 그 응답을 돌려줍니다.
+ *
+ * 같은 키의 요청이 동시에 들어오면 먼저 들어온 요청만 처리하고 나머지는 그 결과를 기다립니다.
+ * 메모리에는 최대 max-entries 건을 ttl-seconds 동안 보관합니다.
+ * shop.idempotency.jdbc=true 이면 idempotency_record 테이블에도 저장해서 재시작하거나 다른 서버로 재시도가 가도 같은 응답을 돌려주고,
+ * 다른 서버에서 처리 중인 키는 409 로 응답합니다.
+ * 5xx 응답이나 예외는 저장하지 않으므로 다시 시도할 수 있습니다.
+ * 다만 주문 시간 초과처럼 결과를 아직 모르는 경우(ResponsePendingException)는 키를 풀지 않고, 결과가 나오면 그 응답을 저장합니다.
+ */
+@Component
+@Log
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Counter hitCounter;
+    private final Counter waitCounter;
+    private final Counter missCounter;
+
+    // 만든 순서대로 들어 있으므로 앞에서부터 만료/초과분을 지웁니다.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${shop.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${shop.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${shop.idempotency.wait-ms:15000}")
+    private long waitMillis;
+
+    @Value("${shop.idempotency.jdbc:false}")
+    private boolean jdbc;
+
+    public IdempotencyStore(DataSource dataSource, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.hitCounter = meterRegistry.counter("shop.idempotency.requests", "result", "hit");
+        this.waitCounter = meterRegistry.counter("shop.idempotency.requests", "result", "wait");
+        this.missCounter = meterRegistry.counter("shop.idempotency.requests", "result", "miss");
+        meterRegistry.gauge("shop.idempotency.size", this, IdempotencyStore::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (jdbc) {
+            cleaner.scheduleWithFixedDelay(this::deleteExpiredRecords, 10, 10, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        cleaner.shutdownNow();
+    }
+
+    /**
+     * @param key         Idempotency-Key 헤더, 없으면 그냥 action 을 실행합니다.
+     * @param scope       키가 겹치지 않도록 붙이는 값 (요청 경로와 회원)
+     * @param fingerprint 요청 내용, 같은 키로 다른 내용을 보내면 422 로 응답합니다.
+     */
+    public ResponseEntity<?> execute(String key, String scope, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (StringUtils.isEmpty(key)) {
+            try {
+                return action.get();
+            } catch (ResponsePendingException e) {
+                return e.getResponse();
+            }
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return new ResponseEntity<String>("Idempotency-Key 가 너무 깁니다.", HttpStatus.BAD_REQUEST);
+        }
+
+        String storeKey = scope + ":" + key;
+        Entry entry;
+        boolean first = false;
+        synchronized (entries) {
+            removeExpired();
+            entry = entries.get(storeKey);
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(storeKey, entry);
+                first = true;
+                removeOverflow();
+            }
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return new ResponseEntity<String>("같은 Idempotency-Key 로 다른 요청을 보낼 수 없습니다.", HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (!first) {
+            return awaitResult(entry);
+        }
+
+        missCounter.increment();
+        if (jdbc) {
+            ResponseEntity<?> stored = claim(storeKey, fingerprint);
+            if (stored != null) {
+                // 재시작 전이나 다른 서버에서 처리한 요청입니다.
+                int statusCode = stored.getStatusCode().value();
+                finish(storeKey, entry, stored, statusCode == HttpStatus.CONFLICT.value()
+                        || statusCode == HttpStatus.UNPROCESSABLE_ENTITY.value());
+                return stored;
+            }
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (ResponsePendingException e) {
+            // 다시 시도하면 중복 처리될 수 있으므로 결과가 나올 때까지 키를 처리 중으로 둡니다.
+            Entry pending = entry;
+            e.getOutcome().whenComplete((outcome, error) -> {
+                if (error != null) {
+                    fail(storeKey, pending, error);
+                } else {
+                    complete(storeKey, pending, outcome);
+                }
+            });
+            return e.getResponse();
+        } catch (RuntimeException e) {
+            fail(storeKey, entry, e);
+            throw e;
+        }
+        complete(storeKey, entry, response);
+        return response;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private ResponseEntity<?> awaitResult(Entry entry) {
+        if (entry.result.isDone()) {
+            hitCounter.increment();
+        } else {
+            waitCounter.increment();
+        }
+        try {
+            return entry.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            return new ResponseEntity<String>("같은 요청을 처리하고 있습니다.", HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<String>("같은 요청을 처리하고 있습니다.", HttpStatus.CONFLICT);
+        }
+    }
+
+    private void complete(String storeKey, Entry entry, ResponseEntity<?> response) {
+        boolean cacheable = !response.getStatusCode().is5xxServerError();
+        try {
+            if (jdbc) {
+                saveRecord(storeKey, response, cacheable);
+            }
+        } finally {
+            finish(storeKey, entry, response, !cacheable);
+        }
+    }
+
+    private void fail(String storeKey, Entry entry, Throwable error) {
+        try {
+            if (jdbc) {
+                saveRecord(storeKey, null, false);
+            }
+        } finally {
+            forget(storeKey, entry);
+            entry.result.completeExceptionally(error);
+        }
+    }
+
+    private void finish(String storeKey, Entry entry, ResponseEntity<?> response, boolean forget) {
+        if (forget) {
+            forget(storeKey, entry);
+        }
+        entry.result.complete(response);
+    }
+
+    private void forget(String storeKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(storeKey, entry);
+        }
+    }
+
+    private void removeExpired() {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttlSeconds);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().createdAt < expiredBefore) {
+            iterator.remove();
+        }
+    }
+
+    private void removeOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 키를 먼저 테이블에 넣어 다른 서버가 같은 키를 처리하지 못하게 합니다.
+     * 이미 있으면 저장된 응답을, 아직 처리 중이면 409 응답을 돌려주고, 처음이면 null 을 돌려줍니다.
+     */
+    private ResponseEntity<?> claim(String storeKey, String fingerprint) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp expiredBefore = new Timestamp(now.getTime() - TimeUnit.SECONDS.toMillis(ttlSeconds));
+        jdbcTemplate.update("delete from idempotency_record where idempotency_key = ? and created_at < ?",
+                storeKey, expiredBefore);
+        try {
+            jdbcTemplate.update("insert into idempotency_record (idempotency_key, fingerprint, created_at) values (?, ?, ?)",
+                    storeKey, fingerprint, now);
+            return null;
+        } catch (DuplicateKeyException e) {
+            List<ResponseEntity<?>> stored = jdbcTemplate.query(
+                    "select fingerprint, status_code, content_type, body from idempotency_record where idempotency_key = ?",
+                    (rs, rowNum) -> {
+                        if (!fingerprint.equals(rs.getString("fingerprint"))) {
+                            return new ResponseEntity<String>("같은 Idempotency-Key 로 다른 요청을 보낼 수 없습니다.",
+                                    HttpStatus.UNPROCESSABLE_ENTITY);
+                        }
+                        int statusCode = rs.getInt("status_code");
+                        if (rs.wasNull()) {
+                            return new ResponseEntity<String>("같은 요청을 처리하고 있습니다.", HttpStatus.CONFLICT);
+                        }
+                        return ResponseEntity.status(statusCode)
+                                .contentType(MediaType.parseMediaType(rs.getString("content_type")))
+                                .body(rs.getString("body"));
+                    }, storeKey);
+            return stored.isEmpty() ? new ResponseEntity<String>("같은 요청을 처리하고 있습니다.", HttpStatus.CONFLICT)
+                    : stored.get(0);
+        }
+    }
+
+    private void saveRecord(String storeKey, ResponseEntity<?> response, boolean cacheable) {
+        if (!cacheable) {
+            jdbcTemplate.update("delete from idempotency_record where idempotency_key = ?", storeKey);
+            return;
+        }
+        Object body = response.getBody();
+        String contentType = MediaType.APPLICATION_JSON_VALUE;
+        String storedBody;
+        try {
+            if (body instanceof String) {
+                contentType = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+                storedBody = (String) body;
+            } else {
+                storedBody = objectMapper.writeValueAsString(body);
+            }
+        } catch (JsonProcessingException e) {
+            log.warning("Idempotency 응답을 저장하지 못했습니다: " + e.getMessage());
+            jdbcTemplate.update("delete from idempotency_record where idempotency_key = ?", storeKey);
+            return;
+        }
+        jdbcTemplate.update("update idempotency_record set status_code = ?, content_type = ?, body = ? where idempotency_key = ?",
+                response.getStatusCode().value(), contentType, storedBody, storeKey);
+    }
+
+    private void deleteExpiredRecords() {
+        try {
+            jdbcTemplate.update("delete from idempotency_record where created_at < ?",
+                    new Timestamp(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttlSeconds)));
+        } catch (RuntimeException e) {
+            log.warning("만료된 Idempotency 기록 삭제 실패: " + e.getMessage());
+        }
+    }
+
+    private static class Entry {
+
+        private final String fingerprint;
+
+        private final long createdAt = System.currentTimeMillis();
+
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
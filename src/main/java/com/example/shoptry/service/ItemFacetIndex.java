@@ -0,0 +1,382 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.ItemFacetDto;
+import com.example.shoptry.dto.ItemSearchDto;
+import com.example.shoptry.entity.CatalogCard;
+import com.example.shoptry.event.ItemChangedEvent;
+import com.example.shoptry.repository.CatalogCardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+
+/**
+ * 상품 목록의 판매상태/가격대/등록기간 필터를 위한 메모리 비트맵 색인입니다.
+ * 상품마다 0부터 촘촘한 번호(ordinal)를 붙이고, 필터 값마다 해당 상품 번호를 BitSet 으로 들고 있습니다.
+ * 여러 필터는 BitSet 교집합으로 계산하고, 필터 값별 상품 수도 함께 돌려줍니다.
+ * 목록에 나오는 상품(대표 이미지가 있는 카드)만 색인하며 catalog_card 를 기준으로 만듭니다.
+ */
+@Component
+public class ItemFacetIndex extends RebuildableItemIndex<ItemFacetIndex.Bitmaps> {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    static final String[] DATE_TYPES = {"1d", "1w", "1m", "6m"};
+    private static final String[] DATE_LABELS = {"1일", "1주", "1개월", "6개월"};
+
+    private final CatalogCardRepository catalogCardRepository;
+    private final int[] priceBounds;
+    private final Timer queryTimer;
+
+    private volatile Bitmaps bitmaps;
+
+    public ItemFacetIndex(CatalogCardRepository catalogCardRepository, MeterRegistry meterRegistry,
+                          @Value("${shop.facet.price-bounds:10000,30000,50000,100000}") int[] priceBounds) {
+        super("상품 필터 색인", "item-facet-index-rebuild");
+        this.catalogCardRepository = catalogCardRepository;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.bitmaps = new Bitmaps(this.priceBounds);
+        this.queryTimer = meterRegistry.timer("shop.item.facet.query");
+        meterRegistry.gauge("shop.item.facet.documents", this, ItemFacetIndex::getDocumentCount);
+    }
+
+    @Override
+    protected Bitmaps build() {
+        Bitmaps fresh = new Bitmaps(priceBounds);
+        Long lastItemId = 0L;
+        while (true) {
+            List<CatalogCard> cards = catalogCardRepository.findByItemIdGreaterThanOrderByItemIdAsc(lastItemId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (cards.isEmpty()) {
+                break;
+            }
+            for (CatalogCard card : cards) {
+                fresh.put(card);
+            }
+            lastItemId = cards.get(cards.size() - 1).getItemId();
+        }
+        return fresh;
+    }
+
+    @Override
+    protected void install(Bitmaps fresh) {
+        bitmaps = fresh;
+    }
+
+    @Override
+    protected void update(Collection<Long> itemIds) {
+        reindex(itemIds);
+    }
+
+    @Override
+    protected String describe() {
+        return getDocumentCount() + "건";
+    }
+
+    // 어떤 상품이 바뀌었는지 모르는 경우(카드 일괄 복구 등)에는 전부 다시 만듭니다.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemsChanged(event.getItemIds(), true);
+    }
+
+    public void reindex(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        List<CatalogCard> cards = catalogCardRepository.findAllById(itemIds);
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                bitmaps.remove(itemId);
+            }
+            for (CatalogCard card : cards) {
+                bitmaps.put(card);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 검색 조건의 판매상태/가격대/등록기간 필터에 맞는 상품을 최근 등록 순으로 offset 부터 limit 건 돌려주고,
+     * 필터 값별 상품 수를 함께 계산합니다.
+     */
+    public FacetResult query(ItemSearchDto itemSearchDto, int offset, int limit) {
+        return queryTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                return doQuery(itemSearchDto, offset, limit, LocalDateTime.now());
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 검색 색인 결과를 걸러낼 때 사용할 필터입니다. 필터 조건이 없으면 null 을 반환합니다.
+     */
+    public LongPredicate matcher(ItemSearchDto itemSearchDto) {
+        if (!itemSearchDto.hasFacetFilter()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Bitmaps current = bitmaps;
+            BitSet matched = current.filter(itemSearchDto, LocalDateTime.now(), null);
+            return itemId -> {
+                lock.readLock().lock();
+                try {
+                    Integer ordinal = current.ordinals.get(itemId);
+                    return ordinal != null && matched.get(ordinal);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetResult doQuery(ItemSearchDto itemSearchDto, int offset, int limit, LocalDateTime now) {
+        Bitmaps current = bitmaps;
+        ItemFacetDto facets = new ItemFacetDto();
+
+        BitSet matched = current.filter(itemSearchDto, now, null);
+        facets.setTotal(matched.cardinality());
+
+        // 필터 값별 상품 수는 해당 필터만 그 값으로 바꾸고 나머지 필터는 그대로 적용해서 셉니다.
+        for (ItemSellStatus sellStatus : ItemSellStatus.values()) {
+            BitSet bits = current.filter(itemSearchDto, now, "sellStatus");
+            bits.and(current.sellStatuses.get(sellStatus));
+            facets.getSellStatuses().add(new ItemFacetDto.Bucket(sellStatus.name(), sellStatusLabel(sellStatus), bits.cardinality()));
+        }
+        for (int band = 0; band < current.priceBands.length; band++) {
+            BitSet bits = current.filter(itemSearchDto, now, "priceBand");
+            bits.and(current.priceBands[band]);
+            facets.getPriceBands().add(new ItemFacetDto.Bucket(String.valueOf(band), priceBandLabel(band), bits.cardinality()));
+        }
+        for (int i = 0; i < DATE_TYPES.length; i++) {
+            BitSet bits = current.filter(itemSearchDto, now, "regDate");
+            bits.and(current.regDateBits(DATE_TYPES[i], now));
+            facets.getRegDates().add(new ItemFacetDto.Bucket(DATE_TYPES[i], DATE_LABELS[i], bits.cardinality()));
+        }
+
+        // 번호가 클수록 나중에 색인된(최근 등록된) 상품입니다.
+        List<Long> itemIds = new ArrayList<>();
+        int skipped = 0;
+        for (int ordinal = matched.length() - 1; ordinal >= 0 && itemIds.size() < limit; ordinal = matched.previousSetBit(ordinal - 1)) {
+            if (skipped++ >= offset) {
+                itemIds.add(current.itemIds[ordinal]);
+            }
+        }
+        return new FacetResult(itemIds, facets);
+    }
+
+    public int getDocumentCount() {
+        return bitmaps.listed.cardinality();
+    }
+
+    /**
+     * 가격대의 하한(포함)입니다. 첫 가격대이거나 없는 가격대이면 null 입니다.
+     */
+    public Integer priceBandMin(Integer band) {
+        if (band == null || band <= 0 || band > priceBounds.length) {
+            return null;
+        }
+        return priceBounds[band - 1];
+    }
+
+    /**
+     * 가격대의 상한(미포함)입니다. 마지막 가격대이거나 없는 가격대이면 null 입니다.
+     */
+    public Integer priceBandMax(Integer band) {
+        if (band == null || band < 0 || band >= priceBounds.length) {
+            return null;
+        }
+        return priceBounds[band];
+    }
+
+    private String priceBandLabel(int band) {
+        DecimalFormat format = new DecimalFormat("#,###");
+        if (band == 0) {
+            return format.format(priceBounds[0]) + "원 미만";
+        }
+        if (band == priceBounds.length) {
+            return format.format(priceBounds[band - 1]) + "원 이상";
+        }
+        return format.format(priceBounds[band - 1]) + "~" + format.format(priceBounds[band]) + "원";
+    }
+
+    private static String sellStatusLabel(ItemSellStatus sellStatus) {
+        return sellStatus == ItemSellStatus.SELL ? "판매" : "품절";
+    }
+
+    @Getter
+    public static class FacetResult {
+        private final List<Long> itemIds;
+        private final ItemFacetDto facets;
+
+        public FacetResult(List<Long> itemIds, ItemFacetDto facets) {
+            this.itemIds = itemIds;
+            this.facets = facets;
+        }
+    }
+
+    static class Bitmaps {
+        private final int[] priceBounds;
+
+        // 상품 아이디 <-> 번호. 삭제된 상품의 번호는 재사용하지 않고 비트만 지웁니다.
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private long[] itemIds = new long[1024];
+        private long[] regSeconds = new long[1024];
+        private int size = 0;
+
+        private final BitSet listed = new BitSet();
+        private final Map<ItemSellStatus, BitSet> sellStatuses = new EnumMap<>(ItemSellStatus.class);
+        private final BitSet[] priceBands;
+        // 등록일(epoch day) -> 그날 등록된 상품
+        private final TreeMap<Long, BitSet> regDays = new TreeMap<>();
+
+        Bitmaps(int[] priceBounds) {
+            this.priceBounds = priceBounds;
+            for (ItemSellStatus sellStatus : ItemSellStatus.values()) {
+                sellStatuses.put(sellStatus, new BitSet());
+            }
+            priceBands = new BitSet[priceBounds.length + 1];
+            for (int i = 0; i < priceBands.length; i++) {
+                priceBands[i] = new BitSet();
+            }
+        }
+
+        void put(CatalogCard card) {
+            int ordinal = ordinals.computeIfAbsent(card.getItemId(), this::append);
+            clear(ordinal);
+            if (card.getRepImgUrl() == null) {
+                return;
+            }
+            listed.set(ordinal);
+            if (card.getItemSellStatus() != null) {
+                sellStatuses.get(card.getItemSellStatus()).set(ordinal);
+            }
+            priceBands[priceBand(card.getPrice())].set(ordinal);
+            if (card.getRegTime() != null) {
+                regSeconds[ordinal] = card.getRegTime().toEpochSecond(ZoneOffset.UTC);
+                regDays.computeIfAbsent(card.getRegTime().toLocalDate().toEpochDay(), day -> new BitSet()).set(ordinal);
+            }
+        }
+
+        void remove(Long itemId) {
+            Integer ordinal = ordinals.get(itemId);
+            if (ordinal != null) {
+                clear(ordinal);
+            }
+        }
+
+        private int append(Long itemId) {
+            if (size == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, size * 2);
+                regSeconds = Arrays.copyOf(regSeconds, size * 2);
+            }
+            itemIds[size] = itemId;
+            regSeconds[size] = Long.MIN_VALUE;
+            return size++;
+        }
+
+        private void clear(int ordinal) {
+            if (!listed.get(ordinal)) {
+                return;
+            }
+            listed.clear(ordinal);
+            for (BitSet bits : sellStatuses.values()) {
+                bits.clear(ordinal);
+            }
+            for (BitSet bits : priceBands) {
+                bits.clear(ordinal);
+            }
+            if (regSeconds[ordinal] != Long.MIN_VALUE) {
+                long day = Math.floorDiv(regSeconds[ordinal], 86400L);
+                BitSet bits = regDays.get(day);
+                if (bits != null) {
+                    bits.clear(ordinal);
+                    if (bits.isEmpty()) {
+                        regDays.remove(day);
+                    }
+                }
+                regSeconds[ordinal] = Long.MIN_VALUE;
+            }
+        }
+
+        private int priceBand(int price) {
+            int band = 0;
+            while (band < priceBounds.length && price >= priceBounds[band]) {
+                band++;
+            }
+            return band;
+        }
+
+        /**
+         * 목록 상품 중 조건에 맞는 상품의 복사본을 돌려줍니다. except 로 지정한 필터는 적용하지 않습니다.
+         */
+        BitSet filter(ItemSearchDto itemSearchDto, LocalDateTime now, String except) {
+            BitSet bits = (BitSet) listed.clone();
+            if (!"sellStatus".equals(except) && itemSearchDto.getSearchSellStatus() != null) {
+                bits.and(sellStatuses.get(itemSearchDto.getSearchSellStatus()));
+            }
+            Integer band = itemSearchDto.getSearchPriceBand();
+            if (!"priceBand".equals(except) && band != null && band >= 0 && band < priceBands.length) {
+                bits.and(priceBands[band]);
+            }
+            if (!"regDate".equals(except) && Arrays.asList(DATE_TYPES).contains(itemSearchDto.getSearchDateType())) {
+                bits.and(regDateBits(itemSearchDto.getSearchDateType(), now));
+            }
+            return bits;
+        }
+
+        /**
+         * 기준 시각 이후에 등록된 상품입니다. 기준 시각이 속한 날은 상품별 등록 시각으로 한 번 더 비교합니다.
+         */
+        BitSet regDateBits(String dateType, LocalDateTime now) {
+            LocalDateTime cutoff = switch (dateType) {
+                case "1d" -> now.minusDays(1);
+                case "1w" -> now.minusWeeks(1);
+                case "1m" -> now.minusMonths(1);
+                default -> now.minusMonths(6);
+            };
+            long cutoffSecond = cutoff.toEpochSecond(ZoneOffset.UTC);
+            long cutoffDay = cutoff.toLocalDate().toEpochDay();
+
+            BitSet bits = new BitSet();
+            for (BitSet day : regDays.tailMap(cutoffDay, false).values()) {
+                bits.or(day);
+            }
+            BitSet boundary = regDays.get(cutoffDay);
+            if (boundary != null) {
+                for (int ordinal = boundary.nextSetBit(0); ordinal >= 0; ordinal = boundary.nextSetBit(ordinal + 1)) {
+                    if (regSeconds[ordinal] > cutoffSecond) {
+                        bits.set(ordinal);
+                    }
+                }
+            }
+            return bits;
+        }
+    }
+}
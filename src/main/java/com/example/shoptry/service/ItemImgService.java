@@ -22,6 +22,7 @@ public class ItemImgService {
     // 의존성 주입을 통해 ItemImgRepository와 FileService 객체를 사용합니다.
     private final ItemImgRepository itemImgRepository;
     private final FileService fileService;
+    private final CatalogCardService catalogCardService;
 
     /**
      * 상품 이미지를 저장하는 메서드입니다.
@@ -50,6 +51,11 @@ public class ItemImgService {
 
         // DB에 상품 이미지 정보를 저장합니다.
         itemImgRepository.save(itemImg);
+
+        // 대표 이미지이면 상품 목록용 카드의 이미지 경로도 함께 바꿉니다.
+        if ("Y".equals(itemImg.getRepimgYn())) {
+            catalogCardService.updateRepImgUrl(itemImg.getItem().getId(), imgUrl);
+        }
     }
 
     public void updateItemImg(Long itemImgId, MultipartFile itemImgFile) throws Exception{
@@ -62,6 +68,9 @@ public class ItemImgService {
             String imgName = fileService.uploadFile(itemImgLocation, oriImgName, itemImgFile.getBytes());
             String imgUrl = "/images/item/" + imgName;
             savedItemImg.updateItemImg(oriImgName, imgName, imgUrl);
+            if ("Y".equals(savedItemImg.getRepimgYn())) {
+                catalogCardService.updateRepImgUrl(savedItemImg.getItem().getId(), imgUrl);
+            }
         }
     }
 
@@ -0,0 +1,42 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.dto.ItemImportResultDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 명령행에서 상품 파일을 가져올 때 사용합니다.
+ * 예) java -jar shop.jar --shop.import.file=/data/items.csv --shop.import.image-dir=/data/images
+ *        --shop.import.resume=true --spring.main.web-application-type=none
+ */
+@Component
+@ConditionalOnProperty(name = "shop.import.file")
+@RequiredArgsConstructor
+public class ItemImportRunner implements CommandLineRunner {
+
+    private final ItemImportService itemImportService;
+
+    @Value("${shop.import.file}")
+    private String file;
+
+    @Value("${shop.import.image-dir:}")
+    private String imageDir;
+
+    @Value("${shop.import.resume:true}")
+    private boolean resume;
+
+    @Override
+    public void run(String... args) {
+        Path path = Path.of(file);
+        Path images = imageDir.isEmpty() ? path.getParent() : Path.of(imageDir);
+        ItemImportResultDto result = itemImportService.importItems(path, images, resume);
+        if ("FAILED".equals(result.getStatus())) {
+            throw new IllegalStateException("상품 가져오기 실패: " + result.getFailureMessage());
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.ItemImportResultDto;
+import com.example.shoptry.entity.CatalogCard;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.ItemImportCheckpoint;
+import com.example.shoptry.entity.ItemImg;
+import com.example.shoptry.event.ItemChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CSV 또는 JSONL 상품 파일을 읽어 상품/이미지/목록 카드를 한꺼번에 등록합니다.
+ * 레코드를 chunkSize 건씩 검증한 뒤 chunk 마다 트랜잭션 하나로 insert 하며, Hibernate JDBC 배치를 사용합니다.
+ * (MySQL 은 JDBC URL 에 rewriteBatchedStatements=true 를 주어야 배치가 multi-row insert 로 전송됩니다.)
+ * chunk 를 insert 하는 트랜잭션에서 처리한 레코드 수를 item_import_checkpoint 에 같이 남기므로,
+ * 중간에 실패해도 resume 으로 다시 실행하면 커밋된 레코드는 건너뜁니다.
+ *
+ * 파일 형식 (CSV 는 첫 줄이 헤더):
+ * itemNm, price, stockNumber, itemSellStatus, itemDetail, images
+ * images 는 이미지 디렉터리 기준 파일명이며 '|' 로 여러 개를 적을 수 있고 첫 번째가 대표 이미지입니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class ItemImportService {
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final FileService fileService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${itemImgLocation}")
+    private String itemImgLocation;
+
+    @Value("${shop.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ItemImportResultDto lastResult;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 진행 중이거나 마지막으로 실행한 가져오기의 결과입니다.
+     */
+    public ItemImportResultDto getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * 가져오기를 별도 스레드에서 시작합니다. 이미 실행 중이면 시작하지 않고 false 를 돌려줍니다.
+     */
+    public boolean startImportItems(Path file, Path imageDir, boolean resume) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        ItemImportResultDto result = newResult(file);
+        try {
+            // 등록자(createdBy)가 요청한 관리자로 남도록 인증 정보를 함께 넘깁니다.
+            executor.execute(new DelegatingSecurityContextRunnable(() -> importItems(file, imageDir, resume, result)));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 파일의 상품을 모두 등록합니다. 한 번에 하나의 가져오기만 실행할 수 있습니다.
+     * @param resume true 이면 체크포인트에 기록된 레코드까지 건너뜁니다.
+     */
+    public ItemImportResultDto importItems(Path file, Path imageDir, boolean resume) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("이미 상품 가져오기가 실행 중입니다.");
+        }
+        return importItems(file, imageDir, resume, newResult(file));
+    }
+
+    private ItemImportResultDto newResult(Path file) {
+        ItemImportResultDto result = new ItemImportResultDto();
+        result.setFile(file.toString());
+        result.setStatus("RUNNING");
+        lastResult = result;
+        return result;
+    }
+
+    private ItemImportResultDto importItems(Path file, Path imageDir, boolean resume, ItemImportResultDto result) {
+        String checkpoint = file.toAbsolutePath().normalize().toString();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        try (RecordReader reader = openReader(file)) {
+            long skipUntil = resume ? readCheckpoint(checkpoint) : 0;
+            result.setResumedFrom(skipUntil);
+
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            long record = 0;
+            long checkpointed = skipUntil;
+            Map<String, String> values;
+            while ((values = reader.next()) != null) {
+                record++;
+                if (record <= skipUntil) {
+                    continue;
+                }
+                result.setRecordsRead(result.getRecordsRead() + 1);
+                ImportRow row = parse(record, values, imageDir, result);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, checkpoint, record, result, start);
+                    chunk.clear();
+                    checkpointed = record;
+                } else if (chunk.isEmpty() && record - checkpointed >= chunkSize) {
+                    // 검증에서 모두 걸러진 구간도 chunk 크기마다 체크포인트를 남겨야 재실행 시 다시 읽지 않습니다.
+                    long upTo = record;
+                    transactionTemplate.executeWithoutResult(status -> writeCheckpoint(checkpoint, upTo));
+                    checkpointed = record;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, checkpoint, record, result, start);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> deleteCheckpoint(checkpoint));
+            result.setStatus("DONE");
+        } catch (Exception e) {
+            result.setStatus("FAILED");
+            result.setFailureMessage(e.getMessage());
+            log.warning("상품 가져오기 실패: " + e.getMessage());
+        } finally {
+            updateThroughput(result, start);
+            running.set(false);
+        }
+        log.info("상품 가져오기 " + result.getStatus() + ": 등록 " + result.getImported() + "건, 건너뜀 "
+                + result.getSkipped() + "건, " + result.getElapsedMillis() + "ms (" + (long) result.getItemsPerSecond() + "건/초)");
+        return result;
+    }
+
+    private void writeChunk(List<ImportRow> rows, String checkpoint, long record, ItemImportResultDto result, long start) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> copiedImages = new ArrayList<>();
+        List<Long> itemIds;
+        try {
+            itemIds = transactionTemplate.execute(status -> insertChunk(rows, copiedImages, checkpoint, record));
+        } catch (RuntimeException e) {
+            // 롤백된 chunk 의 이미지는 참조하는 행이 없으므로 지웁니다.
+            deleteImages(copiedImages);
+            throw e;
+        }
+
+        result.setImported(result.getImported() + itemIds.size());
+        result.setChunks(result.getChunks() + 1);
+        updateThroughput(result, start);
+        log.info("상품 가져오기 진행: " + result.getImported() + "건 (" + (long) result.getItemsPerSecond() + "건/초)");
+
+        // 커밋된 상품만 검색 색인/목록 캐시 등에 반영되도록 알립니다.
+        eventPublisher.publishEvent(new ItemChangedEvent(itemIds));
+    }
+
+    private List<Long> insertChunk(List<ImportRow> rows, List<String> copiedImages, String checkpoint, long record) {
+        // 같은 종류의 insert 를 모아서 flush 해야 JDBC 배치 하나로 묶입니다. (상품 -> 이미지 -> 카드 순서)
+        entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+
+        List<Item> items = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            Item item = new Item();
+            item.setItemNm(row.itemNm);
+            item.setPrice(row.price);
+            item.setStockNumber(row.stockNumber);
+            item.setItemSellStatus(row.itemSellStatus);
+            item.setItemDetail(row.itemDetail);
+            entityManager.persist(item);
+            items.add(item);
+        }
+        entityManager.flush();
+
+        List<String> repImgUrls = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String repImgUrl = null;
+            List<Path> images = rows.get(i).images;
+            for (int j = 0; j < images.size(); j++) {
+                ItemImg itemImg = new ItemImg();
+                itemImg.setItem(items.get(i));
+                itemImg.setRepimgYn(j == 0 ? "Y" : "N");
+                String oriImgName = images.get(j).getFileName().toString();
+                String imgName = copyImage(images.get(j), oriImgName);
+                copiedImages.add(itemImgLocation + "/" + imgName);
+                String imgUrl = "/images/item/" + imgName;
+                itemImg.updateItemImg(oriImgName, imgName, imgUrl);
+                entityManager.persist(itemImg);
+                if (j == 0) {
+                    repImgUrl = imgUrl;
+                }
+            }
+            repImgUrls.add(repImgUrl);
+        }
+        entityManager.flush();
+
+        List<Long> itemIds = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            entityManager.persist(CatalogCard.createCard(items.get(i), repImgUrls.get(i)));
+            itemIds.add(items.get(i).getId());
+        }
+        // 상품과 함께 커밋되어야 중간에 멈춘 뒤 이어서 가져올 때 같은 레코드를 다시 등록하지 않습니다.
+        writeCheckpoint(checkpoint, record);
+        entityManager.flush();
+        entityManager.clear();
+        return itemIds;
+    }
+
+    private String copyImage(Path image, String oriImgName) {
+        try {
+            return fileService.uploadFile(itemImgLocation, oriImgName, Files.readAllBytes(image));
+        } catch (Exception e) {
+            throw new IllegalStateException("이미지 복사 실패: " + image, e);
+        }
+    }
+
+    private void deleteImages(List<String> imagePaths) {
+        for (String imagePath : imagePaths) {
+            try {
+                fileService.deleteFile(imagePath);
+            } catch (Exception e) {
+                log.warning("이미지 삭제 실패: " + imagePath);
+            }
+        }
+    }
+
+    /**
+     * 레코드 하나를 검증합니다. 잘못된 레코드는 결과에 사유를 남기고 null 을 반환합니다.
+     */
+    private ImportRow parse(long record, Map<String, String> values, Path imageDir, ItemImportResultDto result) {
+        ImportRow row = new ImportRow();
+        row.itemNm = trim(values.get("itemNm"));
+        row.itemDetail = trim(values.get("itemDetail"));
+        if (row.itemNm == null || row.itemNm.length() > 50) {
+            result.addError(record, "상품명은 1~50자여야 합니다.");
+            return null;
+        }
+        if (row.itemDetail == null) {
+            result.addError(record, "상품 상세 설명이 없습니다.");
+            return null;
+        }
+        try {
+            row.price = Integer.parseInt(values.getOrDefault("price", "").trim());
+            row.stockNumber = Integer.parseInt(values.getOrDefault("stockNumber", "").trim());
+        } catch (NumberFormatException e) {
+            result.addError(record, "가격과 재고는 숫자여야 합니다.");
+            return null;
+        }
+        if (row.price < 0 || row.stockNumber < 0) {
+            result.addError(record, "가격과 재고는 0 이상이어야 합니다.");
+            return null;
+        }
+        String sellStatus = trim(values.get("itemSellStatus"));
+        try {
+            row.itemSellStatus = sellStatus == null ? ItemSellStatus.SELL : ItemSellStatus.valueOf(sellStatus);
+        } catch (IllegalArgumentException e) {
+            result.addError(record, "판매상태가 올바르지 않습니다: " + sellStatus);
+            return null;
+        }
+
+        String images = trim(values.get("images"));
+        if (images != null) {
+            for (String name : images.split("\\|")) {
+                if (name.isBlank()) {
+                    continue;
+                }
+                Path image = imageDir == null ? Path.of(name.trim()) : imageDir.resolve(name.trim());
+                if (!Files.isRegularFile(image) || !name.contains(".")) {
+                    result.addError(record, "이미지 파일을 찾을 수 없습니다: " + name.trim());
+                    return null;
+                }
+                row.images.add(image);
+            }
+        }
+        if (row.images.isEmpty()) {
+            result.addError(record, "대표 이미지가 없습니다.");
+            return null;
+        }
+        return row;
+    }
+
+    private static String trim(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static void updateThroughput(ItemImportResultDto result, long start) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        result.setElapsedMillis(elapsed);
+        result.setItemsPerSecond(result.getImported() * 1000.0 / elapsed);
+    }
+
+    private long readCheckpoint(String checkpoint) {
+        ItemImportCheckpoint itemImportCheckpoint = entityManager.find(ItemImportCheckpoint.class, checkpoint);
+        return itemImportCheckpoint == null ? 0 : itemImportCheckpoint.getLastRecord();
+    }
+
+    // 호출한 트랜잭션에서 갱신합니다.
+    private void writeCheckpoint(String checkpoint, long record) {
+        ItemImportCheckpoint itemImportCheckpoint = entityManager.find(ItemImportCheckpoint.class, checkpoint);
+        if (itemImportCheckpoint == null) {
+            itemImportCheckpoint = new ItemImportCheckpoint();
+            itemImportCheckpoint.setFile(checkpoint);
+            entityManager.persist(itemImportCheckpoint);
+        }
+        itemImportCheckpoint.setLastRecord(record);
+    }
+
+    private void deleteCheckpoint(String checkpoint) {
+        ItemImportCheckpoint itemImportCheckpoint = entityManager.find(ItemImportCheckpoint.class, checkpoint);
+        if (itemImportCheckpoint != null) {
+            entityManager.remove(itemImportCheckpoint);
+        }
+    }
+
+    private RecordReader openReader(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesReader(reader, objectMapper);
+        }
+        return new CsvReader(reader);
+    }
+
+    private static class ImportRow {
+        private String itemNm;
+        private int price;
+        private int stockNumber;
+        private ItemSellStatus itemSellStatus;
+        private String itemDetail;
+        private final List<Path> images = new ArrayList<>();
+    }
+
+    private interface RecordReader extends AutoCloseable {
+        Map<String, String> next() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class JsonLinesReader implements RecordReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+
+        JsonLinesReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            Map<String, String> values = new HashMap<>();
+            JsonNode node = objectMapper.readTree(line);
+            node.fields().forEachRemaining(field -> {
+                JsonNode value = field.getValue();
+                if (value.isArray()) {
+                    List<String> parts = new ArrayList<>();
+                    value.forEach(part -> parts.add(part.asText()));
+                    values.put(field.getKey(), String.join("|", parts));
+                } else if (!value.isNull()) {
+                    values.put(field.getKey(), value.asText());
+                }
+            });
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * 큰따옴표로 감싼 값(쉼표, 줄바꿈, "" 포함)을 지원하는 CSV 리더입니다. 첫 레코드를 헤더로 사용합니다.
+     */
+    private static class CsvReader implements RecordReader {
+        private final Reader reader;
+        private final List<String> header;
+
+        CsvReader(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> columns = readRecord();
+            this.header = columns == null ? List.of() : columns;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            List<String> columns;
+            do {
+                columns = readRecord();
+                if (columns == null) {
+                    return null;
+                }
+            } while (columns.size() == 1 && columns.get(0).isEmpty());
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size() && i < columns.size(); i++) {
+                values.put(header.get(i).trim(), columns.get(i));
+            }
+            return values;
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> columns = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        int nextChar = reader.read();
+                        if (nextChar == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            c = nextChar;
+                            continue;
+                        }
+                    } else {
+                        value.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    columns.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = reader.read();
+            }
+            columns.add(value.toString());
+            return columns;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
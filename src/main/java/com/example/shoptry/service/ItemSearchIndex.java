@@ -0,0 +1,246 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.event.ItemChangedEvent;
+import com.example.shoptry.repository.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * 상품명(itemNm)과 상품 상세(itemDetail)에 대한 메모리 역색인입니다.
+ * like '%검색어%' 대신 토큰 단위로 문서를 찾고 관련도 순으로 정렬합니다.
+ * 애플리케이션 시작 후 별도 스레드에서 DB로부터 색인을 만들고, 상품이 등록/수정되면 해당 상품만 다시 색인합니다.
+ * 색인이 준비되기 전에는 isReady()가 false 이며 호출하는 쪽에서 DB 검색을 사용합니다.
+ */
+@Component
+public class ItemSearchIndex extends RebuildableItemIndex<ItemSearchIndex.Segment> {
+
+    // 상품명에 나온 토큰은 상세 설명보다 높은 가중치를 줍니다.
+    private static final float NAME_BOOST = 3.0f;
+    private static final float TF_SATURATION = 1.2f;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final Timer queryTimer;
+
+    private volatile Segment segment = new Segment();
+
+    public ItemSearchIndex(ItemRepository itemRepository, MeterRegistry meterRegistry) {
+        super("상품 검색 색인", "item-search-index-rebuild");
+        this.itemRepository = itemRepository;
+        this.queryTimer = meterRegistry.timer("shop.item.search.query");
+        meterRegistry.gauge("shop.item.search.documents", this, ItemSearchIndex::getDocumentCount);
+        meterRegistry.gauge("shop.item.search.terms", this, ItemSearchIndex::getTermCount);
+    }
+
+    @Override
+    protected Segment build() {
+        Segment fresh = new Segment();
+        Long lastId = 0L;
+        while (true) {
+            List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (items.isEmpty()) {
+                break;
+            }
+            for (Item item : items) {
+                fresh.add(item.getId(), item.getItemNm(), item.getItemDetail());
+            }
+            lastId = items.get(items.size() - 1).getId();
+        }
+        return fresh;
+    }
+
+    @Override
+    protected void install(Segment fresh) {
+        segment = fresh;
+    }
+
+    @Override
+    protected void update(Collection<Long> itemIds) {
+        reindex(itemIds);
+    }
+
+    @Override
+    protected String describe() {
+        return getDocumentCount() + "건";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemsChanged(event.getItemIds(), false);
+    }
+
+    public void reindex(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        List<Item> items = itemRepository.findAllById(itemIds);
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                segment.remove(itemId);
+            }
+            for (Item item : items) {
+                segment.add(item.getId(), item.getItemNm(), item.getItemDetail());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 검색어의 모든 토큰을 포함하는 상품을 관련도 내림차순(같으면 최신 상품 먼저)으로 반환합니다.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        return search(query, offset, limit, null);
+    }
+
+    /**
+     * filter 가 있으면 조건에 맞는 상품만 남긴 뒤 순위를 매깁니다. (판매상태/가격대 필터 등)
+     */
+    public SearchResult search(String query, int offset, int limit, LongPredicate filter) {
+        return queryTimer.record(() -> doSearch(query, offset, limit, filter));
+    }
+
+    private SearchResult doSearch(String query, int offset, int limit, LongPredicate filter) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(ItemTokenizer.tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        Map<Long, Float> scores;
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            int documentCount = Math.max(1, current.docTerms.size());
+            scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> postings = current.postingsFor(token);
+                double idf = Math.log(1 + (documentCount - postings.size() + 0.5) / (postings.size() + 0.5));
+                Map<Long, Float> next = new HashMap<>();
+                for (Map.Entry<Long, Float> posting : postings.entrySet()) {
+                    if (scores != null && !scores.containsKey(posting.getKey())) {
+                        continue;
+                    }
+                    float weight = posting.getValue();
+                    float termScore = (float) (idf * weight / (weight + TF_SATURATION));
+                    float previous = scores == null ? 0f : scores.get(posting.getKey());
+                    next.put(posting.getKey(), previous + termScore);
+                }
+                scores = next;
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (filter != null) {
+            scores.keySet().removeIf(itemId -> !filter.test(itemId));
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int compare = Float.compare(b.getValue(), a.getValue());
+            return compare != 0 ? compare : Long.compare(b.getKey(), a.getKey());
+        });
+
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = offset; i < ranked.size() && i < offset + limit; i++) {
+            itemIds.add(ranked.get(i).getKey());
+        }
+        return new SearchResult(itemIds, ranked.size());
+    }
+
+    public int getDocumentCount() {
+        return segment.docTerms.size();
+    }
+
+    public int getTermCount() {
+        return segment.postings.size();
+    }
+
+    public double getMeanQueryMillis() {
+        return queryTimer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    @Getter
+    public static class SearchResult {
+        private final List<Long> itemIds;
+        private final long total;
+
+        public SearchResult(List<Long> itemIds, long total) {
+            this.itemIds = itemIds;
+            this.total = total;
+        }
+    }
+
+    static class Segment {
+        // 토큰 -> (상품 아이디 -> 가중치가 반영된 출현 빈도)
+        private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+        // 상품 아이디 -> 색인된 토큰. 수정 시 이전 토큰을 지우는 데 사용합니다.
+        private final Map<Long, Set<String>> docTerms = new HashMap<>();
+
+        void add(Long itemId, String itemNm, String itemDetail) {
+            Map<String, Float> weights = new HashMap<>();
+            for (String token : ItemTokenizer.tokenize(itemNm)) {
+                weights.merge(token, NAME_BOOST, Float::sum);
+            }
+            for (String token : ItemTokenizer.tokenize(itemDetail)) {
+                weights.merge(token, 1.0f, Float::sum);
+            }
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(itemId, entry.getValue());
+            }
+            docTerms.put(itemId, new HashSet<>(weights.keySet()));
+        }
+
+        void remove(Long itemId) {
+            Set<String> terms = docTerms.remove(itemId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Float> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(itemId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        Map<Long, Float> postingsFor(String token) {
+            Map<Long, Float> docs = postings.get(token);
+            if (docs != null || token.length() != 1) {
+                return docs == null ? Collections.emptyMap() : docs;
+            }
+            // 한 글자 검색어는 bigram 으로 색인되어 있으므로 그 글자를 포함하는 토큰을 모두 합칩니다.
+            Map<Long, Float> merged = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Float>> entry : postings.entrySet()) {
+                if (entry.getKey().indexOf(token.charAt(0)) >= 0) {
+                    entry.getValue().forEach((itemId, weight) -> merged.merge(itemId, weight, Math::max));
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -1,23 +1,31 @@
 package com.example.shoptry.service;
 
+import com.example.shoptry.dto.CursorPageDto;
+import com.example.shoptry.dto.ItemFacetDto;
 import com.example.shoptry.dto.ItemFormDto;
 import com.example.shoptry.dto.ItemImgDto;
 import com.example.shoptry.dto.ItemSearchDto;
 import com.example.shoptry.dto.MainItemDto;
 import com.example.shoptry.entity.Item;
 import com.example.shoptry.entity.ItemImg;
+import com.example.shoptry.event.ItemChangedEvent;
 import com.example.shoptry.repository.ItemImgRepository;
 import com.example.shoptry.repository.ItemRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.thymeleaf.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -27,6 +35,12 @@ public class ItemService {
     private final ItemRepository itemRepository;
     private final ItemImgService itemImgService;
     private final ItemImgRepository itemImgRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemSearchIndex itemSearchIndex;
+    private final CatalogCardService catalogCardService;
+    private final ItemFacetIndex itemFacetIndex;
+    private final CatalogSnapshot catalogSnapshot;
+    private final StockManager stockManager;
 
 
     public Long saveItem(ItemFormDto itemFormDto, List<MultipartFile> itemImgFileList) throws Exception {
@@ -34,6 +48,7 @@ public class ItemService {
         //상품 등록
         Item item = itemFormDto.createItem();
         itemRepository.save(item);
+        catalogCardService.createCard(item);
 
         //이미지 등록
         for (int i = 0; i < itemImgFileList.size(); i++) {
@@ -48,6 +63,7 @@ public class ItemService {
             itemImgService.saveItemImg(itemImg, itemImgFileList.get(i));
         }
 
+        eventPublisher.publishEvent(ItemChangedEvent.of(item.getId()));
         return item.getId();
     }
 
@@ -64,6 +80,7 @@ public class ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(EntityNotFoundException::new);
         ItemFormDto itemFormDto = ItemFormDto.of(item);
+        itemFormDto.setStockNumber(stockManager.getStock(item));
         itemFormDto.setItemImgDtoList(itemImgDtoList);
         return itemFormDto;
     }
@@ -73,11 +90,14 @@ public class ItemService {
         Item item = itemRepository.findById(itemFormDto.getId())
                 .orElseThrow(EntityNotFoundException::new);
         item.updateItem(itemFormDto);
+        stockManager.setStock(item, itemFormDto.getStockNumber());
+        catalogCardService.updateCard(item);
         List<Long> itemImgIds = itemFormDto.getItemImgIds();
         for (int i = 0; i < itemImgFileList.size(); i++) {
             itemImgService.updateItemImg(itemImgIds.get(i), itemImgFileList.get(i));
         }
 
+        eventPublisher.publishEvent(ItemChangedEvent.of(item.getId()));
         return item.getId();
     }
 
@@ -91,4 +111,114 @@ public class ItemService {
         return itemRepository.getMainItemPage(itemSearchDto, pageable);
     }
 
+    /**
+     * 검색어로 상품을 찾습니다. 검색 색인이 준비되어 있으면 관련도 순으로, 아니면 DB like 검색으로 조회합니다.
+     */
+    @Transactional(readOnly = true)
+    public Page<MainItemDto> searchMainItems(ItemSearchDto itemSearchDto, Pageable pageable) {
+        if (facetFilterPending(itemSearchDto)) {
+            return getFilteredMainItemPage(itemSearchDto, pageable);
+        }
+        if (!itemSearchIndex.isReady()) {
+            return itemRepository.getMainItemPage(itemSearchDto, pageable);
+        }
+
+        ItemSearchIndex.SearchResult result = itemSearchIndex.search(itemSearchDto.getSearchQuery(),
+                (int) pageable.getOffset(), pageable.getPageSize(),
+                itemFacetIndex.isReady() ? itemFacetIndex.matcher(itemSearchDto) : null);
+        return new PageImpl<>(getMainItemsInOrder(result.getItemIds()), pageable, result.getTotal());
+    }
+
+    /**
+     * 판매상태/가격대/등록기간 필터로 상품을 찾습니다. 필터 색인이 준비되지 않았으면 catalog_card 에서 조회합니다.
+     */
+    @Transactional(readOnly = true)
+    public Page<MainItemDto> getFacetedMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
+        if (!itemFacetIndex.isReady()) {
+            return getFilteredMainItemPage(itemSearchDto, pageable);
+        }
+        ItemFacetIndex.FacetResult result = itemFacetIndex.query(itemSearchDto, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(getMainItemsInOrder(result.getItemIds()), pageable, result.getFacets().getTotal());
+    }
+
+    /**
+     * 가격순/최신순/이름순으로 정렬된 상품 목록입니다. 정렬 스냅샷이 준비되지 않았으면 null 을 반환합니다.
+     */
+    @Transactional(readOnly = true)
+    public Page<MainItemDto> getSortedMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
+        if (!catalogSnapshot.isReady() || !CatalogSnapshot.isSupportedSort(itemSearchDto.getSort())) {
+            return null;
+        }
+        if (facetFilterPending(itemSearchDto)) {
+            return getFilteredMainItemPage(itemSearchDto, pageable);
+        }
+        CatalogSnapshot.SortedPage result = catalogSnapshot.page(itemSearchDto.getSort(), itemSearchDto.getSearchSellStatus(),
+                itemFacetIndex.isReady() ? itemFacetIndex.matcher(itemSearchDto) : null,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(getMainItemsInOrder(result.getItemIds()), pageable, result.getTotal());
+    }
+
+    /**
+     * 필터 값별 상품 수입니다. 필터 색인이 준비되지 않았으면 null 을 반환합니다.
+     */
+    @Transactional(readOnly = true)
+    public ItemFacetDto getMainItemFacets(ItemSearchDto itemSearchDto) {
+        if (!itemFacetIndex.isReady()) {
+            return null;
+        }
+        return itemFacetIndex.query(itemSearchDto, 0, 0).getFacets();
+    }
+
+    // 필터 색인이 준비되기 전에는 필터를 버리지 않고 DB 에서 조회합니다.
+    private boolean facetFilterPending(ItemSearchDto itemSearchDto) {
+        return !itemFacetIndex.isReady() && itemSearchDto.hasFacetFilter();
+    }
+
+    private Page<MainItemDto> getFilteredMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
+        Integer band = itemSearchDto.getSearchPriceBand();
+        return itemRepository.getFilteredMainItemPage(itemSearchDto,
+                itemFacetIndex.priceBandMin(band), itemFacetIndex.priceBandMax(band), pageable);
+    }
+
+    // 색인에서 찾은 순서를 유지하면서 목록용 상품 정보를 조회합니다.
+    private List<MainItemDto> getMainItemsInOrder(List<Long> itemIds) {
+        Map<Long, MainItemDto> itemsById = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (MainItemDto mainItemDto : itemRepository.getMainItemsByIds(itemIds)) {
+                itemsById.put(mainItemDto.getId(), mainItemDto);
+            }
+        }
+
+        List<MainItemDto> content = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            MainItemDto mainItemDto = itemsById.get(itemId);
+            if (mainItemDto != null) {
+                content.add(mainItemDto);
+            }
+        }
+        return content;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, String cursor, int size) {
+        Long lastItemId = null;
+        if (!StringUtils.isEmpty(cursor)) {
+            try {
+                lastItemId = Long.valueOf(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("잘못된 커서 입니다.");
+            }
+        }
+
+        // 한 건을 더 조회해서 다음 페이지가 있는지 판단합니다. count 쿼리는 실행하지 않습니다.
+        List<MainItemDto> content = new ArrayList<>(
+                itemRepository.getMainItemsBefore(itemSearchDto, lastItemId, size + 1));
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new CursorPageDto<>(content, nextCursor, hasNext);
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.example.shoptry.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 상품 검색용 토크나이저입니다.
+ * 영문/숫자는 소문자 단어 단위로, 한글은 형태소 분석 없이 두 글자(bigram) 단위로 자릅니다.
+ * 예) "흰색셔츠 T-shirt" -> [흰색, 색셔, 셔츠, t, shirt]
+ */
+public final class ItemTokenizer {
+
+    private ItemTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int i = 0;
+        while (i < length) {
+            char c = lower.charAt(i);
+            if (isHangul(c)) {
+                int start = i;
+                while (i < length && isHangul(lower.charAt(i))) {
+                    i++;
+                }
+                addBigrams(lower.substring(start, i), tokens);
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(lower.charAt(i)) && !isHangul(lower.charAt(i))) {
+                    i++;
+                }
+                tokens.add(lower.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addBigrams(String word, List<String> tokens) {
+        if (word.length() == 1) {
+            tokens.add(word);
+            return;
+        }
+        for (int i = 0; i + 1 < word.length(); i++) {
+            tokens.add(word.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isHangul(char c) {
+        return (c >= '가' && c <= '힣') || (c >= 'ㄱ' && c <= 'ㆎ');
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.shoptry.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 서버 메모리에 장바구니를 최근에 쓴 순서로 max-carts 개까지 들고 있습니다.
+ * 넘치면 오래 쓰지 않은 장바구니부터 지우지만, DB 에 반영하지 않은 변경이 있는 장바구니는 남겨둡니다.
+ * 지운 장바구니는 다음에 쓸 때 DB 에서 다시 읽습니다.
+ * 장바구니는 회원별로 ConcurrentHashMap.compute 안에서 바꾸므로 다른 회원의 action 을 기다리지 않습니다.
+ * 최근에 쓴 순서는 따로 들고 있고, 그 잠금 안에서는 action 을 실행하지 않습니다.
+ */
+@Component
+public class LocalCartStore implements CartStore {
+
+    private final ConcurrentHashMap<String, CachedCart> carts = new ConcurrentHashMap<>();
+
+    // 최근에 쓴 순서 (오래된 것부터). carts 에서 지워진 회원이 잠깐 남아 있을 수 있으며 evict 에서 정리합니다.
+    private final Map<String, Boolean> recency = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Value("${shop.cart.store.max-carts:10000}")
+    private int maxCarts;
+
+    @Override
+    public void putIfAbsent(String email, CachedCart cart) {
+        if (carts.putIfAbsent(email, cart) == null) {
+            touch(email);
+            evict(email);
+        }
+    }
+
+    @Override
+    public <T> T update(String email, Function<CachedCart, T> action) {
+        Object[] result = new Object[1];
+        boolean[] found = new boolean[1];
+        carts.computeIfPresent(email, (key, cart) -> {
+            found[0] = true;
+            result[0] = action.apply(cart);
+            return cart;
+        });
+        // compute 의 잠금을 놓은 뒤에 순서를 바꿔서 evict 와 잠금 순서가 엇갈리지 않도록 합니다.
+        if (found[0]) {
+            touch(email);
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return carts.size();
+    }
+
+    private void touch(String email) {
+        synchronized (recency) {
+            recency.put(email, Boolean.TRUE);
+        }
+    }
+
+    // 방금 넣은 장바구니는 지우지 않습니다. 반영하지 않은 변경이 있는지는 그 장바구니의 compute 안에서 확인합니다.
+    private void evict(String putEmail) {
+        synchronized (recency) {
+            Iterator<String> iterator = recency.keySet().iterator();
+            while (carts.size() > maxCarts && iterator.hasNext()) {
+                String email = iterator.next();
+                if (email.equals(putEmail)) {
+                    continue;
+                }
+                if (carts.computeIfPresent(email, (key, cart) -> cart.isEvictable() ? null : cart) == null) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
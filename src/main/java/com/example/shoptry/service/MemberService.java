@@ -1,16 +1,19 @@
 package com.example.shoptry.service;
 
 
+import com.example.shoptry.dto.MemberPrincipal;
 import com.example.shoptry.entity.Member;
 import com.example.shoptry.repository.MemberRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Transactional
 @RequiredArgsConstructor
@@ -40,11 +43,8 @@ public class MemberService implements UserDetailsService {
             throw new UsernameNotFoundException(email);
         }
 
-        return User.builder()
-                .username(member.getEmail())
-                .password(member.getPassword())
-                .roles(member.getRole().toString())
-                .build();
+        return new MemberPrincipal(member.getId(), member.getEmail(), member.getPassword(),
+                List.of(new SimpleGrantedAuthority("ROLE_" + member.getRole().toString())));
     }
 
 }
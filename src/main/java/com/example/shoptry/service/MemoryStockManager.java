@@ -0,0 +1,428 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.exception.OutOfStockException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 상품별 재고를 메모리 카운터로 관리합니다. (shop.stock.mode=memory)
+ * 주문 트랜잭션은 item 행을 읽기만 하고 수정하지 않으므로 인기 상품이 모든 주문이 거쳐 가는 하나의 행이 되지 않습니다.
+ *
+ * 차감은 상품별 AtomicInteger 의 CAS 라서 락 없이 처리되고, 재고가 모자라면 그 자리에서 OutOfStockException 을 던집니다.
+ * 변경량은 로컬 저널 파일에 append 하고 백그라운드 스레드가 상품별로 합쳐서 item 테이블에 배치로 반영합니다.
+ * 반영할 때 같은 트랜잭션에서 stock_checkpoint 에 반영한 저널 번호를 남기므로,
+ * 재시작 시에는 체크포인트 이후의 저널만 DB에 다시 반영한 뒤 카운터를 DB에서 읽어옵니다.
+ *
+ * 장애가 나더라도 재고가 실제보다 많아지지 않도록 차감은 커밋 직전에, 복구(주문취소)는 커밋 이후에 저널에 씁니다.
+ * 카운터가 이 노드의 메모리에 있으므로 한 상품의 재고는 한 노드에서만 차감해야 합니다.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.stock.mode", havingValue = "memory")
+@Log
+public class MemoryStockManager implements StockManager {
+
+    private static final String SEGMENT_PREFIX = "stock-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    // 아래 필드는 journalLock 으로 보호합니다. 저널 번호와 아직 DB에 반영하지 않은 변경량이 항상 같이 움직입니다.
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final Map<Long, Integer> pending = new HashMap<>();
+    private long sequence;
+    private FileChannel journal;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter reservedCounter;
+    private final Counter rejectedCounter;
+    private final Timer flushTimer;
+
+    @Value("${shop.stock.journal-dir:./stock-journal}")
+    private String journalDir;
+
+    // true 이면 저널을 쓸 때마다 디스크에 강제로 기록합니다. false 이면 프로세스 장애는 견디지만 OS 장애 시 마지막 기록을 잃을 수 있습니다.
+    @Value("${shop.stock.journal-fsync:false}")
+    private boolean journalFsync;
+
+    @Value("${shop.stock.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    public MemoryStockManager(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservedCounter = meterRegistry.counter("shop.stock.reserve", "result", "reserved");
+        this.rejectedCounter = meterRegistry.counter("shop.stock.reserve", "result", "rejected");
+        this.flushTimer = meterRegistry.timer("shop.stock.flush");
+        meterRegistry.gauge("shop.stock.pending", this, MemoryStockManager::getPendingCount);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        recover();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Override
+    public void removeStock(Item item, int count) {
+        AtomicInteger counter = counter(item);
+        int current;
+        do {
+            current = counter.get();
+            if (current < count) {
+                rejectedCounter.increment();
+                throw new OutOfStockException("상품의 재고가 부족 합니다. (현재 재고 수량: " + current + ")");
+            }
+        } while (!counter.compareAndSet(current, current - count));
+        reservedCounter.increment();
+
+        Long itemId = item.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                append(itemId, -count);
+            } catch (UncheckedIOException e) {
+                counter.addAndGet(count);
+                throw e;
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean journaled;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                append(itemId, -count);
+                journaled = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                // 커밋되지 않은 주문의 재고를 되돌립니다. 이미 저널에 썼다면 되돌리는 기록도 남깁니다.
+                if (journaled) {
+                    appendQuietly(itemId, count);
+                }
+                counter.addAndGet(count);
+            }
+        });
+    }
+
+    @Override
+    public void addStock(Item item, int count) {
+        AtomicInteger counter = counter(item);
+        Long itemId = item.getId();
+        afterCommit(() -> {
+            if (appendQuietly(itemId, count)) {
+                counter.addAndGet(count);
+            }
+        });
+    }
+
+    @Override
+    public void addStocks(Map<Long, Integer> itemCounts) {
+        Map<Long, Integer> restocks = new HashMap<>(itemCounts);
+        afterCommit(() -> restocks.forEach((itemId, count) -> {
+            // 카운터가 없는 상품은 반영되지 않은 변경량이 없으므로 DB 재고로 카운터를 만든 뒤 더합니다.
+            AtomicInteger counter = counters.computeIfAbsent(itemId, id -> new AtomicInteger(
+                    jdbcTemplate.queryForObject("select stock_number from item where item_id = ?", Integer.class, id)));
+            if (appendQuietly(itemId, count)) {
+                counter.addAndGet(count);
+            }
+        }));
+    }
+
+    @Override
+    public void setStock(Item item, int stockNumber) {
+        AtomicInteger counter = counter(item);
+        Long itemId = item.getId();
+        afterCommit(() -> {
+            // 절대값으로 덮어쓰지 않고 카운터와의 차이만큼 저널에 남겨야 진행 중인 주문의 차감과 섞여도 DB와 카운터가 어긋나지 않습니다.
+            journalLock.lock();
+            try {
+                int previous = counter.getAndSet(stockNumber);
+                if (!appendQuietly(itemId, stockNumber - previous)) {
+                    counter.addAndGet(previous - stockNumber);
+                }
+            } finally {
+                journalLock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public int getStock(Item item) {
+        AtomicInteger counter = counters.get(item.getId());
+        return counter != null ? counter.get() : item.getStockNumber();
+    }
+
+    public int getPendingCount() {
+        journalLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * 쌓인 변경량을 item 테이블에 반영하고 체크포인트를 남깁니다.
+     * 체크포인트가 뒤로 가지 않도록 한 번에 하나씩만 실행합니다.
+     */
+    public synchronized void flush() {
+        Map<Long, Integer> batch;
+        long upTo;
+        journalLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+            upTo = sequence;
+            openSegment(upTo + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            journalLock.unlock();
+        }
+
+        try {
+            flushTimer.record(() -> applyToDatabase(batch, upTo));
+        } catch (RuntimeException e) {
+            // 실패한 변경량은 다음 반영 때 다시 시도합니다. 저널 파일은 체크포인트가 남을 때까지 지우지 않습니다.
+            journalLock.lock();
+            try {
+                batch.forEach((itemId, delta) -> pending.merge(itemId, delta, Integer::sum));
+            } finally {
+                journalLock.unlock();
+            }
+            throw e;
+        }
+        deleteSegmentsUpTo(upTo);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warning("재고 반영 실패: " + e.getMessage());
+        }
+    }
+
+    private AtomicInteger counter(Item item) {
+        // 카운터가 없는 상품은 DB에 반영되지 않은 변경량도 없으므로 주문 트랜잭션에서 읽은 재고로 시작합니다.
+        return counters.computeIfAbsent(item.getId(), itemId -> new AtomicInteger(item.getStockNumber()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void append(Long itemId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        journalLock.lock();
+        long size = -1;
+        try {
+            size = journal.size();
+            byte[] line = ((sequence + 1) + " " + itemId + " " + delta + "\n").getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (journalFsync) {
+                journal.force(false);
+            }
+            sequence++;
+            pending.merge(itemId, delta, Integer::sum);
+        } catch (IOException e) {
+            // 반쯤 쓰인 줄이 다음 기록과 붙지 않도록 잘라냅니다.
+            if (size >= 0) {
+                try {
+                    journal.truncate(size);
+                } catch (IOException ignored) {
+                }
+            }
+            throw new UncheckedIOException("재고 저널 기록 실패", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private boolean appendQuietly(Long itemId, int delta) {
+        try {
+            append(itemId, delta);
+            return true;
+        } catch (UncheckedIOException e) {
+            log.severe("재고 저널 기록 실패 (상품 " + itemId + ", " + delta + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void applyToDatabase(Map<Long, Integer> batch, long upTo) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        batch.forEach((itemId, delta) -> {
+            if (delta != 0) {
+                args.add(new Object[]{delta, itemId});
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("update item set stock_number = stock_number + ? where item_id = ?", args);
+            if (jdbcTemplate.update("update stock_checkpoint set last_sequence = ? where checkpoint_id = 1", upTo) == 0) {
+                jdbcTemplate.update("insert into stock_checkpoint (checkpoint_id, last_sequence) values (1, ?)", upTo);
+            }
+        });
+    }
+
+    /**
+     * 체크포인트 이후의 저널을 DB에 반영하고 새 저널 파일을 엽니다.
+     */
+    private void recover() throws IOException {
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+
+        List<Long> checkpoints = jdbcTemplate.queryForList(
+                "select last_sequence from stock_checkpoint where checkpoint_id = 1", Long.class);
+        long checkpoint = checkpoints.isEmpty() ? 0 : checkpoints.get(0);
+
+        Map<Long, Integer> replay = new HashMap<>();
+        long last = checkpoint;
+        List<Path> segments = listSegments();
+        for (Path segment : segments) {
+            String[] lines = Files.readString(segment, StandardCharsets.US_ASCII).split("\n", -1);
+            // 마지막 조각은 줄바꿈으로 끝나지 않은, 장애로 끊긴 기록이므로 버립니다. (커밋되지 않은 주문)
+            for (int i = 0; i < lines.length - 1; i++) {
+                String[] values = lines[i].split(" ");
+                if (values.length != 3) {
+                    continue;
+                }
+                long seq = Long.parseLong(values[0]);
+                if (seq > checkpoint) {
+                    replay.merge(Long.parseLong(values[1]), Integer.parseInt(values[2]), Integer::sum);
+                }
+                last = Math.max(last, seq);
+            }
+        }
+        if (last > checkpoint) {
+            applyToDatabase(replay, last);
+            log.info("재고 저널 복구: " + (last - checkpoint) + "건, 상품 " + replay.size() + "개");
+        }
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+
+        journalLock.lock();
+        try {
+            sequence = last;
+            openSegment(last + 1);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void openSegment(long startSequence) throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        Path path = Paths.get(journalDir, SEGMENT_PREFIX + startSequence + SEGMENT_SUFFIX);
+        journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void deleteSegmentsUpTo(long upTo) {
+        try {
+            for (Path segment : listSegments()) {
+                if (segmentStart(segment) <= upTo) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        } catch (IOException e) {
+            log.warning("재고 저널 정리 실패: " + e.getMessage());
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(journalDir))) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentStart(a), segmentStart(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentStart(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
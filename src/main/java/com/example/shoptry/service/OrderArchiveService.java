@@ -0,0 +1,162 @@
+package com.example.shoptry.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 주문일로부터 after-days 가 지난 주문을 orders/order_item 에서 orders_archive/order_item_archive 로 옮깁니다.
+ *
+ * 자주 읽는 최근 주문만 orders 에 남겨서 주문 테이블과 인덱스가 DB 버퍼에 들어갈 정도로 작게 유지합니다.
+ * 오래된 순으로 batch-size 건씩 한 트랜잭션에서 옮기고, 운영 중인 주문 처리에 부담이 가지 않도록 batch 사이에 pause-ms 만큼 쉽니다.
+ * 구매이력 조회(OrderRepositoryCustomImpl)는 orders 다음에 보관 테이블을 이어서 읽으므로 화면에서는 차이가 없고,
+ * 보관된 주문은 취소할 수 없습니다.
+ */
+@Service
+@Log
+public class OrderArchiveService {
+
+    private static final String ORDER_COLUMNS =
+            "order_id, member_id, order_date, order_status, total_price, item_count, "
+                    + "reg_time, update_time, created_by, modified_by";
+    private static final String ORDER_ITEM_COLUMNS =
+            "order_item_id, order_id, item_id, order_price, count, reg_time, update_time, created_by, modified_by";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${shop.order.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shop.order.archive.after-days:365}")
+    private int afterDays;
+
+    @Value("${shop.order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${shop.order.archive.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${shop.order.archive.interval-minutes:60}")
+    private long intervalMinutes;
+
+    public OrderArchiveService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 기준일 이전 주문을 모두 옮길 때까지 batch 단위로 반복합니다.
+     */
+    public Map<String, Object> archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("이미 주문 보관이 실행 중입니다.");
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        long orders = 0;
+        long batches = 0;
+        try {
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                orders += moved;
+                if (moved > 0) {
+                    batches++;
+                    pause();
+                }
+            } while (moved == batchSize);
+        } finally {
+            running.set(false);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cutoff", cutoff);
+        result.put("orders", orders);
+        result.put("batches", batches);
+        result.put("elapsedMillis", System.currentTimeMillis() - start);
+        log.info("주문 보관: " + result);
+        return result;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        // 옮기는 동안 같은 주문을 취소하지 못하도록 잠급니다.
+        List<Long> orderIds = jdbcTemplate.queryForList(
+                "select order_id from orders where order_date < ? order by order_date, order_id limit ? for update",
+                Long.class, Timestamp.valueOf(cutoff), batchSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        String in = "(" + String.join(", ", Collections.nCopies(orderIds.size(), "?")) + ")";
+        Object[] args = orderIds.toArray();
+        jdbcTemplate.update("insert into orders_archive (" + ORDER_COLUMNS + ") select " + ORDER_COLUMNS
+                + " from orders where order_id in " + in, args);
+        jdbcTemplate.update("insert into order_item_archive (" + ORDER_ITEM_COLUMNS + ") select " + ORDER_ITEM_COLUMNS
+                + " from order_item where order_id in " + in, args);
+        jdbcTemplate.update("delete from order_item where order_id in " + in, args);
+        jdbcTemplate.update("delete from orders where order_id in " + in, args);
+        return orderIds.size();
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문 보관 중 중단되었습니다.");
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warning("주문 보관 실패: " + e.getMessage());
+        }
+    }
+}
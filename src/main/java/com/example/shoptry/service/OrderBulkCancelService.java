@@ -0,0 +1,198 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.dto.OrderBulkCancelDto;
+import com.example.shoptry.dto.OrderBulkCancelResultDto;
+import com.example.shoptry.entity.Order;
+import com.example.shoptry.event.OrderSalesEvent;
+import com.example.shoptry.repository.MemberOrderCountRepository;
+import com.example.shoptry.repository.OrderItemRepository;
+import com.example.shoptry.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 결제 실패나 상품 회수처럼 주문을 한꺼번에 취소합니다.
+ *
+ * 주문을 chunkSize 건씩 나눠 chunk 마다 트랜잭션 하나로 처리합니다.
+ * 주문 상품을 엔티티로 하나씩 읽지 않고 한 번에 조회해서 상품당 한 번만 재고를 되돌리고,
+ * 주문 상태도 update 한 문장으로 CANCEL 로 바꿉니다. chunk 가 끝날 때마다 진행 상황을 결과에 반영합니다.
+ */
+@Service
+@Log
+public class OrderBulkCancelService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final MemberOrderCountRepository memberOrderCountRepository;
+    private final StockManager stockManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderOutbox orderOutbox;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shop.order.bulk-cancel.chunk-size:500}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile OrderBulkCancelResultDto lastResult;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-bulk-cancel");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderBulkCancelService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                                  MemberOrderCountRepository memberOrderCountRepository, StockManager stockManager,
+                                  ApplicationEventPublisher eventPublisher, OrderOutbox orderOutbox,
+                                  PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.memberOrderCountRepository = memberOrderCountRepository;
+        this.stockManager = stockManager;
+        this.eventPublisher = eventPublisher;
+        this.orderOutbox = orderOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 진행 중이거나 마지막으로 실행한 일괄 취소의 결과입니다.
+     */
+    public OrderBulkCancelResultDto getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * 일괄 취소를 별도 스레드에서 시작합니다. 이미 실행 중이면 시작하지 않고 false 를 돌려줍니다.
+     */
+    public boolean startCancelOrders(OrderBulkCancelDto orderBulkCancelDto) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        OrderBulkCancelResultDto result = newResult();
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(() -> cancelOrders(orderBulkCancelDto, result)));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 한 번에 하나의 일괄 취소만 실행할 수 있습니다. 실패하면 그 전 chunk 까지는 취소된 상태로 남습니다.
+     */
+    public OrderBulkCancelResultDto cancelOrders(OrderBulkCancelDto orderBulkCancelDto) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("이미 주문 일괄 취소가 실행 중입니다.");
+        }
+        return cancelOrders(orderBulkCancelDto, newResult());
+    }
+
+    private OrderBulkCancelResultDto newResult() {
+        OrderBulkCancelResultDto result = new OrderBulkCancelResultDto();
+        result.setStatus("RUNNING");
+        lastResult = result;
+        return result;
+    }
+
+    private OrderBulkCancelResultDto cancelOrders(OrderBulkCancelDto orderBulkCancelDto, OrderBulkCancelResultDto result) {
+        long start = System.currentTimeMillis();
+        try {
+            List<Long> orderIds = findTargets(orderBulkCancelDto);
+            result.setTargetOrders(orderIds.size());
+
+            for (int from = 0; from < orderIds.size(); from += chunkSize) {
+                List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+                transactionTemplate.executeWithoutResult(status -> cancelChunk(chunk, result));
+                result.setProcessedOrders(result.getProcessedOrders() + chunk.size());
+                result.setChunks(result.getChunks() + 1);
+                result.setElapsedMillis(System.currentTimeMillis() - start);
+            }
+            result.setStatus("DONE");
+        } catch (RuntimeException e) {
+            result.setStatus("FAILED");
+            result.setFailureMessage(e.getMessage());
+            log.warning("주문 일괄 취소 실패: " + e.getMessage());
+        } finally {
+            result.setElapsedMillis(System.currentTimeMillis() - start);
+            running.set(false);
+        }
+        log.info("주문 일괄 취소 " + result.getStatus() + ": " + result.getCanceledOrders() + "/"
+                + result.getTargetOrders() + "건, " + result.getElapsedMillis() + "ms");
+        return result;
+    }
+
+    private List<Long> findTargets(OrderBulkCancelDto orderBulkCancelDto) {
+        if (orderBulkCancelDto.getOrderIds() != null && !orderBulkCancelDto.getOrderIds().isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(orderBulkCancelDto.getOrderIds()));
+        }
+        return orderRepository.findOrderIdsToCancel(orderBulkCancelDto.getItemId(),
+                orderBulkCancelDto.getOrderedFrom(), orderBulkCancelDto.getOrderedTo());
+    }
+
+    private void cancelChunk(List<Long> chunk, OrderBulkCancelResultDto result) {
+        List<Order> orders = orderRepository.findByIdInAndStatusForUpdate(chunk, OrderStatus.ORDER);
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        Map<Long, Integer> cancelCounts = new LinkedHashMap<>();
+        long canceledAmount = 0;
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+            cancelCounts.merge(order.getMember().getId(), 1, Integer::sum);
+            canceledAmount += order.getTotalPrice();
+        }
+
+        Map<Long, Integer> itemCounts = new LinkedHashMap<>();
+        List<OrderSalesEvent.SalesLine> lines = new ArrayList<>();
+        long restoredStock = 0;
+        for (Object[] row : orderItemRepository.findSalesLines(orderIds)) {
+            OrderSalesEvent.SalesLine line = new OrderSalesEvent.SalesLine((Long) row[0], (LocalDateTime) row[1],
+                    (Integer) row[2], (Integer) row[3]);
+            lines.add(line);
+            itemCounts.merge(line.getItemId(), line.getCount(), Integer::sum);
+            restoredStock += line.getCount();
+        }
+
+        // update 문이 영속성 컨텍스트를 비우므로 이벤트 내용은 먼저 만듭니다.
+        for (Order order : orders) {
+            orderOutbox.orderCanceled(order);
+        }
+        orderRepository.updateOrderStatus(orderIds, OrderStatus.CANCEL, LocalDateTime.now());
+        stockManager.addStocks(itemCounts);
+        cancelCounts.forEach((memberId, count) -> memberOrderCountRepository.addCancelCount(memberId, count));
+        eventPublisher.publishEvent(new OrderSalesEvent(OrderStatus.ORDER, OrderStatus.CANCEL, lines));
+
+        result.setCanceledOrders(result.getCanceledOrders() + orderIds.size());
+        result.setRestoredStock(result.getRestoredStock() + restoredStock);
+        result.setCanceledAmount(result.getCanceledAmount() + canceledAmount);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.CheckoutStatus;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.dto.OrderStatusDto;
+import com.example.shoptry.exception.OrderPendingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 주문을 접수만 하고 바로 응답한 뒤 별도 스레드에서 처리합니다. (shop.order.async.enabled=true)
+ *
+ * 요청 스레드는 주문 토큰을 돌려주고 바로 반환되므로, 주문이 몰려도 상품 조회 같은 다른 요청이 쓸 스레드가 남습니다.
+ * 처리 스레드와 대기 큐는 크기가 정해져 있어서 가득 차면 접수하지 않습니다.
+ * 처리 상태는 GET /order/{token}/status 로 조회하거나 GET /order/{token}/events (SSE) 로 완료 알림을 받습니다.
+ * 상태는 메모리에만 두고 완료 후 status-ttl-seconds 가 지나면 지웁니다.
+ */
+@Service
+public class OrderCheckoutService {
+
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Checkout> checkouts = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkout-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${shop.order.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shop.order.async.threads:16}")
+    private int threads;
+
+    @Value("${shop.order.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${shop.order.async.status-ttl-seconds:600}")
+    private long statusTtlSeconds;
+
+    @Value("${shop.order.async.sse-timeout-ms:30000}")
+    private long sseTimeoutMillis;
+
+    public OrderCheckoutService(OrderGroupCommitter orderGroupCommitter, MeterRegistry meterRegistry) {
+        this.orderGroupCommitter = orderGroupCommitter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "checkout-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("shop.order.async.queued", executor, e -> e.getQueue().size());
+        cleaner.scheduleWithFixedDelay(this::removeExpired, 60, 60, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        cleaner.shutdownNow();
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public OrderStatusDto submit(OrderDto orderDto, String email) {
+        String token = UUID.randomUUID().toString();
+        Checkout checkout = new Checkout(token, email);
+        checkouts.put(token, checkout);
+        try {
+            executor.execute(() -> process(checkout, orderDto));
+        } catch (RejectedExecutionException e) {
+            checkouts.remove(token);
+            meterRegistry.counter("shop.order.async", "result", "rejected").increment();
+            throw new IllegalStateException("주문 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return checkout.toDto();
+    }
+
+    /**
+     * 다른 회원의 토큰이거나 없는 토큰이면 null 을 돌려줍니다.
+     */
+    public OrderStatusDto getStatus(String token, String email) {
+        Checkout checkout = find(token, email);
+        return checkout != null ? checkout.toDto() : null;
+    }
+
+    public SseEmitter subscribe(String token, String email) {
+        Checkout checkout = find(token, email);
+        if (checkout == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        checkout.subscribe(emitter);
+        return emitter;
+    }
+
+    private Checkout find(String token, String email) {
+        Checkout checkout = checkouts.get(token);
+        if (checkout == null || !checkout.email.equals(email)) {
+            return null;
+        }
+        return checkout;
+    }
+
+    private void process(Checkout checkout, OrderDto orderDto) {
+        checkout.processing();
+        try {
+            Long orderId = orderGroupCommitter.order(orderDto, checkout.email);
+            meterRegistry.counter("shop.order.async", "result", "completed").increment();
+            checkout.complete(CheckoutStatus.COMPLETED, orderId, null);
+        } catch (OrderPendingException e) {
+            // 커밋이 늦어진 경우라 실패로 끝내지 않고 주문 결과가 나오면 그대로 반영합니다.
+            e.getResult().whenComplete((orderId, error) -> {
+                if (error == null) {
+                    meterRegistry.counter("shop.order.async", "result", "completed").increment();
+                    checkout.complete(CheckoutStatus.COMPLETED, orderId, null);
+                } else {
+                    meterRegistry.counter("shop.order.async", "result", "failed").increment();
+                    checkout.complete(CheckoutStatus.FAILED, null, error.getMessage());
+                }
+            });
+        } catch (Throwable e) {
+            // Error 도 실패로 끝내 두어야 PROCESSING 상태로 남아 만료되지 않는 일이 없습니다.
+            meterRegistry.counter("shop.order.async", "result", "failed").increment();
+            checkout.complete(CheckoutStatus.FAILED, null, e.getMessage());
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    private void removeExpired() {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(statusTtlSeconds);
+        checkouts.values().removeIf(checkout -> checkout.isExpired(expiredBefore));
+    }
+
+    private static class Checkout {
+
+        private final String token;
+
+        private final String email;
+
+        private CheckoutStatus status = CheckoutStatus.ACCEPTED;
+
+        private Long orderId;
+
+        private String message;
+
+        private long completedAt;
+
+        private final List<SseEmitter> emitters = new ArrayList<>();
+
+        private Checkout(String token, String email) {
+            this.token = token;
+            this.email = email;
+        }
+
+        private synchronized OrderStatusDto toDto() {
+            return new OrderStatusDto(token, status, orderId, message);
+        }
+
+        private synchronized void processing() {
+            status = CheckoutStatus.PROCESSING;
+        }
+
+        private void complete(CheckoutStatus status, Long orderId, String message) {
+            List<SseEmitter> subscribers;
+            synchronized (this) {
+                this.status = status;
+                this.orderId = orderId;
+                this.message = message;
+                this.completedAt = System.currentTimeMillis();
+                subscribers = new ArrayList<>(emitters);
+                emitters.clear();
+            }
+            OrderStatusDto statusDto = toDto();
+            for (SseEmitter emitter : subscribers) {
+                send(emitter, statusDto);
+            }
+        }
+
+        private void subscribe(SseEmitter emitter) {
+            OrderStatusDto statusDto;
+            synchronized (this) {
+                statusDto = toDto();
+                if (!statusDto.isDone()) {
+                    emitters.add(emitter);
+                    emitter.onCompletion(() -> removeEmitter(emitter));
+                    emitter.onTimeout(() -> removeEmitter(emitter));
+                    return;
+                }
+            }
+            // 이미 끝난 주문이면 결과를 바로 보내고 닫습니다.
+            send(emitter, statusDto);
+        }
+
+        private synchronized void removeEmitter(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        private synchronized boolean isExpired(long expiredBefore) {
+            return completedAt > 0 && completedAt < expiredBefore;
+        }
+
+        private static void send(SseEmitter emitter, OrderStatusDto statusDto) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(statusDto));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
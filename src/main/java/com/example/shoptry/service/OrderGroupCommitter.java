@@ -0,0 +1,191 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.exception.OrderPendingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.java.Log;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 주문을 모아서 한 트랜잭션으로 커밋합니다. (shop.order.group-commit.enabled=true)
+ *
+ * 주문 요청 스레드는 트랜잭션 없이 큐에 주문을 넣고 결과만 기다리므로 기다리는 동안 커넥션을 쥐고 있지 않습니다.
+ * 주문 전용 스레드가 짧은 시간(window) 동안 모인 주문을 최대 max-batch 건씩 한 트랜잭션에서 insert 배치로 저장하고,
+ * 커밋이 끝난 뒤에 각 주문의 아이디나 실패 원인을 돌려줍니다.
+ * 재고 부족처럼 한 주문만의 실패는 그 주문에만 돌려주고, 커밋 자체가 실패하면 남은 주문을 한 건씩 다시 처리합니다.
+ *
+ * 설정하지 않으면 지금처럼 요청마다 OrderService 트랜잭션에서 바로 처리합니다.
+ */
+@Component
+@Log
+public class OrderGroupCommitter {
+
+    private final OrderService orderService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter batchCounter;
+    private final Counter retryCounter;
+    private final DistributionSummary batchSummary;
+
+    private BlockingQueue<PendingOrder> queue;
+    private Thread committer;
+    private volatile boolean running = true;
+
+    @Value("${shop.order.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shop.order.group-commit.window-millis:2}")
+    private long windowMillis;
+
+    @Value("${shop.order.group-commit.max-batch:100}")
+    private int maxBatch;
+
+    @Value("${shop.order.group-commit.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${shop.order.group-commit.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    public OrderGroupCommitter(OrderService orderService, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchCounter = meterRegistry.counter("shop.order.group-commit.batches");
+        this.retryCounter = meterRegistry.counter("shop.order.group-commit.retries");
+        this.batchSummary = meterRegistry.summary("shop.order.group-commit.batch.size");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        committer = new Thread(this::commitLoop, "order-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (committer != null) {
+            committer.join(10000);
+        }
+    }
+
+    public Long order(OrderDto orderDto, String email) {
+        if (!enabled) {
+            return orderService.order(orderDto, email);
+        }
+        return submit(new PendingOrder(email, List.of(orderDto), List.of()));
+    }
+
+    public Long orders(List<OrderDto> orderDtoList, String email, List<Long> cartItemIds) {
+        if (!enabled) {
+            return orderService.orders(orderDtoList, email, cartItemIds);
+        }
+        return submit(new PendingOrder(email, orderDtoList, cartItemIds));
+    }
+
+    private Long submit(PendingOrder pendingOrder) {
+        if (!queue.offer(pendingOrder)) {
+            throw new IllegalStateException("주문 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+        try {
+            return pendingOrder.getResult().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("주문 처리 실패", e.getCause());
+        } catch (TimeoutException e) {
+            // 커밋은 나중에 끝날 수도 있으므로 주문내역에서 확인하도록 합니다.
+            throw new OrderPendingException("주문 처리 시간이 초과되었습니다. 주문내역을 확인해주세요.",
+                    pendingOrder.getResult());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderPendingException("주문 처리 중 중단되었습니다. 주문내역을 확인해주세요.",
+                    pendingOrder.getResult());
+        }
+    }
+
+    private void commitLoop() {
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        while (running || !queue.isEmpty()) {
+            List<PendingOrder> batch = new ArrayList<>();
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 첫 주문 이후 window 동안 들어온 주문을 모아서 같이 커밋합니다.
+                if (windowNanos > 0) {
+                    LockSupport.parkNanos(windowNanos);
+                }
+                queue.drainTo(batch, maxBatch - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        batchCounter.increment();
+        batchSummary.record(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(maxBatch);
+                orderService.placeOrders(batch);
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                complete(batch.get(0), e);
+                return;
+            }
+            // 어떤 주문 때문에 커밋이 실패했는지 알 수 없으므로 한 건씩 다시 처리합니다.
+            log.warning("주문 묶음 커밋 실패, 한 건씩 다시 처리합니다: " + e.getMessage());
+            retryCounter.increment();
+            for (PendingOrder pendingOrder : batch) {
+                pendingOrder.reset();
+                commit(List.of(pendingOrder));
+            }
+            return;
+        }
+        for (PendingOrder pendingOrder : batch) {
+            complete(pendingOrder, null);
+        }
+    }
+
+    private void complete(PendingOrder pendingOrder, RuntimeException commitError) {
+        RuntimeException error = commitError != null ? commitError : pendingOrder.getError();
+        if (error != null) {
+            pendingOrder.getResult().completeExceptionally(error);
+        } else {
+            pendingOrder.getResult().complete(pendingOrder.getOrderId());
+        }
+    }
+}
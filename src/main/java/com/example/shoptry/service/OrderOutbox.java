@@ -0,0 +1,49 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.constant.OutboxEventType;
+import com.example.shoptry.dto.OrderEventDto;
+import com.example.shoptry.entity.Order;
+import com.example.shoptry.entity.OutboxEvent;
+import com.example.shoptry.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 주문/주문취소 이벤트를 outbox_event 에 저장합니다.
+ * 주문을 바꾼 트랜잭션 안에서만 호출할 수 있으므로 주문이 커밋되면 이벤트도 함께 커밋됩니다.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public void orderCreated(Order order) {
+        append(OutboxEventType.ORDER_CREATED, OrderEventDto.of(order, true));
+    }
+
+    /**
+     * 일괄 취소는 주문 엔티티를 바꾸지 않고 update 문으로 취소하므로 상태는 여기서 CANCEL 로 채웁니다.
+     */
+    public void orderCanceled(Order order) {
+        OrderEventDto orderEventDto = OrderEventDto.of(order, false);
+        orderEventDto.setOrderStatus(OrderStatus.CANCEL);
+        append(OutboxEventType.ORDER_CANCELED, orderEventDto);
+    }
+
+    private void append(OutboxEventType eventType, OrderEventDto orderEventDto) {
+        try {
+            outboxEventRepository.save(OutboxEvent.createEvent(eventType, orderEventDto.getOrderId(),
+                    objectMapper.writeValueAsString(orderEventDto)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 이벤트를 만들 수 없습니다.", e);
+        }
+    }
+}
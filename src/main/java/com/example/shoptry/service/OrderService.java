@@ -1,16 +1,20 @@
 package com.example.shoptry.service;
 
 
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.dto.CursorPageDto;
 import com.example.shoptry.dto.OrderDto;
 import com.example.shoptry.dto.OrderHistDto;
-import com.example.shoptry.dto.OrderItemDto;
 import com.example.shoptry.entity.*;
-import com.example.shoptry.repository.ItemImgRepository;
+import com.example.shoptry.event.OrderSalesEvent;
+import com.example.shoptry.repository.CartItemRepository;
 import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberOrderCountRepository;
 import com.example.shoptry.repository.MemberRepository;
 import com.example.shoptry.repository.OrderRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
@@ -19,8 +23,15 @@ import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.util.StringUtils;
 
 
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -30,7 +41,11 @@ public class OrderService {
     private final ItemRepository itemRepository;
     private final MemberRepository memberRepository;
     private final OrderRepository orderRepository;
-    private final ItemImgRepository itemImgRepository;
+    private final MemberOrderCountRepository memberOrderCountRepository;
+    private final StockManager stockManager;
+    private final CartItemRepository cartItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderOutbox orderOutbox;
 
 
     public Long order(OrderDto orderDto, String email) {
@@ -41,68 +56,182 @@ public class OrderService {
         Member member = memberRepository.findByEmail(email);
 
         List<OrderItem> orderItemList = new ArrayList<>();
+        stockManager.removeStock(item, orderDto.getCount());
         OrderItem orderItem = OrderItem.createOrderItem(item, orderDto.getCount());
         orderItemList.add(orderItem);
 
         Order order = Order.createOrder(member, orderItemList);
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderSalesEvent.ordered(order));
+        orderOutbox.orderCreated(order);
+        increaseOrderCount(member, 1);
         return order.getId();
     }
 
     @Transactional(readOnly = true)
     public Page<OrderHistDto> getOrderList(String email, Pageable pageable) {
-        List<Order> orders = orderRepository.findOrders(email, pageable);
-        Long totalCount = orderRepository.countOrder(email);
-
-        List<OrderHistDto> orderHistDtos = new ArrayList<>();
-
-        for (Order order : orders) {
-            OrderHistDto orderHistDto = new OrderHistDto(order);
-            List<OrderItem> orderItems = order.getOrderItems();
-            for (OrderItem orderItem : orderItems) {
-                ItemImg itemImg = itemImgRepository.findByItemIdAndRepimgYn(orderItem.getItem().getId(), "Y");
-                OrderItemDto orderItemDto = new OrderItemDto(orderItem, itemImg.getImgUrl());
-                orderHistDto.addOrderItemDto(orderItemDto);
-            }
-            orderHistDtos.add(orderHistDto);
-        }
+        List<OrderHistDto> orderHistDtos = orderRepository.getOrderHistories(email, pageable);
+        Long totalCount = getOrderCount(email);
         return new PageImpl<OrderHistDto>(orderHistDtos, pageable, totalCount);
     }
 
-
     @Transactional(readOnly = true)
-    public boolean validateOrder(Long orderId, String email) {
-        Member curMember = memberRepository.findByEmail(email);
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(EntityNotFoundException::new);
-        Member savedMember = order.getMember();
+    public CursorPageDto<OrderHistDto> getOrderSlice(String email, String cursor, int size) {
+        LocalDateTime lastOrderDate = null;
+        Long lastOrderId = null;
+
+        // 커서는 "주문일시_주문아이디" 형식입니다.
+        if (!StringUtils.isEmpty(cursor)) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                lastOrderDate = LocalDateTime.parse(cursor.substring(0, separator));
+                lastOrderId = Long.valueOf(cursor.substring(separator + 1));
+            } catch (DateTimeException | IndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("잘못된 커서 입니다.");
+            }
+        }
+
+        // 한 건을 더 조회해서 다음 페이지가 있는지 판단합니다. count 쿼리는 실행하지 않습니다.
+        List<OrderHistDto> content = new ArrayList<>(
+                orderRepository.getOrderHistoriesBefore(email, lastOrderDate, lastOrderId, size + 1));
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            OrderHistDto last = content.get(content.size() - 1);
+            nextCursor = last.getOrderDateTime() + "_" + last.getOrderId();
+        }
+        return new CursorPageDto<>(content, nextCursor, hasNext);
+    }
+
+    // 주문 수는 member_order_count 에 쌓아둔 값을 쓰고, 아직 행이 없는 회원만 직접 셉니다.
+    private long getOrderCount(String email) {
+        Long orderCount = memberOrderCountRepository.findOrderCountByEmail(email);
+        return orderCount != null ? orderCount
+                : orderRepository.countOrder(email) + orderRepository.countArchivedOrder(email);
+    }
 
-        if (!StringUtils.equals(curMember.getEmail(), savedMember.getEmail())) {
-            return false;
+    private void increaseOrderCount(Member member, int count) {
+        if (memberOrderCountRepository.addOrderCount(member.getId(), count) > 0) {
+            return;
         }
-        return true;
+        // 첫 주문이거나 집계 이전부터 있던 회원은 방금 저장한 주문까지 세어서 행을 만듭니다.
+        // 같은 회원의 첫 주문이 동시에 들어와도 한 번만 만들도록 회원 행을 잠그고 다시 확인합니다.
+        memberRepository.findByIdForUpdate(member.getId());
+        if (memberOrderCountRepository.addOrderCount(member.getId(), count) > 0) {
+            return;
+        }
+        memberOrderCountRepository.save(MemberOrderCount.createCount(member.getId(),
+                orderRepository.countOrderByMemberId(member.getId())
+                        + orderRepository.countArchivedOrderByMemberId(member.getId()),
+                orderRepository.countOrderByMemberIdAndStatus(member.getId(), OrderStatus.CANCEL)
+                        + orderRepository.countArchivedOrderByMemberIdAndStatus(member.getId(), OrderStatus.CANCEL)));
     }
 
+
     public void cancelOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(EntityNotFoundException::new);
+        boolean ordered = order.getOrderStatus() == OrderStatus.ORDER;
         order.cancelOrder();
+        if (ordered) {
+            for (OrderItem orderItem : order.getOrderItems()) {
+                stockManager.addStock(orderItem.getItem(), orderItem.getCount());
+            }
+            memberOrderCountRepository.addCancelCount(order.getMember().getId(), 1);
+            eventPublisher.publishEvent(OrderSalesEvent.canceled(order));
+            orderOutbox.orderCanceled(order);
+        }
     }
 
     public Long orders(List<OrderDto> orderDtoList, String email) {
+        return orders(orderDtoList, email, List.of());
+    }
 
-        Member member = memberRepository.findByEmail(email);
-        List<OrderItem> orderItemList = new ArrayList<>();
+    /**
+     * 장바구니 주문은 주문 상품을 만든 트랜잭션에서 장바구니 상품까지 지웁니다.
+     * 장바구니 상품은 delete 한 문장으로 먼저 지우고, 그 사이 다른 주문이 먼저 지웠으면 롤백합니다.
+     */
+    public Long orders(List<OrderDto> orderDtoList, String email, List<Long> cartItemIds) {
 
-        for (OrderDto orderDto : orderDtoList) {
-            Item item = itemRepository.findById(orderDto.getItemId())
-                    .orElseThrow(EntityNotFoundException::new);
-            OrderItem orderItem = OrderItem.createOrderItem(item, orderDto.getCount());
-            orderItemList.add(orderItem);
+        Member member = memberRepository.findByEmail(email);
+        if (!cartItemIds.isEmpty() && cartItemRepository.deleteByIdIn(cartItemIds) != cartItemIds.size()) {
+            throw new EntityNotFoundException();
         }
-        Order order = Order.createOrder(member, orderItemList);
+        Order order = createOrder(member, orderDtoList);
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderSalesEvent.ordered(order));
+        orderOutbox.orderCreated(order);
+        increaseOrderCount(member, 1);
         return order.getId();
     }
+
+    /**
+     * 묶음 주문(OrderGroupCommitter)을 한 트랜잭션에서 처리합니다.
+     * 실패한 주문은 예외를 던지지 않고 그 주문에만 기록하므로 나머지 주문은 같이 커밋됩니다.
+     * 회원별 주문 수와 장바구니 상품 삭제는 마지막에 한 번만 해서 중간 flush 로 insert 배치가 끊기지 않도록 합니다.
+     */
+    void placeOrders(List<PendingOrder> pendingOrders) {
+        Map<Long, Member> members = new LinkedHashMap<>();
+        Map<Long, Integer> orderCounts = new LinkedHashMap<>();
+        Set<Long> cartItemIds = new HashSet<>();
+
+        for (PendingOrder pendingOrder : pendingOrders) {
+            try {
+                Member member = memberRepository.findByEmail(pendingOrder.getEmail());
+                if (member == null) {
+                    throw new EntityNotFoundException();
+                }
+                // 주문을 저장한 뒤에는 실패할 일이 없도록 확인은 모두 먼저 합니다.
+                // 같은 묶음에서 이미 주문한 장바구니 상품이 있으면 중복 주문입니다.
+                List<Long> orderCartItemIds = pendingOrder.getCartItemIds();
+                if (!orderCartItemIds.isEmpty() && (orderCartItemIds.stream().anyMatch(cartItemIds::contains)
+                        || cartItemRepository.countByIdIn(orderCartItemIds) != orderCartItemIds.size())) {
+                    throw new EntityNotFoundException();
+                }
+                Order order = createOrder(member, pendingOrder.getOrderDtoList());
+                orderRepository.save(order);
+                eventPublisher.publishEvent(OrderSalesEvent.ordered(order));
+                orderOutbox.orderCreated(order);
+                cartItemIds.addAll(orderCartItemIds);
+                pendingOrder.setOrderId(order.getId());
+                members.put(member.getId(), member);
+                orderCounts.merge(member.getId(), 1, Integer::sum);
+            } catch (RuntimeException e) {
+                pendingOrder.setError(e);
+            }
+        }
+        if (!cartItemIds.isEmpty()) {
+            cartItemRepository.deleteByIdIn(cartItemIds);
+        }
+        orderCounts.forEach((memberId, count) -> increaseOrderCount(members.get(memberId), count));
+    }
+
+    // 주문 상품은 한 번에 조회합니다.
+    private Order createOrder(Member member, List<OrderDto> orderDtoList) {
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(orderDtoList.stream().map(OrderDto::getItemId).toList())) {
+            items.put(item.getId(), item);
+        }
+
+        // 재고는 주문 상품 수와 관계없이 한 번에 차감하고, 부족하면 이 주문에서 뺀 재고는 모두 되돌아갑니다.
+        Map<Item, Integer> itemCounts = new LinkedHashMap<>();
+        for (OrderDto orderDto : orderDtoList) {
+            Item item = items.get(orderDto.getItemId());
+            if (item == null) {
+                throw new EntityNotFoundException();
+            }
+            itemCounts.merge(item, orderDto.getCount(), Integer::sum);
+        }
+        stockManager.removeStocks(itemCounts);
+
+        List<OrderItem> orderItemList = new ArrayList<>();
+        for (OrderDto orderDto : orderDtoList) {
+            orderItemList.add(OrderItem.createOrderItem(items.get(orderDto.getItemId()), orderDto.getCount()));
+        }
+        return Order.createOrder(member, orderItemList);
+    }
 }
@@ -0,0 +1,86 @@
+package com.example.shoptry.service;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * total_price, item_count 컬럼이 생기기 전에 저장된 주문(orders, orders_archive)의 합계를 주문 상품에서 채웁니다.
+ * 주문에는 항상 상품이 하나 이상 있으므로 item_count 가 0 인 주문만 채우며, 이미 채운 주문은 다시 건드리지 않습니다.
+ * 주문 아이디 순으로 batch-size 건씩 나눠 batch 마다 트랜잭션 하나로 처리합니다.
+ * item_count = 0 조건은 인덱스가 없어 두 테이블을 끝까지 훑으므로 컬럼을 추가할 때 한 번만 실행합니다.
+ * 관리자 화면(/admin/orders/total-backfill)에서 실행하고, 기동할 때 실행은 enabled 를 켠 배포에서만 합니다.
+ */
+@Component
+@Log
+public class OrderTotalBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shop.order.total-backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shop.order.total-backfill.batch-size:500}")
+    private int batchSize;
+
+    public OrderTotalBackfill(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long orders = backfill();
+            if (orders > 0) {
+                log.info("주문 합계 채우기 완료: " + orders + "건");
+            }
+        } catch (RuntimeException e) {
+            log.warning("주문 합계 채우기 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return 합계를 채운 주문 수 (보관된 주문 포함)
+     */
+    public synchronized long backfill() {
+        return backfill("orders", "order_item") + backfill("orders_archive", "order_item_archive");
+    }
+
+    private long backfill(String orderTable, String orderItemTable) {
+        long filled = 0;
+        long lastOrderId = 0;
+        while (true) {
+            long from = lastOrderId;
+            List<Long> orderIds = jdbcTemplate.queryForList("select order_id from " + orderTable
+                            + " where item_count = 0 and order_id > ? order by order_id limit ?",
+                    Long.class, from, batchSize);
+            if (orderIds.isEmpty()) {
+                return filled;
+            }
+
+            String in = "(" + String.join(", ", Collections.nCopies(orderIds.size(), "?")) + ")";
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update("update " + orderTable + " o set "
+                    + "total_price = (select coalesce(sum(oi.order_price * oi.count), 0) from " + orderItemTable
+                    + " oi where oi.order_id = o.order_id), "
+                    + "item_count = (select coalesce(sum(oi.count), 0) from " + orderItemTable
+                    + " oi where oi.order_id = o.order_id) "
+                    + "where o.order_id in " + in, orderIds.toArray()));
+            filled += updated;
+            lastOrderId = orderIds.get(orderIds.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.OutboxEventType;
+import com.example.shoptry.event.OutboxConsumer;
+import com.example.shoptry.event.OutboxMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 커밋된 outbox 이벤트를 등록된 소비자(OutboxConsumer)에게 전달합니다.
+ *
+ * poll-interval-ms 마다 아직 전달하지 않은 이벤트를 batch-size 건씩 아이디 순으로 읽어 소비자마다 한 번에 넘기고,
+ * 모든 소비자가 받은 이벤트만 published 로 바꿉니다. 실패한 소비자는 다음 번에 받지 못한 이벤트만 다시 받습니다.
+ * 어느 소비자가 받았는지는 메모리에만 두므로 재시작하면 이미 받은 이벤트를 다시 받을 수 있습니다. (at-least-once)
+ * 한 소비자가 계속 실패하면 다른 소비자도 batch-size 건 이후의 이벤트는 받지 못합니다.
+ *
+ * 늦게 커밋된 트랜잭션의 이벤트는 아이디가 더 작아도 나중에 전달될 수 있습니다.
+ * 주문 취소는 주문이 커밋된 뒤에만 가능하므로 한 주문의 이벤트 순서는 지켜집니다.
+ * 여러 서버에서 relay 를 실행하면 같은 이벤트가 중복 전달되므로 한 서버에서만 켜는 것을 권장합니다.
+ */
+@Service
+@Log
+public class OutboxRelay {
+
+    private static final String SELECT_SQL = "select outbox_event_id, event_type, aggregate_id, payload, created_at "
+            + "from outbox_event where published = false order by outbox_event_id limit ?";
+    private static final String PUBLISH_SQL = "update outbox_event set published = true where outbox_event_id = ?";
+    private static final String PURGE_SQL = "delete from outbox_event where published = true and created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<ConsumerState> consumers = new ArrayList<>();
+
+    private final ScheduledExecutorService relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${shop.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${shop.outbox.poll-interval-ms:200}")
+    private long pollIntervalMillis;
+
+    @Value("${shop.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${shop.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private long lastPurgeMillis;
+
+    public OutboxRelay(DataSource dataSource, List<OutboxConsumer> outboxConsumers, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        for (OutboxConsumer outboxConsumer : outboxConsumers) {
+            consumers.add(new ConsumerState(outboxConsumer, meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        relay.scheduleWithFixedDelay(this::relayQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("outbox relay 시작: 소비자 " + consumers.size() + "개");
+    }
+
+    @PreDestroy
+    void stop() {
+        relay.shutdown();
+        try {
+            relay.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 쌓인 이벤트를 전달합니다. 한 번에 다 읽지 못했고 모두 전달했으면 바로 다음 batch 를 읽습니다.
+     * 전달하고 published 로 바꾼 이벤트 수를 돌려줍니다.
+     */
+    public synchronized int relay() {
+        int published = 0;
+        while (true) {
+            List<OutboxMessage> messages = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new OutboxMessage(
+                    rs.getLong("outbox_event_id"), OutboxEventType.valueOf(rs.getString("event_type")),
+                    rs.getLong("aggregate_id"), rs.getString("payload"),
+                    rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+            if (messages.isEmpty()) {
+                consumers.forEach(consumer -> consumer.lagMillis.set(0));
+                break;
+            }
+
+            for (ConsumerState consumer : consumers) {
+                consumer.deliver(messages);
+            }
+            // 모든 소비자가 받은 이벤트만 published 로 바꿉니다.
+            List<Object[]> deliveredIds = new ArrayList<>();
+            for (OutboxMessage message : messages) {
+                if (consumers.stream().allMatch(consumer -> consumer.delivered.contains(message.getId()))) {
+                    deliveredIds.add(new Object[]{message.getId()});
+                }
+            }
+            if (!deliveredIds.isEmpty()) {
+                jdbcTemplate.batchUpdate(PUBLISH_SQL, deliveredIds);
+                for (Object[] id : deliveredIds) {
+                    consumers.forEach(consumer -> consumer.delivered.remove((Long) id[0]));
+                }
+                published += deliveredIds.size();
+            }
+            if (messages.size() < batchSize || deliveredIds.size() < messages.size()) {
+                break;
+            }
+        }
+        return published;
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+            if (System.currentTimeMillis() - lastPurgeMillis > Duration.ofMinutes(1).toMillis()) {
+                purge();
+            }
+        } catch (RuntimeException e) {
+            log.warning("outbox 전달 실패: " + e.getMessage());
+        }
+    }
+
+    // 전달이 끝난 이벤트는 retention-hours 가 지나면 지웁니다.
+    private void purge() {
+        lastPurgeMillis = System.currentTimeMillis();
+        int deleted = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted > 0) {
+            log.info("전달이 끝난 outbox 이벤트 " + deleted + "건 삭제");
+        }
+    }
+
+    private static class ConsumerState {
+
+        private final OutboxConsumer consumer;
+        private final Set<Long> delivered = new HashSet<>(); //아직 published 가 아닌 이벤트 중 이 소비자가 받은 것
+        private final AtomicLong lagMillis = new AtomicLong();
+        private final Counter deliveredCounter;
+        private final Counter failureCounter;
+        private final Timer deliveryTimer;
+
+        ConsumerState(OutboxConsumer consumer, MeterRegistry meterRegistry) {
+            this.consumer = consumer;
+            this.deliveredCounter = meterRegistry.counter("shop.outbox.delivered", "consumer", consumer.getName());
+            this.failureCounter = meterRegistry.counter("shop.outbox.failures", "consumer", consumer.getName());
+            this.deliveryTimer = meterRegistry.timer("shop.outbox.delivery", "consumer", consumer.getName());
+            // 마지막으로 넘기려던 이벤트 중 가장 오래된 이벤트가 저장된 뒤 지난 시간(ms)입니다. 밀린 이벤트가 없으면 0 입니다.
+            meterRegistry.gauge("shop.outbox.consumer.lag", List.of(Tag.of("consumer", consumer.getName())), lagMillis);
+        }
+
+        void deliver(List<OutboxMessage> messages) {
+            List<OutboxMessage> pending = new ArrayList<>();
+            for (OutboxMessage message : messages) {
+                if (!delivered.contains(message.getId())) {
+                    pending.add(message);
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            lagMillis.set(Duration.between(pending.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+            long start = System.nanoTime();
+            try {
+                consumer.accept(pending);
+                for (OutboxMessage message : pending) {
+                    delivered.add(message.getId());
+                }
+                deliveredCounter.increment(pending.size());
+            } catch (Exception e) {
+                failureCounter.increment();
+                log.warning("outbox 소비자 " + consumer.getName() + " 전달 실패: " + e.getMessage());
+            } finally {
+                deliveryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
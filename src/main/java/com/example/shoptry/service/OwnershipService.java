@@ -0,0 +1,80 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.dto.MemberPrincipal;
+import com.example.shoptry.repository.CartItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import com.example.shoptry.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 장바구니 상품 수정/삭제, 주문 취소 전에 로그인한 회원의 것인지 확인합니다.
+ *
+ * 회원 아이디는 로그인할 때 만든 MemberPrincipal 에서 꺼내고, 대상은 아이디와 회원 아이디로 exists/count 한 문장만 실행합니다.
+ * MemberPrincipal 이 아닌 로그인(테스트용 사용자 등)은 이메일로 회원 아이디만 먼저 조회합니다.
+ * 여러 대상은 한 번에 확인하며 하나라도 회원의 것이 아니면 false 입니다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OwnershipService {
+
+    private final MemberRepository memberRepository;
+    private final CartItemRepository cartItemRepository;
+    private final OrderRepository orderRepository;
+    private final CartWriteBehind cartWriteBehind;
+
+    public Long getMemberId(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof MemberPrincipal memberPrincipal) {
+            return memberPrincipal.getMemberId();
+        }
+        return memberRepository.findIdByEmail(principal.getName());
+    }
+
+    public boolean ownsCartItem(Principal principal, Long cartItemId) {
+        return ownsCartItems(principal, List.of(cartItemId));
+    }
+
+    /**
+     * 메모리 장바구니를 쓰면 DB 를 읽지 않고 회원의 장바구니에서 확인합니다.
+     */
+    public boolean ownsCartItems(Principal principal, Collection<Long> cartItemIds) {
+        Set<Long> ids = new LinkedHashSet<>(cartItemIds);
+        if (cartWriteBehind.isEnabled()) {
+            return cartWriteBehind.containsCartItems(ids, principal.getName());
+        }
+        Long memberId = getMemberId(principal);
+        if (memberId == null) {
+            return false;
+        }
+        if (ids.size() == 1) {
+            return cartItemRepository.existsByIdAndCartMemberId(ids.iterator().next(), memberId);
+        }
+        return cartItemRepository.countByIdInAndCartMemberId(ids, memberId) == ids.size();
+    }
+
+    public boolean ownsOrder(Principal principal, Long orderId) {
+        return ownsOrders(principal, List.of(orderId));
+    }
+
+    public boolean ownsOrders(Principal principal, Collection<Long> orderIds) {
+        Set<Long> ids = new LinkedHashSet<>(orderIds);
+        Long memberId = getMemberId(principal);
+        if (memberId == null) {
+            return false;
+        }
+        if (ids.size() == 1) {
+            return orderRepository.existsByIdAndMemberId(ids.iterator().next(), memberId);
+        }
+        return orderRepository.countByIdInAndMemberId(ids, memberId) == ids.size();
+    }
+}
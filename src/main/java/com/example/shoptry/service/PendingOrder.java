@@ -0,0 +1,39 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.dto.OrderDto;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 묶음 커밋을 기다리는 주문 한 건입니다.
+ */
+@Getter
+@Setter
+class PendingOrder {
+
+    private final String email;
+
+    private final List<OrderDto> orderDtoList;
+
+    private final List<Long> cartItemIds; //주문과 함께 지울 장바구니 상품
+
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+    private Long orderId;
+
+    private RuntimeException error;
+
+    PendingOrder(String email, List<OrderDto> orderDtoList, List<Long> cartItemIds) {
+        this.email = email;
+        this.orderDtoList = orderDtoList;
+        this.cartItemIds = cartItemIds;
+    }
+
+    void reset() {
+        orderId = null;
+        error = null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.shoptry.service;
+
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 상품 데이터로 만드는 메모리 색인(검색 색인, 필터 색인, 정렬 스냅샷)의 공통 부분입니다.
+ * 전체 색인은 별도 스레드에서 새로 만든 뒤 쓰기 잠금 안에서 교체하고, 교체 전까지는 기존 색인을 그대로 씁니다.
+ * 새로 만드는 동안 바뀐 상품은 모아 두었다가 교체 직후에 최신 값으로 다시 반영합니다.
+ *
+ * @param <T> 한 번에 교체하는 색인 자료구조
+ */
+@Log
+public abstract class RebuildableItemIndex<T> {
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final String name;
+    private final String threadName;
+
+    private volatile boolean ready = false;
+    private volatile boolean rebuilding = false;
+    private final Set<Long> changedWhileRebuilding = ConcurrentHashMap.newKeySet();
+
+    protected RebuildableItemIndex(String name, String threadName) {
+        this.name = name;
+        this.threadName = threadName;
+    }
+
+    /**
+     * DB 의 전체 상품으로 새 색인을 만듭니다. 잠금 없이 호출됩니다.
+     */
+    protected abstract T build();
+
+    /**
+     * 새 색인으로 교체합니다. 쓰기 잠금 안에서 호출됩니다.
+     */
+    protected abstract void install(T fresh);
+
+    /**
+     * 바뀐 상품만 다시 읽어서 색인에 반영합니다.
+     */
+    protected abstract void update(Collection<Long> itemIds);
+
+    /**
+     * 생성 완료 로그에 남길 크기입니다.
+     */
+    protected abstract String describe();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuild, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        rebuilding = true;
+        changedWhileRebuilding.clear();
+        long start = System.currentTimeMillis();
+        try {
+            T fresh = build();
+
+            lock.writeLock().lock();
+            try {
+                install(fresh);
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            update(new ArrayList<>(changedWhileRebuilding));
+            changedWhileRebuilding.clear();
+            ready = true;
+            log.info(name + " 생성 완료: " + describe() + ", " + (System.currentTimeMillis() - start) + "ms");
+        } catch (RuntimeException e) {
+            rebuilding = false;
+            log.warning(name + " 생성 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 상품 변경을 반영합니다. 바뀐 상품을 모르면(빈 목록) rebuildWhenUnknown 일 때 전부 다시 만듭니다.
+     */
+    protected void itemsChanged(Collection<Long> itemIds, boolean rebuildWhenUnknown) {
+        if (itemIds.isEmpty()) {
+            if (rebuildWhenUnknown && !rebuilding) {
+                rebuildOnStartup();
+            }
+            return;
+        }
+        if (rebuilding) {
+            changedWhileRebuilding.addAll(itemIds);
+        }
+        update(itemIds);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.constant.RollupPeriod;
+import com.example.shoptry.entity.SalesRollupId;
+import com.example.shoptry.event.OrderSalesEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 판매 집계(sales_rollup)를 주문/주문취소가 커밋될 때마다 더하고 뺍니다.
+ *
+ * 커밋된 변경량은 메모리에서 (상품, 기간, 시각, 상태) 별로 합쳐두었다가 flush-interval-ms 마다 한 트랜잭션으로 반영합니다.
+ * 인기 상품의 집계 행을 주문 트랜잭션마다 잠그지 않기 위해서입니다.
+ * 반영 전에 프로세스가 죽으면 그 사이 변경량을 잃으므로 rebuild 로 주문 테이블과 보관 테이블에서 다시 만듭니다.
+ */
+@Service
+@Log
+public class SalesRollupService {
+
+    private static final String UPDATE_SQL = "update sales_rollup set units = units + ?, revenue = revenue + ? "
+            + "where item_id = ? and rollup_period = ? and bucket_start = ? and order_status = ?";
+    private static final String INSERT_SQL = "insert into sales_rollup "
+            + "(item_id, rollup_period, bucket_start, order_status, units, revenue) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer flushTimer;
+
+    // 반영과 재구성이 겹치지 않도록 합니다.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<SalesRollupId, long[]> pending = new HashMap<>(); //[수량, 금액], this 로 보호합니다.
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sales-rollup-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${shop.sales.rollup.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${shop.sales.rollup.backfill-threads:4}")
+    private int backfillThreads;
+
+    public SalesRollupService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushTimer = meterRegistry.timer("shop.sales.rollup.flush");
+        meterRegistry.gauge("shop.sales.rollup.pending", this, SalesRollupService::getPendingCount);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    @TransactionalEventListener
+    public void onOrderSales(OrderSalesEvent event) {
+        synchronized (this) {
+            for (OrderSalesEvent.SalesLine line : event.getLines()) {
+                if (event.getFromStatus() != null) {
+                    add(pending, line.getItemId(), line.getOrderDate(), event.getFromStatus(), -line.getCount(), -line.getAmount());
+                }
+                add(pending, line.getItemId(), line.getOrderDate(), event.getToStatus(), line.getCount(), line.getAmount());
+            }
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 모아둔 변경량을 sales_rollup 에 반영합니다. 실패하면 다음 반영 때 다시 시도합니다.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<SalesRollupId, long[]> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+            }
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> upsert(batch)));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    batch.forEach((id, delta) -> merge(pending, id, delta[0], delta[1]));
+                }
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 주문 테이블과 보관 테이블(orders_archive)에서 집계를 다시 만듭니다. 날짜별로 나눠 backfill-threads 개의 스레드에서 동시에 집계합니다.
+     * 재구성 중에 바뀐 주문은 집계에 두 번 들어가거나 빠질 수 있으므로 주문이 적은 시간에 실행합니다.
+     */
+    public Map<String, Object> rebuild() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        flushLock.lock();
+        ExecutorService executor = Executors.newFixedThreadPool(backfillThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sales-rollup-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // 주문 테이블에 이미 들어 있는 변경량이므로 버립니다.
+            synchronized (this) {
+                pending = new HashMap<>();
+            }
+            jdbcTemplate.update("delete from sales_rollup");
+
+            // 보관된 주문도 집계에 들어 있으므로 두 테이블의 기간을 모두 다시 만듭니다.
+            Map<String, Object> range = jdbcTemplate.queryForMap("select min(order_date) min_date, max(order_date) max_date "
+                    + "from (select order_date from orders union all select order_date from orders_archive) o");
+            AtomicLong rows = new AtomicLong();
+            List<Future<?>> futures = new ArrayList<>();
+            if (range.get("min_date") != null) {
+                LocalDate day = ((Timestamp) range.get("min_date")).toLocalDateTime().toLocalDate();
+                LocalDate lastDay = ((Timestamp) range.get("max_date")).toLocalDateTime().toLocalDate();
+                for (; !day.isAfter(lastDay); day = day.plusDays(1)) {
+                    LocalDate target = day;
+                    futures.add(executor.submit(() -> rows.addAndGet(backfillDay(target))));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("days", futures.size());
+            result.put("rows", rows.get());
+            result.put("elapsedMillis", System.currentTimeMillis() - start);
+            log.info("판매 집계 재구성: " + result);
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("판매 집계 재구성 실패", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            flushLock.unlock();
+        }
+    }
+
+    private int backfillDay(LocalDate day) {
+        Map<SalesRollupId, long[]> rollups = new HashMap<>();
+        jdbcTemplate.query("select oi.item_id, o.order_date, o.order_status, oi.count, oi.order_price "
+                        + "from orders o join order_item oi on oi.order_id = o.order_id "
+                        + "where o.order_date >= ? and o.order_date < ? "
+                        + "union all select oi.item_id, o.order_date, o.order_status, oi.count, oi.order_price "
+                        + "from orders_archive o join order_item_archive oi on oi.order_id = o.order_id "
+                        + "where o.order_date >= ? and o.order_date < ?",
+                rs -> {
+                    int count = rs.getInt("count");
+                    add(rollups, rs.getLong("item_id"), rs.getTimestamp("order_date").toLocalDateTime(),
+                            OrderStatus.valueOf(rs.getString("order_status")), count, (long) rs.getInt("order_price") * count);
+                },
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()),
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+
+        // 날짜마다 만들어지는 집계 행이 겹치지 않으므로 insert 만 합니다.
+        List<Object[]> args = new ArrayList<>(rollups.size());
+        rollups.forEach((id, delta) -> args.add(new Object[]{id.getItemId(), id.getPeriod().name(),
+                Timestamp.valueOf(id.getBucketStart()), id.getOrderStatus().name(), delta[0], delta[1]}));
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+        return args.size();
+    }
+
+    private void upsert(Map<SalesRollupId, long[]> batch) {
+        List<SalesRollupId> ids = new ArrayList<>(batch.keySet());
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (SalesRollupId id : ids) {
+            long[] delta = batch.get(id);
+            updates.add(new Object[]{delta[0], delta[1], id.getItemId(), id.getPeriod().name(),
+                    Timestamp.valueOf(id.getBucketStart()), id.getOrderStatus().name()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+
+        // 처음 생기는 집계 행만 insert 합니다.
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] update = updates.get(i);
+                inserts.add(new Object[]{update[2], update[3], update[4], update[5], update[0], update[1]});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warning("판매 집계 반영 실패: " + e.getMessage());
+        }
+    }
+
+    private static void add(Map<SalesRollupId, long[]> rollups, Long itemId, LocalDateTime orderDate,
+                            OrderStatus orderStatus, long units, long revenue) {
+        merge(rollups, new SalesRollupId(itemId, RollupPeriod.HOUR, orderDate.truncatedTo(ChronoUnit.HOURS), orderStatus),
+                units, revenue);
+        merge(rollups, new SalesRollupId(itemId, RollupPeriod.DAY, orderDate.truncatedTo(ChronoUnit.DAYS), orderStatus),
+                units, revenue);
+    }
+
+    private static void merge(Map<SalesRollupId, long[]> rollups, SalesRollupId id, long units, long revenue) {
+        long[] delta = rollups.computeIfAbsent(id, key -> new long[2]);
+        delta[0] += units;
+        delta[1] += revenue;
+    }
+}
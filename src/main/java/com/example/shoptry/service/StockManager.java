@@ -0,0 +1,61 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.entity.Item;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 주문/주문취소/관리자 수정 시 상품 재고를 바꿉니다. shop.stock.mode 로 구현을 고릅니다.
+ * <ul>
+ *     <li>entity (기본값) : 주문 트랜잭션 안에서 Item 엔티티의 재고를 수정합니다. (EntityStockManager)</li>
+ *     <li>memory : 메모리 카운터에서 차감하고 DB에는 백그라운드에서 모아서 반영합니다. (MemoryStockManager)</li>
+ *     <li>atomic : 재고 전용 스레드가 요청을 상품별로 모아 DB 조건부 update 한 문장으로 차감합니다. (AtomicStockManager)</li>
+ * </ul>
+ * 모든 메소드는 주문/상품 수정 트랜잭션 안에서 호출합니다.
+ */
+public interface StockManager {
+
+    /**
+     * 재고를 차감합니다. 재고가 부족하면 OutOfStockException 을 던집니다.
+     */
+    void removeStock(Item item, int count);
+
+    /**
+     * 한 주문의 여러 상품 재고를 한 번에 차감합니다. (상품 → 수량)
+     * 하나라도 부족하면 차감한 재고를 되돌리고 OutOfStockException 을 던집니다.
+     */
+    default void removeStocks(Map<Item, Integer> itemCounts) {
+        Map<Item, Integer> removed = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Item, Integer> itemCount : itemCounts.entrySet()) {
+                removeStock(itemCount.getKey(), itemCount.getValue());
+                removed.put(itemCount.getKey(), itemCount.getValue());
+            }
+        } catch (RuntimeException e) {
+            // 묶음 주문에서는 트랜잭션이 롤백되지 않으므로 이 주문에서 뺀 재고를 직접 되돌립니다.
+            removed.forEach(this::addStock);
+            throw e;
+        }
+    }
+
+    /**
+     * 주문 취소로 재고를 되돌립니다.
+     */
+    void addStock(Item item, int count);
+
+    /**
+     * 주문 일괄 취소로 여러 상품의 재고를 한 번에 되돌립니다. (상품 아이디 → 수량)
+     */
+    void addStocks(Map<Long, Integer> itemCounts);
+
+    /**
+     * 관리자가 입력한 재고 수량으로 맞춥니다.
+     */
+    void setStock(Item item, int stockNumber);
+
+    /**
+     * 화면에 보여줄 현재 재고 수량입니다.
+     */
+    int getStock(Item item);
+}
@@ -0,0 +1,125 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.event.ItemChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 메인(상품 목록) 화면의 렌더링 결과 캐시입니다.
+ * 사용자마다 달라지는 헤더 자리는 HEADER_HOLE 로 비워 두고 캐시하며, 응답할 때 요청마다 헤더를 채워 넣습니다.
+ * 전체 크기가 maxBytes 를 넘으면 가장 오래 사용하지 않은 페이지부터 지우고, 상품이 바뀌면 커밋 이후에 전부 비웁니다.
+ */
+@Component
+public class StorefrontPageCache {
+
+    public static final String HEADER_HOLE = "<!--shop:header-->";
+
+    private final LinkedHashMap<String, CachedPage> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+
+    // 캐시를 비울 때마다 증가합니다. 렌더링 도중에 비워졌다면 그 결과는 저장하지 않습니다.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    @Value("${shop.storefront.page-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${shop.storefront.page-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${shop.storefront.page-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public StorefrontPageCache(MeterRegistry meterRegistry) {
+        this.hitCounter = meterRegistry.counter("shop.storefront.page.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("shop.storefront.page.cache", "result", "miss");
+        this.evictionCounter = meterRegistry.counter("shop.storefront.page.cache.evictions");
+        meterRegistry.gauge("shop.storefront.page.cache.bytes", this, StorefrontPageCache::getTotalBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 캐시된 페이지를 반환하고, 없으면 renderer 로 만들어 저장합니다.
+     */
+    public String get(String key, Supplier<String> renderer) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            CachedPage cached = pages.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                hitCounter.increment();
+                return cached.html;
+            }
+        }
+
+        missCounter.increment();
+        long renderGeneration = generation.get();
+        String html = renderer.get();
+        put(key, html, renderGeneration, now);
+        return html;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateAll();
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        pages.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    private synchronized void put(String key, String html, long renderGeneration, long now) {
+        if (renderGeneration != generation.get()) {
+            return;
+        }
+        long bytes = sizeOf(key, html);
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        CachedPage previous = pages.put(key, new CachedPage(html, bytes, now + ttlSeconds * 1000));
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += bytes;
+
+        Iterator<Map.Entry<String, CachedPage>> iterator = pages.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedPage> eldest = iterator.next();
+            totalBytes -= eldest.getValue().bytes;
+            iterator.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    private static long sizeOf(String key, String html) {
+        return 2L * (key.length() + html.length()) + 64;
+    }
+
+    private record CachedPage(String html, long bytes, long expiresAt) {
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.shoptry.controller;
 
+import com.example.shoptry.service.StorefrontPageCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -22,6 +25,9 @@ class ItemControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    StorefrontPageCache storefrontPageCache;
+
     @Test
     @DisplayName("상품 등록 페이지 권한 테스트")
     @WithMockUser(username = "admin", roles = "ADMIN")
@@ -39,4 +45,27 @@ class ItemControllerTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("메인 페이지 캐시 헤더 테스트")
+    @WithAnonymousUser
+    public void mainPageCacheTest() throws Exception {
+        storefrontPageCache.invalidateAll();
+
+        String anonymous = mockMvc.perform(MockMvcRequestBuilders.get("/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, storefrontPageCache.size());
+        assertTrue(anonymous.contains("/members/login"));
+        assertFalse(anonymous.contains(StorefrontPageCache.HEADER_HOLE));
+
+        // 캐시된 페이지를 다시 쓰더라도 헤더는 로그인한 사용자 기준으로 만들어져야 합니다.
+        String admin = mockMvc.perform(MockMvcRequestBuilders.get("/")
+                        .with(SecurityMockMvcRequestPostProcessors.user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, storefrontPageCache.size());
+        assertTrue(admin.contains("/admin/item/new"));
+        assertFalse(admin.contains("/members/login"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.shoptry.repository;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.entity.Item;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 아이디 블록 크기에 따른 상품 insert 처리량 비교입니다. 기본 빌드에서는 실행하지 않습니다.
+ * mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class IdAllocationBenchmarkTest {
+
+    static final int ITEM_COUNT = 20000;
+    static final int CHUNK_SIZE = 500;
+
+    static void insertItems(String name, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //JIT 워밍업
+        persistItems(ITEM_COUNT / 4, entityManager, transactionTemplate);
+
+        long start = System.nanoTime();
+        Set<Long> itemIds = persistItems(ITEM_COUNT, entityManager, transactionTemplate);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.println("[benchmark] " + name + ": " + ITEM_COUNT + "건 " + elapsedMillis + "ms ("
+                + ITEM_COUNT * 1000L / elapsedMillis + "건/초)");
+        assertEquals(ITEM_COUNT, itemIds.size());
+    }
+
+    static Set<Long> persistItems(int count, EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        Set<Long> itemIds = new HashSet<>();
+        for (int chunk = 0; chunk < count / CHUNK_SIZE; chunk++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(CHUNK_SIZE);
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    Item item = new Item();
+                    item.setItemNm("벤치마크상품");
+                    item.setPrice(1000);
+                    item.setStockNumber(100);
+                    item.setItemDetail("아이디 할당 벤치마크 상품 입니다.");
+                    item.setItemSellStatus(ItemSellStatus.SELL);
+                    entityManager.persist(item);
+                    itemIds.add(item.getId());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return itemIds;
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = "shop.id.default-block-size=1")
+    class BlockSizeOne {
+
+        @Autowired
+        EntityManager entityManager;
+
+        @Autowired
+        PlatformTransactionManager transactionManager;
+
+        @Test
+        @DisplayName("블록 크기 1: insert 마다 시퀀스 조회")
+        void insertItems() {
+            IdAllocationBenchmarkTest.insertItems("블록 크기 1", entityManager, transactionManager);
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = "shop.id.default-block-size=500")
+    class BlockSizeFiveHundred {
+
+        @Autowired
+        EntityManager entityManager;
+
+        @Autowired
+        PlatformTransactionManager transactionManager;
+
+        @Test
+        @DisplayName("블록 크기 500: 블록마다 시퀀스 조회")
+        void insertItems() {
+            IdAllocationBenchmarkTest.insertItems("블록 크기 500", entityManager, transactionManager);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.exception.OutOfStockException;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:atomicstocktest",
+        "shop.stock.mode=atomic"
+})
+class AtomicStockManagerTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    DataSourceProperties dataSourceProperties;
+
+    int stockInDatabase(Long itemId) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "select stock_number from item where item_id = ?", Integer.class, itemId);
+    }
+
+    @Test
+    @DisplayName("조건부 재고 차감 동시 주문 테스트")
+    void concurrentOrders() throws Exception {
+        Item item = new Item();
+        item.setItemNm("한정 상품");
+        item.setPrice(10000);
+        item.setItemDetail("한정 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(50);
+        itemRepository.save(item);
+
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Member member = new Member();
+            member.setEmail("atomic" + i + "@test.com");
+            emails.add(memberRepository.save(member).getEmail());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String email = emails.get(i % emails.size());
+            futures.add(executor.submit(() -> {
+                OrderDto orderDto = new OrderDto();
+                orderDto.setItemId(item.getId());
+                orderDto.setCount(1);
+                try {
+                    return orderService.order(orderDto, email);
+                } catch (OutOfStockException e) {
+                    return null;
+                }
+            }));
+        }
+        List<Long> orderIds = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            Long orderId = future.get();
+            if (orderId != null) {
+                orderIds.add(orderId);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(50, orderIds.size());
+        assertEquals(0, stockInDatabase(item.getId()));
+
+        // 주문취소 재고 복구는 커밋 이후 재고 스레드가 반영합니다.
+        orderService.cancelOrder(orderIds.get(0));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stockInDatabase(item.getId()) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, stockInDatabase(item.getId()));
+    }
+
+    @Test
+    @DisplayName("재고 처리 시간 초과 요청 취소 테스트")
+    void timedOutRequest() throws Exception {
+        Item item = new Item();
+        item.setItemNm("지연 상품");
+        item.setPrice(10000);
+        item.setItemDetail("지연 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(10);
+        itemRepository.save(item);
+
+        // 요청을 모으는 창이 기다리는 시간보다 길어서 주문 스레드가 먼저 시간 초과됩니다.
+        AtomicStockManager slow = new AtomicStockManager(dataSourceProperties, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(slow, "windowMicros", 300_000L);
+        ReflectionTestUtils.setField(slow, "timeoutMillis", 20L);
+        ReflectionTestUtils.setField(slow, "queueCapacity", 100);
+        slow.start();
+        try {
+            assertThrows(IllegalStateException.class, () -> slow.removeStock(item, 3));
+            Thread.sleep(600);
+            assertEquals(10, stockInDatabase(item.getId()));
+        } finally {
+            slow.stop();
+        }
+    }
+}
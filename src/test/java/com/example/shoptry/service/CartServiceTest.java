@@ -2,26 +2,35 @@ package com.example.shoptry.service;
 
 import com.example.shoptry.constant.ItemSellStatus;
 import com.example.shoptry.dto.CartItemDto;
+import com.example.shoptry.dto.CartOrderDto;
 import com.example.shoptry.entity.CartItem;
 import com.example.shoptry.entity.Item;
 import com.example.shoptry.entity.Member;
 import com.example.shoptry.repository.CartItemRepository;
+import com.example.shoptry.repository.CartItemUpsert;
 import com.example.shoptry.repository.ItemRepository;
 import com.example.shoptry.repository.MemberRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
 @SpringBootTest
 @Transactional
-@TestPropertySource(locations = "classpath:application-test-properties")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class CartServiceTest {
 
     @Autowired
@@ -32,6 +41,10 @@ class CartServiceTest {
     CartService cartService;
     @Autowired
     CartItemRepository cartItemRepository;
+    @Autowired
+    CartItemUpsert cartItemUpsert;
+    @Autowired
+    EntityManager em;
 
 
     public Item savedItem() {
@@ -68,4 +81,84 @@ class CartServiceTest {
         assertEquals(item.getId(), cartItem.getItem().getId());
         assertEquals(cartItemDto.getCount(), cartItem.getCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("장바구니 중복 생성 테스트")
+    public void createCart() {
+        Item item = savedItem();
+        Member member = saveMember();
+
+        // 동시에 처음 담아 장바구니를 두 번 만들려고 해도 먼저 만든 장바구니를 씁니다.
+        Long cartId = cartItemUpsert.createCart(member.getId(), member.getEmail());
+        assertEquals(cartId, cartItemUpsert.createCart(member.getId(), member.getEmail()));
+
+        CartItemDto cartItemDto = new CartItemDto();
+        cartItemDto.setCount(1);
+        cartItemDto.setItemId(item.getId());
+        Long cartItemId = cartService.addCart(cartItemDto, member.getEmail());
+        assertEquals(cartId, cartItemRepository.findById(cartItemId).orElseThrow().getCart().getId());
+    }
+
+    @Test
+    @DisplayName("같은 상품 다시 담기 테스트")
+    public void addSameItem() {
+        Item item = savedItem();
+        Member member = saveMember();
+
+        CartItemDto cartItemDto = new CartItemDto();
+        cartItemDto.setCount(2);
+        cartItemDto.setItemId(item.getId());
+        Long cartItemId = cartService.addCart(cartItemDto, member.getEmail());
+        cartItemDto.setCount(3);
+        assertEquals(cartItemId, cartService.addCart(cartItemDto, member.getEmail()));
+
+        em.clear();
+        assertEquals(5, cartItemRepository.findById(cartItemId).orElseThrow(EntityNotFoundException::new).getCount());
+
+        cartItemDto.setItemId(item.getId() + 1000);
+        assertThrows(EntityNotFoundException.class, () -> cartService.addCart(cartItemDto, member.getEmail()));
+    }
+
+    List<CartOrderDto> addCartItems(Member member, int count) {
+        List<CartOrderDto> cartOrderDtoList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CartItemDto cartItemDto = new CartItemDto();
+            cartItemDto.setCount(2);
+            cartItemDto.setItemId(savedItem().getId());
+            CartOrderDto cartOrderDto = new CartOrderDto();
+            cartOrderDto.setCartItemId(cartService.addCart(cartItemDto, member.getEmail()));
+            cartOrderDtoList.add(cartOrderDto);
+        }
+        em.flush();
+        em.clear();
+        return cartOrderDtoList;
+    }
+
+    long orderCartItemQueries(List<CartOrderDto> cartOrderDtoList, String email) {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        cartService.orderCartItem(cartOrderDtoList, email);
+        em.flush();
+        long queries = statistics.getPrepareStatementCount();
+        em.clear();
+        return queries;
+    }
+
+    @Test
+    @DisplayName("장바구니 주문 쿼리 수 테스트")
+    public void orderCartItem() {
+        Member member = saveMember();
+
+        // 시퀀스 블록을 미리 받아 두고 회원 주문 수 행을 만듭니다.
+        orderCartItemQueries(addCartItems(member, 1), member.getEmail());
+
+        long threeLineQueries = orderCartItemQueries(addCartItems(member, 3), member.getEmail());
+        List<CartOrderDto> cartOrderDtoList = addCartItems(member, 30);
+        long thirtyLineQueries = orderCartItemQueries(cartOrderDtoList, member.getEmail());
+
+        // 조회, 삭제, insert 배치 문장 수는 장바구니 상품 수와 관계없이 같아야 합니다.
+        // 재고 차감도 상품 수와 관계없이 조건부 update 배치 한 번이고, 엔티티 재고를 고치지 않으므로 상품마다 update 가 늘지 않습니다.
+        assertEquals(threeLineQueries, thirtyLineQueries);
+        assertEquals(0, cartItemRepository.countByIdIn(cartService.getCartItemIds(cartOrderDtoList)));
+    }
+}
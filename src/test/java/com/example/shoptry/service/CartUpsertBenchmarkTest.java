@@ -0,0 +1,140 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.CartItemDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 여러 스레드가 같은 장바구니에 같은 상품을 담을 때의 처리량과 중복 행, 잃어버린 수량을 확인합니다. 기본 빌드에서는 실행하지 않습니다.
+ * mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class CartUpsertBenchmarkTest {
+
+    static final int THREADS = 32;
+    static final int ADDS = 20000;
+    static final int MEMBERS = 20;
+    static final int ITEMS = 5;
+
+    abstract static class Scenario {
+
+        @Autowired
+        CartService cartService;
+
+        @Autowired
+        CartWriteBehind cartWriteBehind;
+
+        @Autowired
+        ItemRepository itemRepository;
+
+        @Autowired
+        MemberRepository memberRepository;
+
+        @Autowired
+        DataSource dataSource;
+
+        void run(String name) throws Exception {
+            List<Long> itemIds = new ArrayList<>();
+            for (int i = 0; i < ITEMS; i++) {
+                Item item = new Item();
+                item.setItemNm("벤치마크상품");
+                item.setPrice(1000);
+                item.setStockNumber(100);
+                item.setItemDetail("장바구니 담기 벤치마크 상품 입니다.");
+                item.setItemSellStatus(ItemSellStatus.SELL);
+                itemIds.add(itemRepository.save(item).getId());
+            }
+            List<String> emails = new ArrayList<>();
+            for (int i = 0; i < MEMBERS; i++) {
+                Member member = new Member();
+                member.setEmail(name.hashCode() + "-" + i + "@bench.com");
+                emails.add(memberRepository.save(member).getEmail());
+            }
+
+            //장바구니를 만들고 JIT 워밍업
+            for (String email : emails) {
+                for (Long itemId : itemIds) {
+                    addCart(itemId, email);
+                }
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < ADDS; i++) {
+                String email = emails.get(i % MEMBERS);
+                Long itemId = itemIds.get(i / MEMBERS % ITEMS);
+                futures.add(executor.submit(() -> addCart(itemId, email)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            executor.shutdown();
+            if (cartWriteBehind.isEnabled()) {
+                cartWriteBehind.flush();
+            }
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            int rows = jdbcTemplate.queryForObject("select count(*) from cart_item", Integer.class);
+            int count = jdbcTemplate.queryForObject("select sum(count) from cart_item", Integer.class);
+            System.out.println("[benchmark] " + name + ": 담기 " + ADDS + "건 " + elapsedMillis + "ms ("
+                    + ADDS * 1000L / elapsedMillis + "건/초), 장바구니 상품 " + rows + "행, 수량 합계 " + count);
+            assertEquals(MEMBERS * ITEMS, rows);
+            assertEquals(MEMBERS * ITEMS + ADDS, count);
+        }
+
+        void addCart(Long itemId, String email) {
+            CartItemDto cartItemDto = new CartItemDto();
+            cartItemDto.setItemId(itemId);
+            cartItemDto.setCount(1);
+            cartService.addCart(cartItemDto, email);
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties =
+            "spring.datasource.url=jdbc:h2:mem:bench_cart_upsert")
+    class Upsert extends Scenario {
+
+        @Test
+        @DisplayName("cart_item 한 문장 upsert")
+        void addCarts() throws Exception {
+            run("upsert");
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_cart_write_behind", "shop.cart.write-behind.enabled=true"})
+    class WriteBehind extends Scenario {
+
+        @Test
+        @DisplayName("메모리 장바구니 (write-behind)")
+        void addCarts() throws Exception {
+            run("write-behind");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.CartDetailDto;
+import com.example.shoptry.dto.CartItemDto;
+import com.example.shoptry.dto.CartOrderDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartwritebehindtest",
+        "shop.cart.write-behind.enabled=true",
+        "shop.cart.write-behind.flush-interval-ms=3600000",
+        "shop.cart.store.max-carts=1"
+})
+class CartWriteBehindTest {
+
+    @Autowired
+    CartService cartService;
+
+    @Autowired
+    CartWriteBehind cartWriteBehind;
+
+    @Autowired
+    CatalogCardService catalogCardService;
+
+    @Autowired
+    OwnershipService ownershipService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    Item saveItem(String itemNm) {
+        Item item = new Item();
+        item.setItemNm(itemNm);
+        item.setPrice(1000);
+        item.setItemDetail("장바구니 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(100);
+        itemRepository.save(item);
+        catalogCardService.createCard(item);
+        return item;
+    }
+
+    Member saveMember(String email) {
+        Member member = new Member();
+        member.setEmail(email);
+        return memberRepository.save(member);
+    }
+
+    Long addCart(Item item, int count, String email) {
+        CartItemDto cartItemDto = new CartItemDto();
+        cartItemDto.setItemId(item.getId());
+        cartItemDto.setCount(count);
+        return cartService.addCart(cartItemDto, email);
+    }
+
+    Integer countInDatabase(Long cartItemId) {
+        List<Integer> counts = new JdbcTemplate(dataSource).queryForList(
+                "select count from cart_item where cart_item_id = ?", Integer.class, cartItemId);
+        return counts.isEmpty() ? null : counts.get(0);
+    }
+
+    @Test
+    @DisplayName("메모리 장바구니 반영 및 다시 읽기 테스트")
+    void writeBehind() {
+        Item first = saveItem("첫번째 상품");
+        Item second = saveItem("두번째 상품");
+        Item third = saveItem("세번째 상품");
+        String email = saveMember("writebehind@test.com").getEmail();
+
+        Long firstId = addCart(first, 1, email);
+        assertEquals(firstId, addCart(first, 2, email));
+        Long secondId = addCart(second, 1, email);
+        cartService.updateCartItemCount(secondId, 5, email);
+        Long thirdId = addCart(third, 1, email);
+        cartService.deleteCartItem(thirdId, email);
+
+        // 반영 전에는 DB 에 없고 조회는 메모리에서 합니다.
+        assertEquals(null, countInDatabase(firstId));
+        List<CartDetailDto> cartItems = cartService.getCartList(email);
+        assertEquals(2, cartItems.size());
+        assertEquals(secondId, cartItems.get(0).getCartItemId());
+        assertEquals(5, cartItems.get(0).getCount());
+        assertEquals(3, cartItems.get(1).getCount());
+
+        // 담았다가 지운 상품은 쓰지 않습니다.
+        cartWriteBehind.flush();
+        assertEquals(3, countInDatabase(firstId));
+        assertEquals(5, countInDatabase(secondId));
+        assertEquals(null, countInDatabase(thirdId));
+
+        // 다른 회원의 장바구니가 들어오면 반영이 끝난 장바구니는 메모리에서 빠지고, 다음에 DB 에서 다시 읽습니다.
+        cartService.getCartList(saveMember("other@test.com").getEmail());
+        cartService.updateCartItemCount(firstId, 4, email);
+        assertFalse(ownershipService.ownsCartItem(() -> "other@test.com", firstId));
+
+        // 주문 전에 남은 변경을 반영하고, 주문한 상품은 메모리에서도 빠집니다.
+        CartOrderDto cartOrderDto = new CartOrderDto();
+        cartOrderDto.setCartItemId(firstId);
+        assertNotNull(cartService.orderCartItem(List.of(cartOrderDto), email));
+        assertEquals(null, countInDatabase(firstId));
+        cartItems = cartService.getCartList(email);
+        assertEquals(1, cartItems.size());
+        assertEquals(secondId, cartItems.get(0).getCartItemId());
+    }
+}
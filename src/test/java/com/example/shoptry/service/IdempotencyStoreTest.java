@@ -0,0 +1,120 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.exception.ResponsePendingException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotencytest",
+        "shop.idempotency.jdbc=true"
+})
+class IdempotencyStoreTest {
+
+    @Autowired
+    IdempotencyStore idempotencyStore;
+
+    @Test
+    @DisplayName("같은 Idempotency-Key 요청은 한 번만 처리 테스트")
+    void execute() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> idempotencyStore.execute("key-1", "order:test@test.com", "1x2", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                sleep(200);
+                return new ResponseEntity<Long>(100L, HttpStatus.OK);
+            })));
+        }
+        started.await();
+        for (Future<ResponseEntity<?>> future : futures) {
+            assertEquals(100L, future.get().getBody());
+        }
+        executor.shutdown();
+        assertEquals(1, executions.get());
+
+        // 같은 키로 다른 요청을 보내면 처리하지 않습니다.
+        ResponseEntity<?> other = idempotencyStore.execute("key-1", "order:test@test.com", "1x3",
+                () -> new ResponseEntity<Long>(200L, HttpStatus.OK));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getStatusCode());
+
+        // 메모리에서 지워져도 테이블에 저장된 응답을 돌려줍니다.
+        ((Map<?, ?>) ReflectionTestUtils.getField(idempotencyStore, "entries")).clear();
+        ResponseEntity<?> replay = idempotencyStore.execute("key-1", "order:test@test.com", "1x2", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<Long>(300L, HttpStatus.OK);
+        });
+        assertEquals(HttpStatus.OK, replay.getStatusCode());
+        assertEquals("100", replay.getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("결과를 모르는 요청은 키를 풀지 않고 나중에 나온 결과를 돌려주는지 테스트")
+    void executePending() {
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<ResponseEntity<?>> outcome = new CompletableFuture<>();
+
+        ResponseEntity<?> first = idempotencyStore.execute("key-2", "order:test@test.com", "1x2", () -> {
+            executions.incrementAndGet();
+            throw new ResponsePendingException(new ResponseEntity<String>("주문 처리 시간이 초과되었습니다.",
+                    HttpStatus.SERVICE_UNAVAILABLE), outcome);
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, first.getStatusCode());
+
+        // 결과가 나오기 전에 다시 시도하면 새로 처리하지 않고 기다립니다.
+        ReflectionTestUtils.setField(idempotencyStore, "waitMillis", 50L);
+        ResponseEntity<?> retry = idempotencyStore.execute("key-2", "order:test@test.com", "1x2", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<Long>(200L, HttpStatus.OK);
+        });
+        ReflectionTestUtils.setField(idempotencyStore, "waitMillis", 15000L);
+        assertEquals(HttpStatus.CONFLICT, retry.getStatusCode());
+
+        outcome.complete(new ResponseEntity<Long>(100L, HttpStatus.OK));
+        ResponseEntity<?> replay = idempotencyStore.execute("key-2", "order:test@test.com", "1x2", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<Long>(300L, HttpStatus.OK);
+        });
+        assertEquals(100L, replay.getBody());
+
+        // 재시작한 서버도 테이블에 저장된 결과를 돌려줍니다.
+        ((Map<?, ?>) ReflectionTestUtils.getField(idempotencyStore, "entries")).clear();
+        replay = idempotencyStore.execute("key-2", "order:test@test.com", "1x2", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<Long>(300L, HttpStatus.OK);
+        });
+        assertEquals("100", replay.getBody());
+        assertEquals(1, executions.get());
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,25 +1,43 @@
 package com.example.shoptry.service;
 
 import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.CursorPageDto;
+import com.example.shoptry.dto.ItemFacetDto;
+import com.example.shoptry.dto.ItemImportResultDto;
 import com.example.shoptry.dto.ItemFormDto;
+import com.example.shoptry.dto.ItemSearchDto;
+import com.example.shoptry.dto.MainItemDto;
+import com.example.shoptry.entity.CatalogCard;
 import com.example.shoptry.entity.Item;
 import com.example.shoptry.entity.ItemImg;
+import com.example.shoptry.entity.ItemImportCheckpoint;
+import com.example.shoptry.repository.CatalogCardRepository;
+import com.example.shoptry.repository.ItemCountCache;
 import com.example.shoptry.repository.ItemImgRepository;
 import com.example.shoptry.repository.ItemRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +57,27 @@ class ItemServiceTest {
     @Autowired
     ItemImgRepository itemImgRepository;
 
+    @Autowired
+    ItemCountCache itemCountCache;
+
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    CatalogCardRepository catalogCardRepository;
+
+    @Autowired
+    ItemFacetIndex itemFacetIndex;
+
+    @Autowired
+    CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    ItemImportService itemImportService;
+
+    @Autowired
+    EntityManager em;
+
     List<MultipartFile> createMultipartFiles() throws Exception{
 
         List<MultipartFile> multipartFileList = new ArrayList<>();
@@ -84,5 +123,273 @@ class ItemServiceTest {
 
     }
 
+    @Test
+    @DisplayName("상품 커서 페이징 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void getMainItemSlice() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            ItemFormDto itemFormDto = new ItemFormDto();
+            itemFormDto.setItemNm("커서상품" + i);
+            itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+            itemFormDto.setItemDetail("커서 페이징 테스트 상품 입니다.");
+            itemFormDto.setPrice(1000);
+            itemFormDto.setStockNumber(100);
+            itemService.saveItem(itemFormDto, createMultipartFiles());
+        }
+
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchQuery("커서상품");
+
+        CursorPageDto<MainItemDto> first = itemService.getMainItemSlice(itemSearchDto, null, 6);
+        assertEquals(6, first.getContent().size());
+        assertTrue(first.isHasNext());
+
+        CursorPageDto<MainItemDto> second = itemService.getMainItemSlice(itemSearchDto, first.getNextCursor(), 6);
+        assertEquals(2, second.getContent().size());
+        assertFalse(second.isHasNext());
+        assertTrue(first.getContent().get(5).getId() > second.getContent().get(0).getId());
+
+        assertThrows(IllegalArgumentException.class, () -> itemService.getMainItemSlice(itemSearchDto, "abc", 6));
+    }
+
+    @Test
+    @DisplayName("상품 목록 건수 캐시 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void mainItemPageCountCache() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            ItemFormDto itemFormDto = new ItemFormDto();
+            itemFormDto.setItemNm("건수상품" + i);
+            itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+            itemFormDto.setItemDetail("건수 캐시 테스트 상품 입니다.");
+            itemFormDto.setPrice(1000);
+            itemFormDto.setStockNumber(100);
+            itemService.saveItem(itemFormDto, createMultipartFiles());
+        }
+
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchQuery("건수상품");
+        long hits = itemCountCache.getHitCount();
+
+        Page<MainItemDto> first = itemService.getMainItemPage(itemSearchDto, PageRequest.of(0, 2));
+        Page<MainItemDto> again = itemService.getMainItemPage(itemSearchDto, PageRequest.of(0, 2));
+
+        assertEquals(3, first.getTotalElements());
+        assertEquals(3, again.getTotalElements());
+        assertEquals(hits + 1, itemCountCache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("상품 검색 색인 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void searchIndex() throws Exception {
+        List<Long> itemIds = new ArrayList<>();
+        String[][] items = {{"여름 린넨셔츠", "시원한 셔츠"}, {"청바지", "린넨 소재가 섞인 바지"}, {"운동화", "가벼운 신발"}};
+        for (String[] values : items) {
+            ItemFormDto itemFormDto = new ItemFormDto();
+            itemFormDto.setItemNm(values[0]);
+            itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+            itemFormDto.setItemDetail(values[1]);
+            itemFormDto.setPrice(1000);
+            itemFormDto.setStockNumber(100);
+            itemIds.add(itemService.saveItem(itemFormDto, createMultipartFiles()));
+        }
+        itemSearchIndex.reindex(itemIds);
+
+        List<Long> found = itemSearchIndex.search("린넨", 0, 10).getItemIds();
+
+        // 상품명에 검색어가 있는 상품이 상세 설명에만 있는 상품보다 앞에 옵니다.
+        assertEquals(itemIds.get(0), found.get(0));
+        assertTrue(found.contains(itemIds.get(1)));
+        assertFalse(found.contains(itemIds.get(2)));
+    }
+
+    @Test
+    @DisplayName("상품 목록 카드 갱신 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void catalogCard() throws Exception {
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemNm("카드상품");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+        itemFormDto.setItemDetail("카드 테스트 상품 입니다.");
+        itemFormDto.setPrice(1000);
+        itemFormDto.setStockNumber(100);
+        Long itemId = itemService.saveItem(itemFormDto, createMultipartFiles());
+
+        CatalogCard catalogCard = catalogCardRepository.findById(itemId)
+                .orElseThrow(EntityNotFoundException::new);
+        ItemImg repImg = itemImgRepository.findByItemIdAndRepimgYn(itemId, "Y");
+        assertEquals("카드상품", catalogCard.getItemNm());
+        assertEquals(repImg.getImgUrl(), catalogCard.getRepImgUrl());
+
+        itemFormDto.setId(itemId);
+        itemFormDto.setItemNm("카드상품 수정");
+        itemFormDto.setPrice(2000);
+        itemFormDto.setItemSellStatus(ItemSellStatus.SOLD_OUT);
+        itemService.updateItem(itemFormDto, new ArrayList<>());
+
+        assertEquals("카드상품 수정", catalogCard.getItemNm());
+        assertEquals(2000, catalogCard.getPrice());
+        assertEquals(ItemSellStatus.SOLD_OUT, catalogCard.getItemSellStatus());
+    }
+
+    @Test
+    @DisplayName("상품 필터 색인 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void facetIndex() throws Exception {
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchSellStatus(ItemSellStatus.SELL);
+        itemSearchDto.setSearchPriceBand(2);
+        ItemFacetDto before = itemFacetIndex.query(itemSearchDto, 0, 0).getFacets();
+
+        List<Long> itemIds = new ArrayList<>();
+        Object[][] items = {{ItemSellStatus.SELL, 5000}, {ItemSellStatus.SOLD_OUT, 40000}, {ItemSellStatus.SELL, 40000}};
+        for (Object[] values : items) {
+            ItemFormDto itemFormDto = new ItemFormDto();
+            itemFormDto.setItemNm("필터상품");
+            itemFormDto.setItemSellStatus((ItemSellStatus) values[0]);
+            itemFormDto.setItemDetail("필터 테스트 상품 입니다.");
+            itemFormDto.setPrice((Integer) values[1]);
+            itemFormDto.setStockNumber(100);
+            itemIds.add(itemService.saveItem(itemFormDto, createMultipartFiles()));
+        }
+        itemFacetIndex.reindex(itemIds);
+
+        // 가격대 2번은 30,000~50,000원 입니다.
+        ItemFacetIndex.FacetResult result = itemFacetIndex.query(itemSearchDto, 0, 10);
+        ItemFacetDto after = result.getFacets();
+        assertEquals(before.getTotal() + 1, after.getTotal());
+        assertEquals(itemIds.get(2), result.getItemIds().get(0));
+        assertFalse(result.getItemIds().contains(itemIds.get(1)));
+
+        // 판매상태별 수는 판매상태 필터를 빼고 가격대 필터만 적용해서 셉니다.
+        assertEquals(before.getSellStatuses().get(1).getCount() + 1, after.getSellStatuses().get(1).getCount());
+        assertEquals(before.getPriceBands().get(0).getCount() + 1, after.getPriceBands().get(0).getCount());
+        assertEquals(before.getRegDates().get(0).getCount() + 1, after.getRegDates().get(0).getCount());
+
+        // 필터 색인이 준비되기 전에 쓰는 DB 조회도 같은 상품을 찾습니다.
+        itemSearchDto.setSearchQuery("필터상품");
+        Page<MainItemDto> filtered = itemRepository.getFilteredMainItemPage(itemSearchDto,
+                itemFacetIndex.priceBandMin(2), itemFacetIndex.priceBandMax(2), PageRequest.of(0, 10));
+        assertEquals(List.of(itemIds.get(2)), filtered.getContent().stream().map(MainItemDto::getId).toList());
+    }
+
+    @Test
+    @DisplayName("상품 정렬 스냅샷 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void catalogSnapshot() throws Exception {
+        List<Long> itemIds = new ArrayList<>();
+        int[] prices = {30000, 10000, 20000};
+        for (int price : prices) {
+            ItemFormDto itemFormDto = new ItemFormDto();
+            itemFormDto.setItemNm("정렬상품" + price);
+            itemFormDto.setItemSellStatus(ItemSellStatus.SOLD_OUT);
+            itemFormDto.setItemDetail("정렬 테스트 상품 입니다.");
+            itemFormDto.setPrice(price);
+            itemFormDto.setStockNumber(100);
+            itemIds.add(itemService.saveItem(itemFormDto, createMultipartFiles()));
+        }
+        catalogSnapshot.refresh(itemIds);
+
+        List<Long> byPrice = catalogSnapshot.page(CatalogSnapshot.SORT_PRICE_ASC, ItemSellStatus.SOLD_OUT, itemIds::contains, 0, 10).getItemIds();
+        assertEquals(List.of(itemIds.get(1), itemIds.get(2), itemIds.get(0)), byPrice);
+
+        // 가격을 바꾸면 해당 행만 순열에서 자리를 옮깁니다.
+        ItemFormDto itemFormDto = itemService.getItemDtl(itemIds.get(0));
+        itemFormDto.setPrice(5000);
+        itemService.updateItem(itemFormDto, new ArrayList<>());
+        catalogSnapshot.refresh(List.of(itemIds.get(0)));
+
+        List<Long> byPriceDesc = catalogSnapshot.page(CatalogSnapshot.SORT_PRICE_DESC, ItemSellStatus.SOLD_OUT, itemIds::contains, 0, 10).getItemIds();
+        assertEquals(List.of(itemIds.get(2), itemIds.get(1), itemIds.get(0)), byPriceDesc);
+
+        // 같은 가격이면 가격 역순에서도 최근 상품이 먼저 나옵니다.
+        itemFormDto = new ItemFormDto();
+        itemFormDto.setItemNm("정렬상품20000");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SOLD_OUT);
+        itemFormDto.setItemDetail("정렬 테스트 상품 입니다.");
+        itemFormDto.setPrice(20000);
+        itemFormDto.setStockNumber(100);
+        itemIds.add(itemService.saveItem(itemFormDto, createMultipartFiles()));
+        catalogSnapshot.refresh(List.of(itemIds.get(3)));
+        byPriceDesc = catalogSnapshot.page(CatalogSnapshot.SORT_PRICE_DESC, ItemSellStatus.SOLD_OUT, itemIds::contains, 0, 10).getItemIds();
+        assertEquals(List.of(itemIds.get(3), itemIds.get(2), itemIds.get(1), itemIds.get(0)), byPriceDesc);
+
+        // 가져오기처럼 여러 상품이 한 번에 바뀌어도 같은 순서입니다.
+        int[] batchPrices = {15000, 25000, 5000, 35000, 15000, 1000, 45000, 20000, 10000};
+        for (int price : batchPrices) {
+            itemFormDto = new ItemFormDto();
+            itemFormDto.setItemNm("정렬상품" + price);
+            itemFormDto.setItemSellStatus(ItemSellStatus.SOLD_OUT);
+            itemFormDto.setItemDetail("정렬 테스트 상품 입니다.");
+            itemFormDto.setPrice(price);
+            itemFormDto.setStockNumber(100);
+            itemIds.add(itemService.saveItem(itemFormDto, createMultipartFiles()));
+        }
+        catalogSnapshot.refresh(itemIds.subList(2, itemIds.size()));
+        List<Long> expected = new ArrayList<>(itemIds);
+        Map<Long, Integer> priceById = new HashMap<>();
+        for (Long itemId : itemIds) {
+            priceById.put(itemId, itemService.getItemDtl(itemId).getPrice());
+        }
+        expected.sort(Comparator.comparing((Long itemId) -> priceById.get(itemId)).thenComparing(Comparator.reverseOrder()));
+        byPrice = catalogSnapshot.page(CatalogSnapshot.SORT_PRICE_ASC, ItemSellStatus.SOLD_OUT, itemIds::contains, 0, 20).getItemIds();
+        assertEquals(expected, byPrice);
+        assertTrue(catalogSnapshot.getMemoryBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("상품 파일 가져오기 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void importItems(@TempDir Path dir) throws Exception {
+        Files.write(dir.resolve("a.jpg"), new byte[]{1, 2, 3, 4});
+        Files.write(dir.resolve("b.jpg"), new byte[]{1, 2, 3, 4});
+        Path file = dir.resolve("items.csv");
+        Files.writeString(file, "itemNm,price,stockNumber,itemSellStatus,itemDetail,images\n"
+                + "가져오기상품1,1000,10,SELL,\"쉼표, 그리고 \"\"따옴표\"\"\",a.jpg|b.jpg\n"
+                + "가져오기상품2,abc,10,SELL,가격 오류,a.jpg\n"
+                + "가져오기상품3,3000,30,SOLD_OUT,두 번째 상품,b.jpg\n");
 
-}
\ No newline at end of file
+        ItemImportResultDto result = itemImportService.importItems(file, dir, false);
+
+        assertEquals("DONE", result.getStatus());
+        assertEquals(3, result.getRecordsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertNull(em.find(ItemImportCheckpoint.class, file.toAbsolutePath().normalize().toString()));
+
+        Item item = itemRepository.findByItemNm("가져오기상품1").get(0);
+        assertEquals("쉼표, 그리고 \"따옴표\"", item.getItemDetail());
+        assertEquals(2, itemImgRepository.findByItemIdOrderByIdAsc(item.getId()).size());
+        CatalogCard catalogCard = catalogCardRepository.findById(item.getId())
+                .orElseThrow(EntityNotFoundException::new);
+        assertEquals(itemImgRepository.findByItemIdAndRepimgYn(item.getId(), "Y").getImgUrl(), catalogCard.getRepImgUrl());
+    }
+
+    @Test
+    @DisplayName("상품 파일 이어서 가져오기 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void resumeImportItems(@TempDir Path dir) throws Exception {
+        Files.write(dir.resolve("a.jpg"), new byte[]{1, 2, 3, 4});
+        Path file = dir.resolve("items.csv");
+        Files.writeString(file, "itemNm,price,stockNumber,itemSellStatus,itemDetail,images\n"
+                + "이어받기상품1,1000,10,SELL,이미 등록된 상품,a.jpg\n"
+                + "이어받기상품2,2000,10,SELL,이미 등록된 상품,a.jpg\n"
+                + "이어받기상품3,3000,10,SELL,남은 상품,a.jpg\n");
+        // 앞의 두 레코드까지 커밋하고 멈춘 상태입니다.
+        ItemImportCheckpoint checkpoint = new ItemImportCheckpoint();
+        checkpoint.setFile(file.toAbsolutePath().normalize().toString());
+        checkpoint.setLastRecord(2);
+        em.persist(checkpoint);
+        em.flush();
+
+        ItemImportResultDto result = itemImportService.importItems(file, dir, true);
+
+        assertEquals("DONE", result.getStatus());
+        assertEquals(2, result.getResumedFrom());
+        assertEquals(1, result.getRecordsRead());
+        assertEquals(1, result.getImported());
+        assertTrue(itemRepository.findByItemNm("이어받기상품2").isEmpty());
+        assertEquals(1, itemRepository.findByItemNm("이어받기상품3").size());
+        assertNull(em.find(ItemImportCheckpoint.class, file.toAbsolutePath().normalize().toString()));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.exception.OutOfStockException;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:stocktest",
+        "shop.stock.mode=memory",
+        "shop.stock.journal-dir=${java.io.tmpdir}/shop-stock-journal-${random.uuid}",
+        "shop.stock.flush-interval-ms=3600000"
+})
+class MemoryStockManagerTest {
+
+    @Autowired
+    StockManager stockManager;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Item saveItem(int stockNumber) {
+        Item item = new Item();
+        item.setItemNm("한정 상품");
+        item.setPrice(10000);
+        item.setItemDetail("한정 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(stockNumber);
+        return itemRepository.save(item);
+    }
+
+    int stockInDatabase(Long itemId) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "select stock_number from item where item_id = ?", Integer.class, itemId);
+    }
+
+    @Test
+    @DisplayName("메모리 재고 동시 주문 테스트")
+    void concurrentOrders() throws Exception {
+        Item item = saveItem(50);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Member member = new Member();
+            member.setEmail("stock" + i + "@test.com");
+            emails.add(memberRepository.save(member).getEmail());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String email = emails.get(i % emails.size());
+            futures.add(executor.submit(() -> {
+                OrderDto orderDto = new OrderDto();
+                orderDto.setItemId(item.getId());
+                orderDto.setCount(1);
+                try {
+                    return orderService.order(orderDto, email);
+                } catch (OutOfStockException e) {
+                    return null;
+                }
+            }));
+        }
+        List<Long> orderIds = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            Long orderId = future.get();
+            if (orderId != null) {
+                orderIds.add(orderId);
+            }
+        }
+        executor.shutdown();
+
+        // 주문 트랜잭션은 item 행을 수정하지 않습니다.
+        assertEquals(50, orderIds.size());
+        assertEquals(0, stockManager.getStock(item));
+        assertEquals(50, stockInDatabase(item.getId()));
+
+        ((MemoryStockManager) stockManager).flush();
+        assertEquals(0, stockInDatabase(item.getId()));
+
+        orderService.cancelOrder(orderIds.get(0));
+        assertEquals(1, stockManager.getStock(item));
+        ((MemoryStockManager) stockManager).flush();
+        assertEquals(1, stockInDatabase(item.getId()));
+    }
+
+    @Test
+    @DisplayName("재고 저널 복구 테스트")
+    void recoverJournal(@TempDir Path journalDir) throws Exception {
+        Item item = saveItem(10);
+
+        // 반영되지 않은 차감 2건과 장애로 끊긴 마지막 기록
+        Files.writeString(journalDir.resolve("stock-1000001.journal"),
+                "1000001 " + item.getId() + " -3\n"
+                        + "1000002 " + item.getId() + " 1\n"
+                        + "1000003 " + item.getId() + " -");
+
+        MemoryStockManager restarted = new MemoryStockManager(dataSource, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(restarted, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(restarted, "flushIntervalMillis", 3600000L);
+        restarted.start();
+        try {
+            assertEquals(8, stockInDatabase(item.getId()));
+            assertTrue(Files.notExists(journalDir.resolve("stock-1000001.journal")));
+            assertTrue(Files.exists(journalDir.resolve("stock-1000003.journal")));
+        } finally {
+            restarted.stop();
+        }
+    }
+}
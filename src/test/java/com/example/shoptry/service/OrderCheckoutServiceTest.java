@@ -0,0 +1,82 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.CheckoutStatus;
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.dto.OrderStatusDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import com.example.shoptry.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkouttest",
+        "shop.order.async.enabled=true"
+})
+class OrderCheckoutServiceTest {
+
+    @Autowired
+    OrderCheckoutService orderCheckoutService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    OrderStatusDto waitDone(String token, String email) throws InterruptedException {
+        OrderStatusDto orderStatusDto = orderCheckoutService.getStatus(token, email);
+        for (int i = 0; i < 100 && !orderStatusDto.isDone(); i++) {
+            Thread.sleep(50);
+            orderStatusDto = orderCheckoutService.getStatus(token, email);
+        }
+        return orderStatusDto;
+    }
+
+    @Test
+    @DisplayName("비동기 주문 상태 조회 테스트")
+    void submit() throws Exception {
+        Item item = new Item();
+        item.setItemNm("비동기 주문 상품");
+        item.setPrice(10000);
+        item.setItemDetail("비동기 주문 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(5);
+        itemRepository.save(item);
+
+        Member member = new Member();
+        member.setEmail("checkout@test.com");
+        memberRepository.save(member);
+
+        OrderDto orderDto = new OrderDto();
+        orderDto.setItemId(item.getId());
+        orderDto.setCount(3);
+
+        OrderStatusDto accepted = orderCheckoutService.submit(orderDto, member.getEmail());
+        OrderStatusDto completed = waitDone(accepted.getToken(), member.getEmail());
+        assertEquals(CheckoutStatus.COMPLETED, completed.getStatus());
+        assertTrue(orderRepository.existsById(completed.getOrderId()));
+
+        // 다른 회원은 주문 상태를 볼 수 없습니다.
+        assertNull(orderCheckoutService.getStatus(accepted.getToken(), "other@test.com"));
+
+        OrderStatusDto failed = waitDone(orderCheckoutService.submit(orderDto, member.getEmail()).getToken(),
+                member.getEmail());
+        assertEquals(CheckoutStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getMessage().contains("재고"));
+    }
+}
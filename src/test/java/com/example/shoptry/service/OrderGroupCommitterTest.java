@@ -0,0 +1,101 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.exception.OutOfStockException;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberOrderCountRepository;
+import com.example.shoptry.repository.MemberRepository;
+import com.example.shoptry.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:groupcommittest",
+        "shop.order.group-commit.enabled=true",
+        "shop.order.group-commit.window-millis=20"
+})
+class OrderGroupCommitterTest {
+
+    @Autowired
+    OrderGroupCommitter orderGroupCommitter;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    MemberOrderCountRepository memberOrderCountRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("주문 묶음 커밋 테스트")
+    void groupCommit() throws Exception {
+        Item item = new Item();
+        item.setItemNm("묶음 주문 상품");
+        item.setPrice(10000);
+        item.setItemDetail("묶음 주문 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(30);
+        itemRepository.save(item);
+
+        Member member = new Member();
+        member.setEmail("group@test.com");
+        memberRepository.save(member);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(executor.submit(() -> {
+                OrderDto orderDto = new OrderDto();
+                orderDto.setItemId(item.getId());
+                orderDto.setCount(1);
+                try {
+                    return orderGroupCommitter.order(orderDto, member.getEmail());
+                } catch (OutOfStockException e) {
+                    return null;
+                }
+            }));
+        }
+        List<Long> orderIds = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            Long orderId = future.get();
+            if (orderId != null) {
+                orderIds.add(orderId);
+            }
+        }
+        executor.shutdown();
+
+        // 재고가 부족한 주문만 실패하고 같은 묶음의 다른 주문은 커밋됩니다.
+        assertEquals(30, orderIds.size());
+        for (Long orderId : orderIds) {
+            assertTrue(orderRepository.existsById(orderId));
+        }
+        assertEquals(0, itemRepository.findById(item.getId()).get().getStockNumber());
+        assertEquals(30L, memberOrderCountRepository.findOrderCountByEmail(member.getEmail()));
+        assertTrue(meterRegistry.counter("shop.order.group-commit.batches").count() < 40);
+    }
+}
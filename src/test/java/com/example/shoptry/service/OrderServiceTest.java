@@ -2,35 +2,62 @@ package com.example.shoptry.service;
 
 import com.example.shoptry.constant.ItemSellStatus;
 import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.dto.CursorPageDto;
+import com.example.shoptry.dto.MemberPrincipal;
+import com.example.shoptry.dto.OrderBulkCancelDto;
+import com.example.shoptry.dto.OrderBulkCancelResultDto;
 import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.dto.OrderHistDto;
 import com.example.shoptry.entity.Item;
 import com.example.shoptry.entity.Member;
+import com.example.shoptry.entity.MemberOrderCount;
 import com.example.shoptry.entity.Order;
 import com.example.shoptry.entity.OrderItem;
 import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberOrderCountRepository;
 import com.example.shoptry.repository.MemberRepository;
 import com.example.shoptry.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.DisplayName;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @SpringBootTest
 @Transactional
-@TestPropertySource(locations = "classpath:application-test.properties")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class OrderServiceTest {
 
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderTotalBackfill orderTotalBackfill;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -40,6 +67,21 @@ class OrderServiceTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberOrderCountRepository memberOrderCountRepository;
+
+    @Autowired
+    OrderBulkCancelService orderBulkCancelService;
+
+    @Autowired
+    OrderArchiveService orderArchiveService;
+
+    @Autowired
+    OwnershipService ownershipService;
+
+    @Autowired
+    EntityManager em;
+
     public Item saveItem() {
         Item item = new Item();
         item.setItemNm("테스트 상품 ");
@@ -75,6 +117,7 @@ class OrderServiceTest {
         int totalPrice = orderDto.getCount() * item.getPrice();
 
         assertEquals(totalPrice, order.getTotalPrice());
+        assertEquals(10, order.getItemCount());
     }
 
     @Test
@@ -95,4 +138,210 @@ class OrderServiceTest {
         assertEquals(OrderStatus.CANCEL, order.getOrderStatus());
         assertEquals(100, item.getStockNumber());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("구매이력 조회 쿼리 수 테스트")
+    public void getOrderListQueryCount() {
+        Member member = saveMember();
+        for (int i = 0; i < 4; i++) {
+            List<OrderDto> orderDtoList = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                OrderDto orderDto = new OrderDto();
+                orderDto.setCount(1);
+                orderDto.setItemId(saveItem().getId());
+                orderDtoList.add(orderDto);
+            }
+            orderService.orders(orderDtoList, member.getEmail());
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        Page<OrderHistDto> onePage = orderService.getOrderList(member.getEmail(), PageRequest.of(0, 1));
+        long onePageQueries = statistics.getPrepareStatementCount();
+        em.clear();
+
+        statistics.clear();
+        Page<OrderHistDto> fourPage = orderService.getOrderList(member.getEmail(), PageRequest.of(0, 4));
+        long fourPageQueries = statistics.getPrepareStatementCount();
+
+        assertEquals(1, onePage.getContent().size());
+        assertEquals(4, fourPage.getContent().size());
+        assertEquals(5, fourPage.getContent().get(3).getOrderItemDtoList().size());
+        assertEquals(50000, fourPage.getContent().get(3).getTotalPrice());
+        assertEquals(5, fourPage.getContent().get(3).getItemCount());
+        assertEquals(4, fourPage.getTotalElements());
+        assertEquals(3, fourPageQueries);
+        assertEquals(onePageQueries, fourPageQueries);
+    }
+
+    @Test
+    @DisplayName("구매이력 커서 조회 및 주문 수 테스트")
+    public void getOrderSlice() {
+        Member member = saveMember();
+        Item item = saveItem();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setCount(1);
+            orderDto.setItemId(item.getId());
+            orderIds.add(orderService.order(orderDto, member.getEmail()));
+        }
+        orderService.cancelOrder(orderIds.get(0));
+        em.flush();
+        em.clear();
+
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int slices = 0;
+        do {
+            CursorPageDto<OrderHistDto> slice = orderService.getOrderSlice(member.getEmail(), cursor, 2);
+            for (OrderHistDto orderHistDto : slice.getContent()) {
+                assertTrue(seen.add(orderHistDto.getOrderId()));
+            }
+            cursor = slice.getNextCursor();
+            slices++;
+        } while (cursor != null);
+
+        assertEquals(3, slices);
+        assertEquals(new HashSet<>(orderIds), seen);
+
+        MemberOrderCount memberOrderCount = memberOrderCountRepository.findById(member.getId()).orElseThrow();
+        assertEquals(5, memberOrderCount.getOrderCount());
+        assertEquals(1, memberOrderCount.getCancelCount());
+        assertEquals(5, orderService.getOrderList(member.getEmail(), PageRequest.of(0, 4)).getTotalElements());
+        assertFalse(memberOrderCount.isNew());
+    }
+
+    @Test
+    @DisplayName("주문 일괄 취소 테스트")
+    public void cancelOrders() {
+        Member member = saveMember();
+        Item recalled = saveItem();
+        Item other = saveItem();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            List<OrderDto> orderDtoList = new ArrayList<>();
+            for (Item item : List.of(recalled, other)) {
+                OrderDto orderDto = new OrderDto();
+                orderDto.setCount(2);
+                orderDto.setItemId(item.getId());
+                orderDtoList.add(orderDto);
+            }
+            orderIds.add(orderService.orders(orderDtoList, member.getEmail()));
+        }
+        orderService.cancelOrder(orderIds.get(0));
+        em.flush();
+        em.clear();
+
+        OrderBulkCancelDto orderBulkCancelDto = new OrderBulkCancelDto();
+        orderBulkCancelDto.setItemId(recalled.getId());
+        OrderBulkCancelResultDto result = orderBulkCancelService.cancelOrders(orderBulkCancelDto);
+
+        assertEquals("DONE", result.getStatus());
+        assertEquals(4, result.getCanceledOrders());
+        assertEquals(16, result.getRestoredStock());
+        assertEquals(160000, result.getCanceledAmount());
+        assertEquals(100, itemRepository.findById(recalled.getId()).orElseThrow().getStockNumber());
+        assertEquals(100, itemRepository.findById(other.getId()).orElseThrow().getStockNumber());
+        for (Long orderId : orderIds) {
+            assertEquals(OrderStatus.CANCEL, orderRepository.findById(orderId).orElseThrow().getOrderStatus());
+        }
+        assertEquals(5, memberOrderCountRepository.findById(member.getId()).orElseThrow().getCancelCount());
+
+        // 실행 중이면 새 일괄 취소를 시작하지 않습니다.
+        AtomicBoolean running = (AtomicBoolean) ReflectionTestUtils.getField(orderBulkCancelService, "running");
+        running.set(true);
+        try {
+            assertFalse(orderBulkCancelService.startCancelOrders(orderBulkCancelDto));
+            assertEquals(result, orderBulkCancelService.getLastResult());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Test
+    @DisplayName("오래된 주문 보관 후 구매이력 조회 테스트")
+    public void archiveOrders() {
+        Member member = saveMember();
+        Item item = saveItem();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setCount(1);
+            orderDto.setItemId(item.getId());
+            Long orderId = orderService.order(orderDto, member.getEmail());
+            orderIds.add(orderId);
+            // 앞의 세 주문은 보관 기간이 지난 주문입니다.
+            if (i < 3) {
+                orderRepository.findById(orderId).orElseThrow().setOrderDate(LocalDateTime.now().minusDays(400 - i));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        Map<String, Object> result = orderArchiveService.archive();
+        assertEquals(3L, result.get("orders"));
+        assertEquals(2, orderRepository.count());
+
+        // 합계 컬럼이 생기기 전에 저장된 주문도 주문 상품에서 합계를 채웁니다.
+        em.createNativeQuery("update orders set total_price = 0, item_count = 0").executeUpdate();
+        em.createNativeQuery("update orders_archive set total_price = 0, item_count = 0").executeUpdate();
+        assertEquals(5, orderTotalBackfill.backfill());
+        assertEquals(0, orderTotalBackfill.backfill());
+
+        Page<OrderHistDto> firstPage = orderService.getOrderList(member.getEmail(), PageRequest.of(0, 4));
+        Page<OrderHistDto> secondPage = orderService.getOrderList(member.getEmail(), PageRequest.of(1, 4));
+        assertEquals(5, firstPage.getTotalElements());
+        assertEquals(List.of(orderIds.get(4), orderIds.get(3), orderIds.get(2), orderIds.get(1)),
+                firstPage.getContent().stream().map(OrderHistDto::getOrderId).toList());
+        assertTrue(firstPage.getContent().get(2).isArchived());
+        assertEquals(1, firstPage.getContent().get(2).getOrderItemDtoList().size());
+        assertEquals(1, firstPage.getContent().get(2).getItemCount());
+        assertEquals(item.getPrice(), firstPage.getContent().get(2).getTotalPrice());
+        assertEquals(item.getPrice(), firstPage.getContent().get(0).getTotalPrice());
+        assertEquals(List.of(orderIds.get(0)), secondPage.getContent().stream().map(OrderHistDto::getOrderId).toList());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<OrderHistDto> slice = orderService.getOrderSlice(member.getEmail(), cursor, 2);
+            slice.getContent().forEach(orderHistDto -> seen.add(orderHistDto.getOrderId()));
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        assertEquals(List.of(orderIds.get(4), orderIds.get(3), orderIds.get(2), orderIds.get(1), orderIds.get(0)), seen);
+    }
+
+    @Test
+    @DisplayName("주문 권한 확인 테스트")
+    public void ownsOrders() {
+        Member member = saveMember();
+        Member other = new Member();
+        other.setEmail("other@test.com");
+        memberRepository.save(other);
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setCount(1);
+            orderDto.setItemId(saveItem().getId());
+            orderIds.add(orderService.order(orderDto, member.getEmail()));
+        }
+        em.flush();
+        em.clear();
+
+        Principal principal = new UsernamePasswordAuthenticationToken(
+                new MemberPrincipal(member.getId(), member.getEmail(), "", List.of()), null, List.of());
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertTrue(ownershipService.ownsOrders(principal, orderIds));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        // 로그인 정보에 회원 아이디가 없으면 이메일로 아이디만 조회합니다.
+        assertTrue(ownershipService.ownsOrder(member::getEmail, orderIds.get(0)));
+        assertFalse(ownershipService.ownsOrder(other::getEmail, orderIds.get(0)));
+        assertFalse(ownershipService.ownsOrders(principal, List.of(orderIds.get(0), -1L)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.constant.OutboxEventType;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.event.OutboxConsumer;
+import com.example.shoptry.event.OutboxMessage;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import com.example.shoptry.repository.OutboxEventRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxtest",
+        "shop.outbox.relay.enabled=false",
+        "shop.outbox.file-sink.path=${java.io.tmpdir}/shop-outbox-test/order-events.jsonl"
+})
+class OutboxRelayTest {
+
+    @TestConfiguration
+    static class FlakyConsumerConfig {
+
+        @Bean
+        FlakyConsumer flakyConsumer() {
+            return new FlakyConsumer();
+        }
+    }
+
+    // 처음 한 번은 실패하는 소비자
+    static class FlakyConsumer implements OutboxConsumer {
+
+        final List<Long> received = new ArrayList<>();
+        boolean failed;
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public void accept(List<OutboxMessage> messages) {
+            if (!failed) {
+                failed = true;
+                throw new IllegalStateException("일시적인 장애");
+            }
+            messages.forEach(message -> received.add(message.getId()));
+        }
+    }
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    FlakyConsumer flakyConsumer;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Value("${shop.outbox.file-sink.path}")
+    String fileSinkPath;
+
+    @Test
+    @DisplayName("outbox 이벤트 전달 및 재전달 테스트")
+    void relay() throws Exception {
+        Files.deleteIfExists(Paths.get(fileSinkPath));
+        Item item = new Item();
+        item.setItemNm("이벤트 상품");
+        item.setPrice(1000);
+        item.setItemDetail("이벤트 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(100);
+        itemRepository.save(item);
+
+        Member member = new Member();
+        member.setEmail("outbox@test.com");
+        memberRepository.save(member);
+
+        OrderDto orderDto = new OrderDto();
+        orderDto.setItemId(item.getId());
+        orderDto.setCount(2);
+        Long orderId = orderService.order(orderDto, member.getEmail());
+        orderService.cancelOrder(orderId);
+
+        // 파일 소비자는 받았지만 flaky 소비자가 실패해서 published 로 바뀌지 않습니다.
+        assertEquals(0, outboxRelay.relay());
+        List<String> lines = Files.readAllLines(Paths.get(fileSinkPath));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains(OutboxEventType.ORDER_CREATED.name()));
+        assertTrue(lines.get(0).contains("\"orderId\":" + orderId));
+        assertTrue(lines.get(1).contains(OutboxEventType.ORDER_CANCELED.name()));
+
+        // 실패한 소비자만 다시 받습니다.
+        assertEquals(2, outboxRelay.relay());
+        assertEquals(2, flakyConsumer.received.size());
+        assertEquals(2, Files.readAllLines(Paths.get(fileSinkPath)).size());
+        assertTrue(outboxEventRepository.findAll().stream().allMatch(event -> event.isPublished()));
+        assertEquals(0, outboxRelay.relay());
+    }
+}
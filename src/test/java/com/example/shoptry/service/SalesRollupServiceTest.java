@@ -0,0 +1,114 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.constant.OrderStatus;
+import com.example.shoptry.constant.RollupPeriod;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.dto.SalesRollupDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import com.example.shoptry.repository.OrderRepository;
+import com.example.shoptry.repository.SalesRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:salesrolluptest",
+        "shop.sales.rollup.flush-interval-ms=3600000",
+        "shop.order.archive.after-days=0",
+        "shop.order.archive.pause-ms=0"
+})
+class SalesRollupServiceTest {
+
+    @Autowired
+    SalesRollupService salesRollupService;
+
+    @Autowired
+    SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderArchiveService orderArchiveService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    Long order(Item item, int count, String email) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setItemId(item.getId());
+        orderDto.setCount(count);
+        return orderService.order(orderDto, email);
+    }
+
+    @Test
+    @DisplayName("판매 집계 반영 및 재구성 테스트")
+    void rollup() throws Exception {
+        Item item = new Item();
+        item.setItemNm("집계 상품");
+        item.setPrice(1000);
+        item.setItemDetail("집계 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(100);
+        itemRepository.save(item);
+
+        Member member = new Member();
+        member.setEmail("sales@test.com");
+        memberRepository.save(member);
+
+        order(item, 2, member.getEmail());
+        order(item, 3, member.getEmail());
+        Long canceled = order(item, 4, member.getEmail());
+        orderService.cancelOrder(canceled);
+        salesRollupService.flush();
+
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        assertSales(RollupPeriod.DAY, OrderStatus.ORDER, from, to, 5, 5000);
+        assertSales(RollupPeriod.DAY, OrderStatus.CANCEL, from, to, 4, 4000);
+        List<SalesRollupDto> topItems = salesRollupRepository.findTopItems(OrderStatus.ORDER, from, to, PageRequest.of(0, 10));
+        assertEquals("집계 상품", topItems.get(0).getItemNm());
+        assertEquals(5000, topItems.get(0).getRevenue());
+
+        // 주문 테이블에서 다시 만들어도 같은 값입니다.
+        salesRollupService.rebuild();
+        assertSales(RollupPeriod.HOUR, OrderStatus.ORDER, from, to, 5, 5000);
+        assertSales(RollupPeriod.DAY, OrderStatus.ORDER, from, to, 5, 5000);
+        assertSales(RollupPeriod.DAY, OrderStatus.CANCEL, from, to, 4, 4000);
+
+        // 보관 테이블로 옮긴 주문도 다시 만들 때 빠지지 않습니다.
+        orderArchiveService.archive();
+        assertEquals(0, orderRepository.count());
+        salesRollupService.rebuild();
+        assertSales(RollupPeriod.HOUR, OrderStatus.ORDER, from, to, 5, 5000);
+        assertSales(RollupPeriod.DAY, OrderStatus.ORDER, from, to, 5, 5000);
+        assertSales(RollupPeriod.DAY, OrderStatus.CANCEL, from, to, 4, 4000);
+    }
+
+    void assertSales(RollupPeriod period, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                     long units, long revenue) {
+        List<SalesRollupDto> sales = salesRollupRepository.findSales(period, status, from, to);
+        assertEquals(units, sales.stream().mapToLong(SalesRollupDto::getUnits).sum());
+        assertEquals(revenue, sales.stream().mapToLong(SalesRollupDto::getRevenue).sum());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.shoptry.service;
+
+import com.example.shoptry.constant.ItemSellStatus;
+import com.example.shoptry.dto.OrderDto;
+import com.example.shoptry.entity.Item;
+import com.example.shoptry.entity.Member;
+import com.example.shoptry.repository.ItemRepository;
+import com.example.shoptry.repository.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 한 상품에 주문이 몰릴 때 재고 차감 방식별 처리량과 초과 판매 건수를 비교합니다. 기본 빌드에서는 실행하지 않습니다.
+ * mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class StockContentionBenchmarkTest {
+
+    static final int THREADS = 32;
+    static final int ORDERS = 4000;
+    static final int STOCK = 1000;
+    static final int MEMBERS = 100;
+
+    /**
+     * @return 초과 판매 건수 (성공한 주문 수 - 실제로 줄어든 재고)
+     */
+    static int orderConcurrently(String name, OrderService orderService, ItemRepository itemRepository,
+                                 MemberRepository memberRepository, DataSource dataSource) throws Exception {
+        Item item = new Item();
+        item.setItemNm("벤치마크상품");
+        item.setPrice(1000);
+        item.setStockNumber(STOCK);
+        item.setItemDetail("재고 경합 벤치마크 상품 입니다.");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        itemRepository.save(item);
+
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = new Member();
+            member.setEmail(name.hashCode() + "-" + i + "@bench.com");
+            emails.add(memberRepository.save(member).getEmail());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            String email = emails.get(i % MEMBERS);
+            futures.add(executor.submit(() -> {
+                OrderDto orderDto = new OrderDto();
+                orderDto.setItemId(item.getId());
+                orderDto.setCount(1);
+                try {
+                    orderService.order(orderDto, email);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        int succeeded = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                succeeded++;
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        executor.shutdown();
+
+        int stock = new JdbcTemplate(dataSource).queryForObject(
+                "select stock_number from item where item_id = ?", Integer.class, item.getId());
+        int oversold = succeeded - (STOCK - stock);
+        System.out.println("[benchmark] " + name + ": 주문 " + ORDERS + "건 " + elapsedMillis + "ms ("
+                + ORDERS * 1000L / elapsedMillis + "건/초), 성공 " + succeeded + "건, 남은 재고 " + stock
+                + ", 초과 판매 " + oversold + "건");
+        return oversold;
+    }
+
+    abstract static class Scenario {
+
+        @Autowired
+        OrderService orderService;
+
+        @Autowired
+        ItemRepository itemRepository;
+
+        @Autowired
+        MemberRepository memberRepository;
+
+        @Autowired
+        DataSource dataSource;
+
+        int run(String name) throws Exception {
+            return orderConcurrently(name, orderService, itemRepository, memberRepository, dataSource);
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_entity", "shop.stock.mode=entity"})
+    class EntityH2 extends Scenario {
+
+        @Test
+        @DisplayName("엔티티 재고 수정 (H2)")
+        void orders() throws Exception {
+            run("entity / H2");
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_entity_mysql;MODE=MySQL", "shop.stock.mode=entity"})
+    class EntityMySqlMode extends Scenario {
+
+        @Test
+        @DisplayName("엔티티 재고 수정 (H2 MySQL 모드)")
+        void orders() throws Exception {
+            run("entity / H2 MySQL mode");
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_atomic", "shop.stock.mode=atomic"})
+    class AtomicH2 extends Scenario {
+
+        @Test
+        @DisplayName("조건부 update 묶음 처리 (H2)")
+        void orders() throws Exception {
+            assertEquals(0, run("atomic / H2"));
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @TestPropertySource(locations = "classpath:application-test.properties", properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_atomic_mysql;MODE=MySQL", "shop.stock.mode=atomic"})
+    class AtomicMySqlMode extends Scenario {
+
+        @Test
+        @DisplayName("조건부 update 묶음 처리 (H2 MySQL 모드)")
+        void orders() throws Exception {
+            assertEquals(0, run("atomic / H2 MySQL mode"));
+        }
+    }
+}